@@ -0,0 +1,53 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.fx.CsvFxRateLoader;
+import com.example.batch.fx.FxRateTable;
+import com.example.batch.model.Payment;
+import com.example.batch.processor.PaymentItemProcessor;
+import com.example.batch.reader.PaymentLineMapper;
+import com.example.batch.reader.PaymentLineMappers;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Piezas compartidas por los benchmarks, configuradas igual que en application.yml.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static PaymentItemProcessor processor() throws Exception {
+        FxRateTable rateTable = new CsvFxRateLoader(new ClassPathResource("fx/rates.csv")).load();
+        PaymentItemProcessor processor = new PaymentItemProcessor();
+        processor.setCommissionRate(0.02);
+        processor.setMinAmount(10.0);
+        processor.setMaxAmount(10000.0);
+        processor.setSupportedCurrencies("USD,EUR,GBP,JPY");
+        processor.setRateTableSupplier(() -> rateTable);
+        processor.afterPropertiesSet();
+        processor.beforeStep(MetaDataInstanceFactory.createStepExecution());
+        return processor;
+    }
+
+    static List<Payment> read(List<String> lines) throws Exception {
+        PaymentLineMapper mapper = PaymentLineMappers.fast();
+        List<Payment> payments = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            payments.add(mapper.mapLine(lines.get(i), i + 2));
+        }
+        return payments;
+    }
+
+    static List<Payment> processed(List<String> lines) throws Exception {
+        PaymentItemProcessor processor = processor();
+        List<Payment> payments = read(lines);
+        for (Payment payment : payments) {
+            processor.process(payment);
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.BatchPaymentsApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecución completa de {@code importPaymentsJob} sobre un archivo generado, con el contexto de
+ * Spring levantado una sola vez. Los resultados se expresan por registro, de modo que
+ * {@code gc.alloc.rate.norm} es la memoria reservada por pago.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportPaymentsJobBenchmark {
+
+    private static final int RECORDS = 50_000;
+
+    @Param({"10", "50"})
+    public int invalidPercent;
+
+    @Param({"false", "true"})
+    public boolean partitioned;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private JobLauncher jobLauncher;
+    private Job job;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("payments-job-benchmark");
+        Path input = new PaymentFileGenerator(invalidPercent).write(directory.resolve("payments.txt"), RECORDS);
+        context = new SpringApplicationBuilder(BatchPaymentsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.batch.job.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.config=classpath:logback-jmh.xml",
+                        "--payment.input.resource=file:" + input,
+                        "--payment.output.dir=" + directory.resolve("output"),
+                        "--payment.rejected.spill-file=" + directory.resolve("rejected_payments.spill"),
+                        "--payment.partition.enabled=" + partitioned,
+                        "--payment.metrics.enabled=" + metrics,
+                        "--payment.metrics.file=" + directory.resolve("payments.prom"));
+        jobLauncher = context.getBean(JobLauncher.class);
+        job = context.getBean("importPaymentsJob", Job.class);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public JobExecution importPayments() throws Exception {
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("benchmark.run", System.nanoTime())
+                .toJobParameters());
+        if (execution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("El job terminó con estado " + execution.getStatus());
+        }
+        return execution;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.batch.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Genera archivos {@code payments.txt} sintéticos para los benchmarks: cantidad de registros,
+ * porcentaje de pagos inválidos y mezcla de monedas configurables. Con la misma semilla el
+ * archivo generado es siempre el mismo.
+ *
+ * Uso desde la línea de comandos:
+ * {@code PaymentFileGenerator <archivo> <registros> [porcentajeInvalidos] [USD:40,EUR:30,GBP:20,JPY:10]}
+ */
+public final class PaymentFileGenerator {
+
+    public static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+    public static final String DEFAULT_CURRENCY_MIX = "USD:40,EUR:30,GBP:20,JPY:10";
+
+    private static final String[] PAYMENT_TYPES = {"CREDIT_CARD", "TRANSFER", "PAYPAL", "DEBIT_CARD", "CRYPTO"};
+    private static final int INVALID_KINDS = 7;
+
+    private final int invalidPercent;
+    private final String[] currencies;
+    private final int[] cumulativeWeights;
+    private final long seed;
+
+    public PaymentFileGenerator(int invalidPercent, String currencyMix, long seed) {
+        if (invalidPercent < 0 || invalidPercent > 100) {
+            throw new IllegalArgumentException("Porcentaje de inválidos fuera de rango: " + invalidPercent);
+        }
+        Map<String, Integer> weights = parseCurrencyMix(currencyMix);
+        this.invalidPercent = invalidPercent;
+        this.currencies = weights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[currencies.length];
+        int total = 0;
+        for (int i = 0; i < currencies.length; i++) {
+            total += weights.get(currencies[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.seed = seed;
+    }
+
+    public PaymentFileGenerator(int invalidPercent) {
+        this(invalidPercent, DEFAULT_CURRENCY_MIX, 42L);
+    }
+
+    /**
+     * Líneas de datos, sin encabezado.
+     */
+    public List<String> lines(int count) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> lines = new ArrayList<>(count);
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < count; i++) {
+            line.setLength(0);
+            appendLine(line, i + 1, random);
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    public Path write(Path target, int count) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder line = new StringBuilder(128);
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < count; i++) {
+                line.setLength(0);
+                appendLine(line, i + 1, random);
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+        return target;
+    }
+
+    private void appendLine(StringBuilder line, long id, SplittableRandom random) {
+        String currency = pickCurrency(random);
+        long cents = 1_000 + random.nextLong(999_000);
+        String date = "2024-05-" + (10 + random.nextInt(20)) + "T" + (10 + random.nextInt(10)) + ":"
+                + (10 + random.nextInt(50)) + ":00";
+        String type = PAYMENT_TYPES[random.nextInt(PAYMENT_TYPES.length)];
+        String email = "customer" + id + "@example.com";
+
+        if (random.nextInt(100) < invalidPercent) {
+            // Rota entre los motivos de rechazo que aplica PaymentItemProcessor
+            switch (random.nextInt(INVALID_KINDS)) {
+                case 0:
+                    cents = random.nextLong(1_000);
+                    break;
+                case 1:
+                    cents = 1_000_001 + random.nextLong(10_000_000);
+                    break;
+                case 2:
+                    currency = "MXN";
+                    break;
+                case 3:
+                    email = "customer" + id + "-example.com";
+                    break;
+                case 4:
+                    email = "";
+                    break;
+                case 5:
+                    type = "";
+                    break;
+                default:
+                    date = "";
+                    break;
+            }
+        }
+
+        line.append(id).append(',')
+                .append(cents / 100).append('.').append((char) ('0' + cents % 100 / 10)).append((char) ('0' + cents % 10))
+                .append(',').append(currency).append(",PENDING,").append(date).append(',').append(type)
+                .append(",Customer ").append(id).append(',').append(email);
+    }
+
+    private String pickCurrency(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return currencies[i];
+            }
+        }
+        return currencies[currencies.length - 1];
+    }
+
+    private static Map<String, Integer> parseCurrencyMix(String currencyMix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : currencyMix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Peso inválido en la mezcla de monedas: " + entry);
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: PaymentFileGenerator <archivo> <registros> [porcentajeInvalidos] [mezclaMonedas]");
+            System.exit(1);
+        }
+        int invalidPercent = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        String currencyMix = args.length > 3 ? args[3] : DEFAULT_CURRENCY_MIX;
+        Path target = new PaymentFileGenerator(invalidPercent, currencyMix, 42L)
+                .write(Paths.get(args[0]), Integer.parseInt(args[1]));
+        System.out.println("Archivo generado: " + target.toAbsolutePath());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.model.Payment;
+import com.example.batch.reader.MappedPaymentFileReader;
+import com.example.batch.reader.PaymentLineMappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura completa de un archivo generado con FlatFileItemReader y con MappedPaymentFileReader,
+ * ambos con el mapeador rápido, para aislar el costo de E/S y decodificación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentFileReaderBenchmark {
+
+    private static final int RECORDS = 200_000;
+
+    @Param({"buffered", "mapped"})
+    public String reader;
+
+    private Path file;
+    private Resource resource;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = new PaymentFileGenerator(10).write(Files.createTempFile("payments-reader-benchmark", ".txt"), RECORDS);
+        resource = new FileSystemResource(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void readAll(Blackhole blackhole) throws Exception {
+        ItemStreamReader<Payment> itemReader = newReader();
+        itemReader.open(new ExecutionContext());
+        for (Payment payment = itemReader.read(); payment != null; payment = itemReader.read()) {
+            blackhole.consume(payment);
+        }
+        itemReader.close();
+    }
+
+    private ItemStreamReader<Payment> newReader() {
+        if ("mapped".equals(reader)) {
+            MappedPaymentFileReader mapped = new MappedPaymentFileReader(resource, PaymentLineMappers.fast());
+            mapped.setLinesToSkip(1);
+            return mapped;
+        }
+        FlatFileItemReader<Payment> flatFile = new FlatFileItemReader<>();
+        flatFile.setResource(resource);
+        flatFile.setLinesToSkip(1);
+        flatFile.setLineMapper(PaymentLineMappers.fast());
+        return flatFile;
+    }
+}
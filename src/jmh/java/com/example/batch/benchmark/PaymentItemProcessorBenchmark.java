@@ -0,0 +1,56 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.model.Payment;
+import com.example.batch.processor.PaymentItemProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link PaymentItemProcessor#process} por pago con distintas proporciones de inválidos.
+ * Procesar dos veces el mismo pago da el mismo resultado, por lo que los pagos se reutilizan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentItemProcessorBenchmark {
+
+    private static final int PAYMENTS = 1024;
+
+    @Param({"0", "50"})
+    public int invalidPercent;
+
+    private PaymentItemProcessor processor;
+    private Payment[] payments;
+
+    @Setup
+    public void setUp() throws Exception {
+        processor = BenchmarkFixtures.processor();
+        List<String> lines = new PaymentFileGenerator(invalidPercent).lines(PAYMENTS);
+        payments = BenchmarkFixtures.read(lines).toArray(new Payment[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYMENTS)
+    public void process(Blackhole blackhole) throws Exception {
+        for (Payment payment : payments) {
+            blackhole.consume(processor.process(payment));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.batch.item.file.transform.LineAggregator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara DelimitedLineAggregator + BeanWrapperFieldExtractor con PaymentLineAggregator al
+ * armar las líneas de processed_payments.txt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentLineAggregatorBenchmark {
+
+    private static final int LINES = 1024;
+
+    @Param({"bean-wrapper", "typed"})
+    public String aggregator;
+
+    private LineAggregator<Payment> lineAggregator;
+    private Payment[] payments;
+
+    @Setup
+    public void setUp() {
+        if ("typed".equals(aggregator)) {
+            lineAggregator = PaymentLineAggregator.processedPayments();
+        } else {
+            BeanWrapperFieldExtractor<Payment> extractor = new BeanWrapperFieldExtractor<>();
+            extractor.setNames(new String[]{"id", "amount", "currency", "status", "paymentDate", "paymentType",
+                    "customerName", "customerEmail", "amountInUSD", "commission", "validationStatus"});
+            DelimitedLineAggregator<Payment> delimited = new DelimitedLineAggregator<>();
+            delimited.setDelimiter(",");
+            delimited.setFieldExtractor(extractor);
+            lineAggregator = delimited;
+        }
+        PaymentType[] types = PaymentType.values();
+        payments = new Payment[LINES];
+        for (int i = 0; i < LINES; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i + 1);
+            payment.setAmount(BigDecimal.valueOf(10_000 + i * 37L, 2));
+            payment.setCurrency("USD");
+            payment.setStatus("PROCESSED");
+            payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, i % 60, i % 7 == 0 ? 0 : i % 60));
+            payment.setPaymentType(types[i % types.length]);
+            payment.setCustomerName("Customer " + i);
+            payment.setCustomerEmail("customer" + i + "@example.com");
+            payment.setAmountInUSD(payment.getAmount());
+            payment.setCommission(payment.getAmount().multiply(new BigDecimal("0.025")));
+            payment.setValidationStatus("VALID");
+            payments[i] = payment;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void aggregate(Blackhole blackhole) {
+        for (int i = 0; i < LINES; i++) {
+            blackhole.consume(lineAggregator.aggregate(payments[i]));
+        }
+    }
+}
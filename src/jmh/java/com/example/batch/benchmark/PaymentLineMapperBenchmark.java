@@ -0,0 +1,65 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.model.Payment;
+import com.example.batch.reader.PaymentLineMappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.file.LineMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeador genérico (DelimitedLineTokenizer + BeanWrapperFieldSetMapper) con
+ * PaymentLineMapper sobre líneas con un porcentaje configurable de fechas inválidas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentLineMapperBenchmark {
+
+    private static final int LINES = 1024;
+
+    @Param({"bean-wrapper", "fast"})
+    public String mapper;
+
+    @Param({"0", "50"})
+    public int badDatePercent;
+
+    private LineMapper<Payment> lineMapper;
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        lineMapper = PaymentLineMappers.forType(mapper);
+        String[] currencies = {"USD", "EUR", "GBP", "JPY"};
+        String[] types = {"CREDIT_CARD", "TRANSFER", "PAYPAL", "DEBIT_CARD", "CRYPTO"};
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            String date = i % 100 < badDatePercent ? "not-a-date" : "2024-05-20T10:" + (10 + i % 50) + ":00";
+            lines[i] = (i + 1) + "," + (100 + i % 900) + "." + (10 + i % 90) + "," + currencies[i % 4] + ",PENDING,"
+                    + date + "," + types[i % 5] + ",Customer " + i + ",customer" + i + "@example.com";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void mapLine(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            blackhole.consume(lineMapper.mapLine(lines[i], i + 2));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.columnar.PaymentBlock;
+import com.example.batch.columnar.PaymentColumnarReader;
+import com.example.batch.columnar.PaymentColumnarWriter;
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.writer.PaymentFlatFileItemWriter;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que hace un proceso de conciliación con la salida del paso 1: leer todos los pagos de
+ * {@code processed_payments.txt} interpretando el texto, o de {@code payments.pcol} decodificando
+ * bloques. También mide sumar los importes en USD, que en el formato columnar no arma objetos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentOutputReadBenchmark {
+
+    private static final int RECORDS = 200_000;
+    private static final int BLOCK = 1000;
+
+    private Path directory;
+    private Path csv;
+    private Path columnar;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Payment> payments = BenchmarkFixtures.processed(new PaymentFileGenerator(0).lines(RECORDS));
+        directory = Files.createTempDirectory("payments-output-read-benchmark");
+        csv = directory.resolve("processed_payments.txt");
+        columnar = directory.resolve("payments.pcol");
+        PaymentFlatFileItemWriter csvWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.processedPayments());
+        csvWriter.setResource(new FileSystemResource(csv));
+        csvWriter.open(new ExecutionContext());
+        PaymentColumnarWriter columnarWriter = new PaymentColumnarWriter(columnar);
+        columnarWriter.open(new ExecutionContext());
+        for (int i = 0; i < RECORDS; i += BLOCK) {
+            List<Payment> block = payments.subList(i, Math.min(i + BLOCK, RECORDS));
+            csvWriter.write(block);
+            columnarWriter.write(block);
+        }
+        csvWriter.close();
+        columnarWriter.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(columnar);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void csvPayments(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                blackhole.consume(parseProcessed(line));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void columnarPayments(Blackhole blackhole) {
+        try (PaymentColumnarReader reader = new PaymentColumnarReader(columnar)) {
+            for (int i = 0; i < reader.blockCount(); i++) {
+                PaymentBlock block = reader.block(i);
+                for (int row = 0; row < block.rowCount(); row++) {
+                    blackhole.consume(block.toPayment(row));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public BigDecimal csvTotalInUsd() throws IOException {
+        BigDecimal total = BigDecimal.ZERO;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                total = total.add(new BigDecimal(line.split(",", -1)[8]));
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public BigDecimal columnarTotalInUsd() {
+        BigDecimal total = BigDecimal.ZERO;
+        try (PaymentColumnarReader reader = new PaymentColumnarReader(columnar)) {
+            for (int i = 0; i < reader.blockCount(); i++) {
+                PaymentBlock block = reader.block(i);
+                for (int row = 0; row < block.rowCount(); row++) {
+                    total = total.add(block.amountInUsd(row));
+                }
+            }
+        }
+        return total;
+    }
+
+    private static Payment parseProcessed(String line) {
+        String[] fields = line.split(",", -1);
+        Payment payment = new Payment();
+        payment.setId(Long.parseLong(fields[0]));
+        payment.setAmount(new BigDecimal(fields[1]));
+        payment.setCurrency(fields[2]);
+        payment.setStatus(fields[3]);
+        payment.setPaymentDate(LocalDateTime.parse(fields[4]));
+        payment.setPaymentType(PaymentType.valueOf(fields[5]));
+        payment.setCustomerName(fields[6]);
+        payment.setCustomerEmail(fields[7]);
+        payment.setAmountInUSD(new BigDecimal(fields[8]));
+        payment.setCommission(new BigDecimal(fields[9]));
+        payment.setValidationStatus(fields[10]);
+        return payment;
+    }
+}
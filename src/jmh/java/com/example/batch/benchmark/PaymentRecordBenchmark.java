@@ -0,0 +1,79 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.model.Payment;
+import com.example.batch.processor.PaymentItemProcessor;
+import com.example.batch.reader.PaymentLineMapper;
+import com.example.batch.reader.PaymentLineMappers;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vida completa de un registro en el paso 1 sin E/S: línea a {@link Payment}, procesamiento y
+ * línea de salida en un buffer reutilizado. Con {@code -prof gc}, gc.alloc.rate.norm es lo que
+ * cuesta cada pago en memoria de principio a fin. {@code retained} además conserva los pagos de un
+ * chunk, como el paso hasta escribirlo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentRecordBenchmark {
+
+    private static final int LINES = 1024;
+
+    @Param({"0", "20"})
+    public int invalidPercent;
+
+    private PaymentLineMapper mapper;
+    private PaymentItemProcessor processor;
+    private PaymentLineAggregator aggregator;
+    private String[] lines;
+    private final Payment[] chunk = new Payment[LINES];
+    private final StringBuilder output = new StringBuilder(256);
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = PaymentLineMappers.fast();
+        processor = BenchmarkFixtures.processor();
+        aggregator = PaymentLineAggregator.processedPayments();
+        List<String> generated = new PaymentFileGenerator(invalidPercent).lines(LINES);
+        lines = generated.toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void readProcessWrite(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            Payment payment = processor.process(mapper.map(lines[i], i + 2));
+            output.setLength(0);
+            aggregator.appendTo(output, payment);
+            blackhole.consume(output.length());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public Payment[] retained() throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            chunk[i] = processor.process(mapper.map(lines[i], i + 2));
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.model.Payment;
+import com.example.batch.spill.PaymentSpillFormat;
+import com.example.batch.writer.PaymentFlatFileItemWriter;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de un chunk en cada archivo de salida, configurados como en BatchConfig. El archivo
+ * se recrea en cada iteración para que no crezca sin límite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentWriterBenchmark {
+
+    private static final int CHUNK = 1024;
+
+    @Param({"processed", "report", "rejected", "spill"})
+    public String writer;
+
+    private List<Payment> chunk;
+    private Path directory;
+    private FlatFileItemWriter<Payment> itemWriter;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Los rechazados ven sobre todo pagos inválidos; el resto, la mezcla habitual
+        int invalidPercent = "rejected".equals(writer) || "spill".equals(writer) ? 100 : 10;
+        chunk = BenchmarkFixtures.processed(new PaymentFileGenerator(invalidPercent).lines(CHUNK));
+        directory = Files.createTempDirectory("payments-writer-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void openWriter() {
+        switch (writer) {
+            case "processed":
+                itemWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.processedPayments());
+                break;
+            case "report":
+                itemWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.report());
+                break;
+            case "rejected":
+                itemWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.rejectedPayments());
+                break;
+            case "spill":
+                itemWriter = new FlatFileItemWriter<>();
+                itemWriter.setLineAggregator(new PaymentSpillFormat());
+                itemWriter.setEncoding(StandardCharsets.UTF_8.name());
+                break;
+            default:
+                throw new IllegalArgumentException("Escritor desconocido: " + writer);
+        }
+        itemWriter.setName(writer + "Writer");
+        itemWriter.setResource(new FileSystemResource(directory.resolve(writer + ".txt")));
+        itemWriter.setShouldDeleteIfExists(true);
+        itemWriter.open(new ExecutionContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeWriter() {
+        itemWriter.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve(writer + ".txt"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void write() throws Exception {
+        itemWriter.write(chunk);
+    }
+}
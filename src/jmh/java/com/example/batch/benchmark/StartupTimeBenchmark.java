@@ -0,0 +1,151 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.BatchPaymentsApplication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tiempo hasta el primer pago de una JVM nueva por ejecución, como cuando se lanza
+ * {@link BatchPaymentsApplication} por cada archivo que llega. No usa JMH: cada medición es un
+ * proceso aparte, y el tiempo va desde que se lanza el proceso hasta el log del primer chunk
+ * confirmado, con chunks de un pago, así que incluye el arranque de la JVM y del contexto de Spring.
+ *
+ * Compara la configuración actual (perfil dev), el perfil fast-start y, si existe el archivo CDS de
+ * {@code mvn -Pappcds package}, fast-start con ese archivo. Con el jar -app y target/classpath.txt de
+ * ese perfil las tres usan el classpath del entrenamiento; si no, el de este proceso.
+ *
+ * Uso: {@code mvn -Pstartup-benchmark test} (opcional {@code -Dstartup.runs=10}).
+ */
+public final class StartupTimeBenchmark {
+
+    private static final String FIRST_ITEM_LOG = "Paso step1: chunk 1 confirmado";
+    private static final DateTimeFormatter LOG_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private StartupTimeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path target = Paths.get(System.getProperty("startup.target", "target")).toAbsolutePath();
+        Path archive = target.resolve("app-cds.jsa");
+        String classpath = trainingClasspath(target);
+        if (classpath == null) {
+            classpath = System.getProperty("java.class.path");
+        }
+
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("actual", List.of("--spring.profiles.active=dev"));
+        configurations.put("fast-start", List.of("--spring.profiles.active=dev,fast-start"));
+        if (Files.exists(archive)) {
+            configurations.put("fast-start+cds", List.of("-XX:SharedArchiveFile=" + archive,
+                    "--spring.profiles.active=dev,fast-start"));
+        }
+
+        Path directory = Files.createTempDirectory("payments-startup-benchmark");
+        System.out.printf("%-16s %12s %12s %12s%n", "configuración", "mediana (ms)", "mínimo (ms)", "salida (ms)");
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            // La primera ejecución solo calienta la caché de archivos del sistema
+            launch(classpath, configuration.getValue(), directory);
+            List<Long> firstItem = new ArrayList<>();
+            List<Long> exit = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                long[] times = launch(classpath, configuration.getValue(), directory);
+                firstItem.add(times[0]);
+                exit.add(times[1]);
+            }
+            System.out.printf("%-16s %12d %12d %12d%n", configuration.getKey(), median(firstItem),
+                    Collections.min(firstItem), median(exit));
+        }
+    }
+
+    /**
+     * @return milisegundos hasta el primer pago y hasta que termina el proceso
+     */
+    private static long[] launch(String classpath, List<String> options, Path directory)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(javaExecutable()));
+        options.stream().filter(option -> option.startsWith("-XX:")).forEach(command::add);
+        command.addAll(List.of("-classpath", classpath, BatchPaymentsApplication.class.getName()));
+        options.stream().filter(option -> option.startsWith("--")).forEach(command::add);
+        command.addAll(Arrays.asList(
+                "--payment.output.dir=" + directory.resolve("output"),
+                "--payment.rejected.spill-file=" + directory.resolve("rejected_payments.spill"),
+                "--payment.metrics.file=" + directory.resolve("payments.prom"),
+                "--payment.chunk.initial-size=1",
+                "--payment.chunk.min-size=1",
+                "--payment.logging.chunk-summary=true"));
+
+        long start = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstItem = -1;
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (firstItem < 0 && line.contains(FIRST_ITEM_LOG)) {
+                    firstItem = loggedAt(line, System.currentTimeMillis()) - start;
+                }
+            }
+        }
+        int status = process.waitFor();
+        long exit = System.currentTimeMillis() - start;
+        if (status != 0 || firstItem < 0) {
+            throw new IllegalStateException("La ejecución terminó con código " + status + " sin procesar pagos: "
+                    + command);
+        }
+        return new long[]{firstItem, exit};
+    }
+
+    /**
+     * Hora del evento según el log, que la cola del appender asíncrono puede imprimir un poco después.
+     */
+    private static long loggedAt(String line, long fallback) {
+        try {
+            return LocalDateTime.parse(line.substring(0, 23), LOG_TIMESTAMP)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            return fallback;
+        }
+    }
+
+    private static String trainingClasspath(Path target) throws IOException {
+        Path dependencies = target.resolve("classpath.txt");
+        if (!Files.exists(dependencies)) {
+            return null;
+        }
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(target, "*-app.jar")) {
+            for (Path jar : jars) {
+                return jar + File.pathSeparator + Files.readString(dependencies).trim();
+            }
+        }
+        return null;
+    }
+
+    private static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
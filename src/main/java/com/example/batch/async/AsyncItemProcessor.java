@@ -0,0 +1,81 @@
+package com.example.batch.async;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta el procesador delegado en un {@link ExecutorService} y devuelve un {@link Future} por
+ * ítem, de modo que los ítems de un chunk se procesan en paralelo. Se usa junto con
+ * {@link AsyncItemWriter}, que espera los resultados en el orden del chunk; igual que el par
+ * AsyncItemProcessor/AsyncItemWriter de spring-batch-integration, sin agregar esa dependencia.
+ *
+ * Cada tarea corre con el contexto del paso registrado en su hilo, así que los beans con alcance de
+ * paso siguen funcionando dentro del delegado. Publica dos métricas compartidas por todas las
+ * instancias: {@value #QUEUE_DEPTH_METRIC} (ítems enviados que todavía no empezaron) y
+ * {@value #IN_FLIGHT_METRIC} (ítems que se están procesando).
+ */
+public class AsyncItemProcessor<I, O> implements ItemProcessor<I, Future<O>> {
+
+    public static final String QUEUE_DEPTH_METRIC = "payments.processor.queue.depth";
+    public static final String IN_FLIGHT_METRIC = "payments.processor.in.flight";
+
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    static {
+        Gauge.builder(QUEUE_DEPTH_METRIC, QUEUED, AtomicInteger::get)
+                .description("Ítems enviados al procesador asíncrono que todavía no empezaron")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, IN_FLIGHT, AtomicInteger::get)
+                .description("Ítems que el procesador asíncrono está procesando")
+                .register(Metrics.globalRegistry);
+    }
+
+    private final ItemProcessor<I, O> delegate;
+    private final ExecutorService executor;
+
+    public AsyncItemProcessor(ItemProcessor<I, O> delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public Future<O> process(I item) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext == null ? null : stepContext.getStepExecution();
+        QUEUED.incrementAndGet();
+        try {
+            return executor.submit(task(item, stepExecution));
+        } catch (RuntimeException e) {
+            QUEUED.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Callable<O> task(I item, StepExecution stepExecution) {
+        return () -> {
+            QUEUED.decrementAndGet();
+            IN_FLIGHT.incrementAndGet();
+            if (stepExecution != null) {
+                StepSynchronizationManager.register(stepExecution);
+            }
+            try {
+                return delegate.process(item);
+            } finally {
+                if (stepExecution != null) {
+                    StepSynchronizationManager.close();
+                }
+                IN_FLIGHT.decrementAndGet();
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.batch.async;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Contraparte de {@link AsyncItemProcessor}: espera cada {@link Future} en el orden del chunk y
+ * escribe los resultados con el delegado, por lo que la salida conserva el orden de la entrada. Los
+ * resultados null se descartan, como los ítems filtrados por un procesador síncrono. Si un ítem
+ * falló, relanza la causa original para que el paso la trate igual que en modo síncrono.
+ *
+ * Propaga el ciclo de vida al delegado cuando es un {@link ItemStream}, ya que el paso solo
+ * registra automáticamente el escritor que recibe.
+ */
+public class AsyncItemWriter<T> implements ItemWriter<Future<T>>, ItemStream {
+
+    private final ItemWriter<T> delegate;
+
+    public AsyncItemWriter(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(List<? extends Future<T>> futures) throws Exception {
+        List<T> items = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            T item;
+            try {
+                item = future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        delegate.write(items);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream) {
+            ((ItemStream) delegate).close();
+        }
+    }
+}
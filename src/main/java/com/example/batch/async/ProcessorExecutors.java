@@ -0,0 +1,99 @@
+package com.example.batch.async;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutores para {@link AsyncItemProcessor}.
+ *
+ * <ul>
+ *   <li>{@code virtual}: un hilo virtual por ítem; requiere Java 21 o superior.</li>
+ *   <li>{@code pool}: pool fijo de {@code threads} hilos con una cola de {@code queueCapacity}
+ *   ítems. Con la cola llena el hilo del chunk procesa el ítem él mismo, lo que frena la lectura en
+ *   vez de acumular trabajo sin límite.</li>
+ *   <li>{@code auto}: hilos virtuales si la JVM los soporta y el pool acotado si no.</li>
+ * </ul>
+ *
+ * Los hilos virtuales se crean por reflexión porque el proyecto compila para Java 11.
+ */
+@Slf4j
+public final class ProcessorExecutors {
+
+    public static final String AUTO = "auto";
+    public static final String VIRTUAL = "virtual";
+    public static final String POOL = "pool";
+
+    private ProcessorExecutors() {
+    }
+
+    public static ExecutorService create(String type, int threads, int queueCapacity) {
+        switch (type) {
+            case AUTO: {
+                ExecutorService virtual = virtualThreadExecutor(false);
+                return virtual != null ? virtual : boundedPool(threads, queueCapacity);
+            }
+            case VIRTUAL: {
+                ExecutorService virtual = virtualThreadExecutor(true);
+                if (virtual == null) {
+                    throw new IllegalStateException("La JVM " + Runtime.version() + " no soporta hilos virtuales");
+                }
+                return virtual;
+            }
+            case POOL:
+                return boundedPool(threads, queueCapacity);
+            default:
+                throw new IllegalArgumentException("Ejecutor de procesamiento no soportado: " + type);
+        }
+    }
+
+    /**
+     * @param required si es false, una JVM que tiene el método pero no habilita los hilos virtuales
+     *                 (Java 19 y 20 sin {@code --enable-preview}) devuelve null en lugar de fallar
+     */
+    static ExecutorService virtualThreadExecutor(boolean required) {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            log.info("Procesamiento asíncrono con hilos virtuales");
+            return executor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            if (!required) {
+                log.info("Hilos virtuales no disponibles en la JVM {}: {}", Runtime.version(), e.getCause().toString());
+                return null;
+            }
+            throw new IllegalStateException("No se pudo crear el ejecutor de hilos virtuales", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo crear el ejecutor de hilos virtuales", e);
+        }
+    }
+
+    static ExecutorService boundedPool(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Pool de procesamiento inválido: " + threads + " hilos, cola " + queueCapacity);
+        }
+        log.info("Procesamiento asíncrono con {} hilos y cola de {} ítems", threads, queueCapacity);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("payments-processor-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            // Los hilos no deben impedir que la JVM termine cuando el job finaliza
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
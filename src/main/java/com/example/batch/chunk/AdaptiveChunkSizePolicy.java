@@ -0,0 +1,138 @@
+package com.example.batch.chunk;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Política de fin de chunk que ajusta el tamaño según el tiempo medido de cada chunk (lectura,
+ * proceso, escritura y commit). Apunta a que cada commit ocurra cada {@code targetCommitMillis}:
+ * estima el costo por ítem del último chunk y calcula el tamaño que cumple ese intervalo, sin
+ * duplicar ni reducir a menos de la mitad el tamaño anterior y siempre entre {@code minSize} y
+ * {@code maxSize}. Si el chunk falla, el siguiente usa la mitad del tamaño.
+ *
+ * Cada instancia mide un único paso, por lo que debe registrarse con alcance de paso. Los tamaños
+ * elegidos quedan en el ExecutionContext del paso y en la métrica {@value #METRIC_NAME}; al
+ * reiniciar, el paso retoma el último tamaño guardado.
+ */
+@Slf4j
+public class AdaptiveChunkSizePolicy extends SimpleCompletionPolicy implements ChunkListener, StepExecutionListener {
+
+    public static final String METRIC_NAME = "payments.chunk.size";
+    public static final String CURRENT_SIZE_KEY = "chunk.size.current";
+    public static final String SMALLEST_SIZE_KEY = "chunk.size.smallest";
+    public static final String LARGEST_SIZE_KEY = "chunk.size.largest";
+    public static final String CHUNK_COUNT_KEY = "chunk.count";
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetCommitNanos;
+    private final LongSupplier nanoClock;
+
+    private StepExecution stepExecution;
+    private DistributionSummary sizeSummary;
+    private long chunkStartNanos;
+    private int chunkStartReadCount;
+    private int smallestSize;
+    private int largestSize;
+    private long chunkCount;
+
+    public AdaptiveChunkSizePolicy(int initialSize, int minSize, int maxSize, long targetCommitMillis) {
+        this(initialSize, minSize, maxSize, targetCommitMillis, System::nanoTime);
+    }
+
+    AdaptiveChunkSizePolicy(int initialSize, int minSize, int maxSize, long targetCommitMillis, LongSupplier nanoClock) {
+        super(clamp(initialSize, minSize, maxSize));
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Límites de chunk inválidos: " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetCommitNanos = TimeUnit.MILLISECONDS.toNanos(targetCommitMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(CURRENT_SIZE_KEY)) {
+            setChunkSize(clamp(context.getInt(CURRENT_SIZE_KEY), minSize, maxSize));
+        }
+        smallestSize = getChunkSize();
+        largestSize = getChunkSize();
+        chunkCount = 0;
+        sizeSummary = DistributionSummary.builder(METRIC_NAME)
+                .description("Tamaño de chunk elegido por la política adaptativa")
+                .tag("step", stepExecution.getStepName())
+                .register(Metrics.globalRegistry);
+        sizeSummary.record(getChunkSize());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("Paso {}: {} chunks, tamaño entre {} y {}, último {}", stepExecution.getStepName(), chunkCount,
+                smallestSize, largestSize, getChunkSize());
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStartNanos = nanoClock.getAsLong();
+        chunkStartReadCount = stepExecution.getReadCount();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        int items = stepExecution.getReadCount() - chunkStartReadCount;
+        long elapsed = nanoClock.getAsLong() - chunkStartNanos;
+        chunkCount++;
+        // Un chunk parcial (fin de la entrada) o vacío no representa el costo de un chunk completo
+        if (items >= getChunkSize() && elapsed > 0) {
+            long ideal = targetCommitNanos * items / elapsed;
+            resize((int) Math.max(getChunkSize() / 2, Math.min(ideal, (long) getChunkSize() * 2)));
+        } else {
+            record();
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        resize(getChunkSize() / 2);
+    }
+
+    private void resize(int size) {
+        int next = clamp(size, minSize, maxSize);
+        if (next != getChunkSize()) {
+            log.debug("Paso {}: tamaño de chunk {} -> {}", stepExecution.getStepName(), getChunkSize(), next);
+            setChunkSize(next);
+        }
+        record();
+    }
+
+    private void record() {
+        int size = getChunkSize();
+        smallestSize = Math.min(smallestSize, size);
+        largestSize = Math.max(largestSize, size);
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putInt(CURRENT_SIZE_KEY, size);
+        context.putInt(SMALLEST_SIZE_KEY, smallestSize);
+        context.putInt(LARGEST_SIZE_KEY, largestSize);
+        context.putLong(CHUNK_COUNT_KEY, chunkCount);
+        sizeSummary.record(size);
+    }
+
+    private static int clamp(int size, int min, int max) {
+        return Math.max(min, Math.min(max, size));
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.batch.columnar;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Un bloque del archivo columnar: los pagos de un chunk guardados columna por columna, en el orden
+ * de {@code PaymentColumn} más el motivo de rechazo.
+ *
+ * <ul>
+ *   <li>Ids: un long por fila.</li>
+ *   <li>Importes: la escala mayor del bloque y un long sin escalar por fila, así todas las filas
+ *       comparten escala.</li>
+ *   <li>Moneda, estados, tipo de pago y motivo: diccionario del bloque y un código por fila, de un
+ *       byte mientras el diccionario tenga hasta {@value #BYTE_CODES} entradas.</li>
+ *   <li>Fecha: segundos desde la época en UTC y, si alguna fila los tiene, nanosegundos.</li>
+ *   <li>Textos libres: largo por fila y los bytes UTF-8 seguidos.</li>
+ * </ul>
+ *
+ * Los nulos se guardan como {@code Long.MIN_VALUE} en las columnas numéricas, código -1 en las de
+ * diccionario y largo -1 en las de texto. Al leer, los valores del diccionario son las mismas
+ * instancias para todas las filas del bloque.
+ */
+public final class PaymentBlock {
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int BYTE_CODES = Byte.MAX_VALUE;
+
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+    private static final RejectReason[] REJECT_REASONS = RejectReason.values();
+
+    private final int rowCount;
+    private final long[] ids;
+    private final DecimalColumn amounts;
+    private final DictionaryColumn currencies;
+    private final DictionaryColumn statuses;
+    private final DateTimeColumn paymentDates;
+    private final DictionaryColumn paymentTypes;
+    private final TextColumn customerNames;
+    private final TextColumn customerEmails;
+    private final DecimalColumn amountsInUsd;
+    private final DecimalColumn commissions;
+    private final DictionaryColumn validationStatuses;
+    private final TextColumn errorMessages;
+    private final DictionaryColumn rejectReasons;
+
+    private PaymentBlock(ByteBuffer buffer) {
+        rowCount = buffer.getInt();
+        ids = new long[rowCount];
+        buffer.asLongBuffer().get(ids);
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+        amounts = new DecimalColumn(buffer, rowCount);
+        currencies = new DictionaryColumn(buffer, rowCount);
+        statuses = new DictionaryColumn(buffer, rowCount);
+        paymentDates = new DateTimeColumn(buffer, rowCount);
+        paymentTypes = new DictionaryColumn(buffer, rowCount);
+        customerNames = new TextColumn(buffer, rowCount);
+        customerEmails = new TextColumn(buffer, rowCount);
+        amountsInUsd = new DecimalColumn(buffer, rowCount);
+        commissions = new DecimalColumn(buffer, rowCount);
+        validationStatuses = new DictionaryColumn(buffer, rowCount);
+        errorMessages = new TextColumn(buffer, rowCount);
+        rejectReasons = new DictionaryColumn(buffer, rowCount);
+    }
+
+    static void encode(List<? extends Payment> payments, DataOutput out) throws IOException {
+        out.writeInt(payments.size());
+        for (Payment payment : payments) {
+            out.writeLong(payment.hasId() ? payment.getIdValue() : NULL_LONG);
+        }
+        DecimalColumn.encode(payments, Payment::getAmount, out);
+        DictionaryColumn.encode(payments, Payment::getCurrency, out);
+        DictionaryColumn.encode(payments, Payment::getStatus, out);
+        DateTimeColumn.encode(payments, out);
+        DictionaryColumn.encode(payments, payment -> name(payment.getPaymentType()), out);
+        TextColumn.encode(payments, Payment::getCustomerName, out);
+        TextColumn.encode(payments, Payment::getCustomerEmail, out);
+        DecimalColumn.encode(payments, Payment::getAmountInUSD, out);
+        DecimalColumn.encode(payments, Payment::getCommission, out);
+        DictionaryColumn.encode(payments, Payment::getValidationStatus, out);
+        TextColumn.encode(payments, Payment::getErrorMessage, out);
+        DictionaryColumn.encode(payments, payment -> name(payment.getRejectReason()), out);
+    }
+
+    /**
+     * Decodifica el bloque que empieza en la posición actual del buffer. Todo lo que usa se copia,
+     * así que el buffer puede reutilizarse enseguida.
+     */
+    static PaymentBlock decode(ByteBuffer buffer) {
+        return new PaymentBlock(buffer);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public Long id(int row) {
+        return ids[row] == NULL_LONG ? null : ids[row];
+    }
+
+    public BigDecimal amount(int row) {
+        return amounts.get(row);
+    }
+
+    public String currency(int row) {
+        return currencies.get(row);
+    }
+
+    public String status(int row) {
+        return statuses.get(row);
+    }
+
+    public LocalDateTime paymentDate(int row) {
+        return paymentDates.get(row);
+    }
+
+    public PaymentType paymentType(int row) {
+        int code = paymentTypes.ordinal(row, PAYMENT_TYPES);
+        return code < 0 ? null : PAYMENT_TYPES[code];
+    }
+
+    public String customerName(int row) {
+        return customerNames.get(row);
+    }
+
+    public String customerEmail(int row) {
+        return customerEmails.get(row);
+    }
+
+    public BigDecimal amountInUsd(int row) {
+        return amountsInUsd.get(row);
+    }
+
+    public BigDecimal commission(int row) {
+        return commissions.get(row);
+    }
+
+    public String validationStatus(int row) {
+        return validationStatuses.get(row);
+    }
+
+    public String errorMessage(int row) {
+        return errorMessages.get(row);
+    }
+
+    public RejectReason rejectReason(int row) {
+        int code = rejectReasons.ordinal(row, REJECT_REASONS);
+        return code < 0 ? null : REJECT_REASONS[code];
+    }
+
+    public Payment toPayment(int row) {
+        Payment payment = new Payment();
+        payment.setId(id(row));
+        payment.setAmount(amount(row));
+        payment.setCurrency(currency(row));
+        payment.setStatus(status(row));
+        payment.setPaymentDate(paymentDate(row));
+        payment.setPaymentType(paymentType(row));
+        payment.setCustomerName(customerName(row));
+        payment.setCustomerEmail(customerEmail(row));
+        payment.setAmountInUSD(amountInUsd(row));
+        payment.setCommission(commission(row));
+        payment.setValidationStatus(validationStatus(row));
+        payment.setErrorMessage(errorMessage(row));
+        payment.setRejectReason(rejectReason(row));
+        return payment;
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class DecimalColumn {
+
+        private final int scale;
+        private final long[] unscaled;
+
+        private DecimalColumn(ByteBuffer buffer, int rowCount) {
+            scale = buffer.get();
+            unscaled = new long[rowCount];
+            buffer.asLongBuffer().get(unscaled);
+            buffer.position(buffer.position() + rowCount * Long.BYTES);
+        }
+
+        private static void encode(List<? extends Payment> payments, Function<Payment, BigDecimal> column,
+                                   DataOutput out) throws IOException {
+            int scale = 0;
+            for (Payment payment : payments) {
+                BigDecimal value = column.apply(payment);
+                if (value != null) {
+                    scale = Math.max(scale, value.scale());
+                }
+            }
+            if (scale > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Escala de importe no soportada: " + scale);
+            }
+            out.writeByte(scale);
+            for (Payment payment : payments) {
+                BigDecimal value = column.apply(payment);
+                if (value == null) {
+                    out.writeLong(NULL_LONG);
+                    continue;
+                }
+                try {
+                    out.writeLong(value.setScale(scale).unscaledValue().longValueExact());
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Importe fuera de rango para el formato columnar: " + value, e);
+                }
+            }
+        }
+
+        private BigDecimal get(int row) {
+            return unscaled[row] == NULL_LONG ? null : BigDecimal.valueOf(unscaled[row], scale);
+        }
+    }
+
+    private static final class DictionaryColumn {
+
+        private final String[] dictionary;
+        private final short[] codes;
+        private int[] ordinals;
+
+        private DictionaryColumn(ByteBuffer buffer, int rowCount) {
+            dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(buffer);
+            }
+            codes = new short[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                codes[row] = dictionary.length <= BYTE_CODES ? buffer.get() : buffer.getShort();
+            }
+        }
+
+        private static void encode(List<? extends Payment> payments, Function<Payment, String> column,
+                                   DataOutput out) throws IOException {
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            for (Payment payment : payments) {
+                String value = column.apply(payment);
+                if (value != null) {
+                    dictionary.putIfAbsent(value, dictionary.size());
+                }
+            }
+            if (dictionary.size() > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Demasiados valores distintos en un bloque: " + dictionary.size());
+            }
+            out.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                writeString(value, out);
+            }
+            boolean byteCodes = dictionary.size() <= BYTE_CODES;
+            for (Payment payment : payments) {
+                String value = column.apply(payment);
+                int code = value == null ? -1 : dictionary.get(value);
+                if (byteCodes) {
+                    out.writeByte(code);
+                } else {
+                    out.writeShort(code);
+                }
+            }
+        }
+
+        private String get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        /**
+         * Posición en {@code constants} del valor de la fila, resolviendo cada entrada del diccionario
+         * una sola vez por bloque.
+         */
+        private int ordinal(int row, Enum<?>[] constants) {
+            if (ordinals == null) {
+                ordinals = new int[dictionary.length];
+                for (int i = 0; i < dictionary.length; i++) {
+                    ordinals[i] = -1;
+                    for (Enum<?> constant : constants) {
+                        if (constant.name().equals(dictionary[i])) {
+                            ordinals[i] = constant.ordinal();
+                        }
+                    }
+                }
+            }
+            int code = codes[row];
+            return code < 0 ? -1 : ordinals[code];
+        }
+    }
+
+    private static final class DateTimeColumn {
+
+        private final long[] seconds;
+        private final int[] nanos;
+
+        private DateTimeColumn(ByteBuffer buffer, int rowCount) {
+            boolean withNanos = buffer.get() != 0;
+            seconds = new long[rowCount];
+            buffer.asLongBuffer().get(seconds);
+            buffer.position(buffer.position() + rowCount * Long.BYTES);
+            if (withNanos) {
+                nanos = new int[rowCount];
+                buffer.asIntBuffer().get(nanos);
+                buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            } else {
+                nanos = null;
+            }
+        }
+
+        private static void encode(List<? extends Payment> payments, DataOutput out) throws IOException {
+            boolean withNanos = false;
+            for (Payment payment : payments) {
+                if (payment.hasPaymentDate() && payment.getPaymentDateNano() != 0) {
+                    withNanos = true;
+                    break;
+                }
+            }
+            out.writeByte(withNanos ? 1 : 0);
+            for (Payment payment : payments) {
+                out.writeLong(payment.hasPaymentDate() ? payment.getPaymentEpochSecond() : NULL_LONG);
+            }
+            if (withNanos) {
+                for (Payment payment : payments) {
+                    out.writeInt(payment.hasPaymentDate() ? payment.getPaymentDateNano() : 0);
+                }
+            }
+        }
+
+        private LocalDateTime get(int row) {
+            if (seconds[row] == NULL_LONG) {
+                return null;
+            }
+            return LocalDateTime.ofEpochSecond(seconds[row], nanos == null ? 0 : nanos[row], ZoneOffset.UTC);
+        }
+    }
+
+    private static final class TextColumn {
+
+        private final int[] offsets;
+        private final int[] lengths;
+        private final byte[] bytes;
+
+        private TextColumn(ByteBuffer buffer, int rowCount) {
+            offsets = new int[rowCount];
+            lengths = new int[rowCount];
+            int total = 0;
+            for (int row = 0; row < rowCount; row++) {
+                lengths[row] = buffer.getInt();
+                offsets[row] = total;
+                total += Math.max(lengths[row], 0);
+            }
+            bytes = new byte[total];
+            buffer.get(bytes);
+        }
+
+        private static void encode(List<? extends Payment> payments, Function<Payment, String> column,
+                                   DataOutput out) throws IOException {
+            byte[][] values = new byte[payments.size()][];
+            for (int row = 0; row < values.length; row++) {
+                String value = column.apply(payments.get(row));
+                values[row] = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(value == null ? -1 : values[row].length);
+            }
+            for (byte[] value : values) {
+                if (value != null) {
+                    out.write(value);
+                }
+            }
+        }
+
+        private String get(int row) {
+            return lengths[row] < 0 ? null : new String(bytes, offsets[row], lengths[row], StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.batch.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.example.batch.columnar.PaymentColumnarWriter.BLOCK_HEADER_SIZE;
+import static com.example.batch.columnar.PaymentColumnarWriter.BLOCK_MARKER;
+import static com.example.batch.columnar.PaymentColumnarWriter.FOOTER_MARKER;
+import static com.example.batch.columnar.PaymentColumnarWriter.MAGIC;
+
+/**
+ * Lee un archivo de {@link PaymentColumnarWriter}. Al abrirlo solo lee el pie; cada bloque se lee
+ * de una vez, con su offset del índice, y se decodifica a arreglos por columna.
+ */
+public class PaymentColumnarReader implements AutoCloseable {
+
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long[] blockOffsets;
+    private final int[] blockRows;
+    private final long rowCount;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    public PaymentColumnarReader(Path file) {
+        this.file = file;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo columnar " + file, e);
+        }
+        try {
+            long size = channel.size();
+            ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IllegalStateException("El archivo " + file + " no tiene pie; ¿se cerró el escritor?");
+            }
+            ByteBuffer footer = read(footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+            if (footer.getInt() != FOOTER_MARKER) {
+                throw new IllegalStateException("Pie inválido en " + file);
+            }
+            int blocks = footer.getInt();
+            blockOffsets = new long[blocks];
+            blockRows = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockOffsets[i] = footer.getLong();
+                blockRows[i] = footer.getInt();
+            }
+            rowCount = footer.getLong();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("No se pudo leer el pie de " + file, e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int blockCount() {
+        return blockOffsets.length;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public int blockRowCount(int block) {
+        return blockRows[block];
+    }
+
+    public PaymentBlock block(int block) {
+        try {
+            ByteBuffer header = read(blockOffsets[block], BLOCK_HEADER_SIZE);
+            if (header.getInt() != BLOCK_MARKER) {
+                throw new IllegalStateException("Bloque " + block + " inválido en " + file);
+            }
+            int length = header.getInt();
+            return PaymentBlock.decode(read(blockOffsets[block] + BLOCK_HEADER_SIZE, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el bloque " + block + " de " + file, e);
+        }
+    }
+
+    /**
+     * Lee {@code length} bytes en el buffer reutilizado; el resultado vale hasta la próxima lectura.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (position < 0 || length < 0) {
+            throw new IllegalStateException("El archivo " + file + " está truncado");
+        }
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalStateException("El archivo " + file + " está truncado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar " + file, e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.batch.columnar;
+
+import com.example.batch.model.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Escribe los pagos en un archivo binario por columnas, un {@link PaymentBlock} por chunk:
+ *
+ * <pre>
+ * archivo := MAGIC VERSION bloque* pie
+ * bloque  := BLOCK_MARKER largo:int PaymentBlock
+ * pie     := FOOTER_MARKER bloques:int (offset:long filas:int)* filas:long offsetDelPie:long MAGIC
+ * </pre>
+ *
+ * Igual que los escritores de texto con {@code transactional}, el bloque queda en memoria hasta el
+ * commit del chunk y se agrega al archivo justo antes; si el commit falla, el archivo vuelve a su
+ * largo anterior. En el ExecutionContext guarda el byte donde termina el último bloque confirmado:
+ * al reiniciar descarta lo posterior, pie incluido, y rearma el índice recorriendo los encabezados
+ * de bloque. Con {@link #setAppendAllowed} una ejecución nueva sigue detrás de los bloques de la
+ * anterior. El pie se escribe al cerrar.
+ */
+@Slf4j
+public class PaymentColumnarWriter extends ItemStreamSupport implements ItemStreamWriter<Payment> {
+
+    static final int MAGIC = 0x50434f4c;
+    static final int VERSION = 1;
+    static final int BLOCK_MARKER = 0x424c4b31;
+    static final int FOOTER_MARKER = 0x46545231;
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final String POSITION_KEY = "position";
+
+    private final Path file;
+    private final BlockBuffer pending = new BlockBuffer();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+
+    private boolean appendAllowed;
+    private boolean forceSync;
+
+    private FileChannel channel;
+    private long[] blockOffsets = new long[64];
+    private int[] blockRows = new int[64];
+    private int blockCount;
+    private int pendingBlocks;
+    private boolean synchronizationRegistered;
+
+    public PaymentColumnarWriter(Path file) {
+        this.file = file;
+        setName(PaymentColumnarWriter.class.getSimpleName());
+    }
+
+    public void setAppendAllowed(boolean appendAllowed) {
+        this.appendAllowed = appendAllowed;
+    }
+
+    public void setForceSync(boolean forceSync) {
+        this.forceSync = forceSync;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            blockCount = 0;
+            if (executionContext.containsKey(getExecutionContextKey(POSITION_KEY))) {
+                long position = executionContext.getLong(getExecutionContextKey(POSITION_KEY));
+                if (scanBlocks(position) != position) {
+                    throw new ItemStreamException("El archivo " + file + " no coincide con el estado guardado");
+                }
+                resumeAt(position);
+            } else if (appendAllowed && channel.size() > 0) {
+                resumeAt(scanBlocks(channel.size()));
+            } else {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                writeFully(header, 0);
+                channel.position(HEADER_SIZE);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el archivo columnar " + file, e);
+        }
+    }
+
+    private void resumeAt(long position) throws IOException {
+        channel.truncate(position);
+        channel.position(position);
+        log.info("Archivo columnar {}: se retoma tras {} bloques", file, blockCount);
+    }
+
+    /**
+     * Rearma el índice con los bloques completos hasta {@code limit} y devuelve dónde termina el último.
+     */
+    private long scanBlocks(long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_SIZE, BLOCK_HEADER_SIZE + Integer.BYTES));
+        header.limit(HEADER_SIZE);
+        if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new ItemStreamException("El archivo " + file + " no tiene el formato columnar de pagos");
+        }
+        long position = HEADER_SIZE;
+        while (position + BLOCK_HEADER_SIZE + Integer.BYTES <= limit) {
+            header.clear().limit(BLOCK_HEADER_SIZE + Integer.BYTES);
+            channel.read(header, position);
+            if (header.getInt(0) != BLOCK_MARKER) {
+                break;
+            }
+            long end = position + BLOCK_HEADER_SIZE + header.getInt(Integer.BYTES);
+            if (end > limit) {
+                break;
+            }
+            addBlock(position, header.getInt(BLOCK_HEADER_SIZE));
+            position = end;
+        }
+        return position;
+    }
+
+    @Override
+    public void write(List<? extends Payment> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+        int start = pending.size();
+        pendingOut.writeInt(BLOCK_MARKER);
+        pendingOut.writeInt(0);
+        PaymentBlock.encode(items, pendingOut);
+        pending.putInt(start + Integer.BYTES, pending.size() - start - BLOCK_HEADER_SIZE);
+        pendingBlocks++;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendPending();
+        } else if (!synchronizationRegistered) {
+            TransactionSynchronizationManager.registerSynchronization(new PendingBlocksSynchronization());
+            synchronizationRegistered = true;
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (channel != null) {
+            try {
+                // Dentro del chunk los bloques pendientes se agregan antes del commit que guarda esta posición
+                executionContext.putLong(getExecutionContextKey(POSITION_KEY), channel.position() + pending.size());
+            } catch (IOException e) {
+                throw new ItemStreamException("No se pudo leer la posición de " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            discardPending();
+            writeFooter();
+            channel.close();
+            log.info("Archivo columnar {} cerrado: {} bloques", file, blockCount);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el archivo columnar " + file, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void appendPending() throws IOException {
+        long position = channel.position();
+        ByteBuffer bytes = pending.view();
+        int offset = 0;
+        for (int i = 0; i < pendingBlocks; i++) {
+            int length = bytes.getInt(offset + Integer.BYTES);
+            addBlock(position + offset, bytes.getInt(offset + BLOCK_HEADER_SIZE));
+            offset += BLOCK_HEADER_SIZE + length;
+        }
+        writeFully(bytes, position);
+        channel.position(position + pending.size());
+        if (forceSync) {
+            channel.force(false);
+        }
+        discardPending();
+    }
+
+    private void writeFooter() throws IOException {
+        long footerOffset = channel.position();
+        long rows = 0;
+        ByteBuffer footer = ByteBuffer.allocate(2 * Integer.BYTES
+                + blockCount * (Long.BYTES + Integer.BYTES) + 2 * Long.BYTES + Integer.BYTES);
+        footer.putInt(FOOTER_MARKER).putInt(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            footer.putLong(blockOffsets[i]).putInt(blockRows[i]);
+            rows += blockRows[i];
+        }
+        footer.putLong(rows).putLong(footerOffset).putInt(MAGIC);
+        footer.flip();
+        writeFully(footer, footerOffset);
+        channel.truncate(footerOffset + footer.limit());
+        if (forceSync) {
+            channel.force(false);
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    private void addBlock(long offset, int rows) {
+        if (blockCount == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+            blockRows = Arrays.copyOf(blockRows, blockCount * 2);
+        }
+        blockOffsets[blockCount] = offset;
+        blockRows[blockCount] = rows;
+        blockCount++;
+    }
+
+    private void discardPending() {
+        pending.reset();
+        pendingBlocks = 0;
+    }
+
+    /**
+     * Agrega los bloques del chunk antes del commit, para que un error de escritura lo haga fallar,
+     * y los quita si la transacción termina en rollback.
+     */
+    private final class PendingBlocksSynchronization implements TransactionSynchronization {
+
+        private long rollbackPosition = -1;
+        private int rollbackBlockCount;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                rollbackPosition = channel.position();
+                rollbackBlockCount = blockCount;
+                appendPending();
+            } catch (IOException e) {
+                throw new ItemStreamException("No se pudo escribir el archivo columnar " + file, e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronizationRegistered = false;
+            discardPending();
+            if (status == STATUS_COMMITTED || rollbackPosition < 0) {
+                return;
+            }
+            try {
+                channel.truncate(rollbackPosition);
+                channel.position(rollbackPosition);
+                blockCount = rollbackBlockCount;
+            } catch (IOException e) {
+                log.error("No se pudo deshacer el último bloque de {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Buffer del chunk en curso, expuesto sin copiar para escribirlo en el canal.
+     */
+    private static final class BlockBuffer extends ByteArrayOutputStream {
+
+        private BlockBuffer() {
+            super(64 * 1024);
+        }
+
+        private ByteBuffer view() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        private void putInt(int index, int value) {
+            ByteBuffer.wrap(buf).putInt(index, value);
+        }
+    }
+}
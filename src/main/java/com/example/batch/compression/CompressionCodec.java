@@ -0,0 +1,125 @@
+package com.example.batch.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión de los archivos de pagos, elegida por la extensión del nombre. Los dos formatos
+ * admiten varios miembros (gzip) o frames (zstd) seguidos en un mismo archivo y los descomprimen
+ * como un único flujo: los escritores comprimen cada chunk por separado, así que el archivo siempre
+ * termina en un límite válido donde se puede truncar al reiniciar o seguir agregando.
+ */
+public enum CompressionCodec {
+
+    NONE("") {
+        @Override
+        public InputStream decompress(InputStream in) {
+            return in;
+        }
+
+        @Override
+        public OutputStream compress(OutputStream out) {
+            return out;
+        }
+    },
+
+    GZIP(".gz") {
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+    },
+
+    ZSTD(".zst") {
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            requireZstd();
+            return ZstdStreams.decompress(in, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            requireZstd();
+            return ZstdStreams.compress(out);
+        }
+    };
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final boolean ZSTD_AVAILABLE = isPresent("com.github.luben.zstd.ZstdInputStream");
+
+    private final String extension;
+
+    CompressionCodec(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Extensión que se agrega al nombre del archivo, con el punto; vacía sin compresión.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Códec que corresponde a la extensión del archivo; {@link #NONE} si no es .gz ni .zst.
+     */
+    public static CompressionCodec forFileName(String fileName) {
+        if (fileName != null) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            for (CompressionCodec codec : values()) {
+                if (codec != NONE && name.endsWith(codec.extension)) {
+                    return codec;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Códec por su nombre en la configuración: none, gzip o zstd.
+     */
+    public static CompressionCodec forName(String name) {
+        CompressionCodec codec;
+        try {
+            codec = valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Compresión no soportada: " + name + " (none, gzip o zstd)", e);
+        }
+        // Al leer la configuración, para no fallar recién con el primer chunk
+        if (codec == ZSTD) {
+            requireZstd();
+        }
+        return codec;
+    }
+
+    /** zstd-jni es una dependencia opcional: sin ella solo funcionan {@link #NONE} y {@link #GZIP}. */
+    private static void requireZstd() {
+        if (!ZSTD_AVAILABLE) {
+            throw new IllegalStateException("La compresión zstd (.zst) necesita com.github.luben:zstd-jni en el "
+                    + "classpath; agrega la dependencia o usa gzip");
+        }
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, CompressionCodec.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+}
@@ -0,0 +1,29 @@
+package com.example.batch.compression;
+
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Abre el recurso descomprimiéndolo al vuelo según su extensión (ver {@link CompressionCodec}), sin
+ * dejar una copia descomprimida en disco. Un archivo sin .gz ni .zst se lee tal cual. El reinicio
+ * del {@link org.springframework.batch.item.file.FlatFileItemReader} sigue funcionando por número
+ * de línea: vuelve a descomprimir desde el principio y salta las líneas ya leídas.
+ */
+public class DecompressingBufferedReaderFactory implements BufferedReaderFactory {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public BufferedReader create(Resource resource, String encoding) throws IOException {
+        CompressionCodec codec = CompressionCodec.forFileName(resource.getFilename());
+        if (codec == CompressionCodec.NONE) {
+            return new BufferedReader(new InputStreamReader(resource.getInputStream(), encoding));
+        }
+        return new BufferedReader(new InputStreamReader(codec.decompress(resource.getInputStream()), encoding),
+                BUFFER_SIZE);
+    }
+}
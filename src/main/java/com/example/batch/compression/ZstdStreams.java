@@ -0,0 +1,28 @@
+package com.example.batch.compression;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Único lugar que usa zstd-jni. {@link CompressionCodec} solo llega acá después de comprobar que la
+ * dependencia opcional está, así que sin ella esta clase nunca se carga.
+ */
+final class ZstdStreams {
+
+    private ZstdStreams() {
+    }
+
+    static InputStream decompress(InputStream in, int bufferSize) throws IOException {
+        // ZstdInputStream lee de a pocos bytes del flujo de abajo
+        return new ZstdInputStream(new BufferedInputStream(in, bufferSize));
+    }
+
+    static OutputStream compress(OutputStream out) throws IOException {
+        return new ZstdOutputStream(out);
+    }
+}
@@ -1,107 +1,374 @@
 package com.example.batch.config;
 
+import com.example.batch.async.AsyncItemProcessor;
+import com.example.batch.async.AsyncItemWriter;
+import com.example.batch.async.ProcessorExecutors;
+import com.example.batch.chunk.AdaptiveChunkSizePolicy;
+import com.example.batch.compression.CompressionCodec;
+import com.example.batch.compression.DecompressingBufferedReaderFactory;
+import com.example.batch.columnar.PaymentColumnarWriter;
+import com.example.batch.fx.CsvFxRateLoader;
+import com.example.batch.fx.FxRateJobListener;
+import com.example.batch.fx.FxRateLoader;
+import com.example.batch.fx.JdbcFxRateLoader;
+import com.example.batch.customer.CustomerProfileCache;
+import com.example.batch.customer.JdbcCustomerProfileStore;
+import com.example.batch.dedup.DuplicatePaymentDetector;
+import com.example.batch.incremental.ProcessedPaymentIndex;
+import com.example.batch.jdbc.PaymentBulkLoadTasklet;
+import com.example.batch.jdbc.PaymentJdbcWriter;
+import com.example.batch.incremental.ProcessedPaymentRecorder;
+import com.example.batch.logging.ChunkSummaryLogger;
+import com.example.batch.logging.LogSampler;
+import com.example.batch.metrics.PrometheusTextFileExporter;
+import com.example.batch.metrics.StepMetricsListener;
 import com.example.batch.model.Payment;
+import com.example.batch.partition.ByteRangeBufferedReaderFactory;
+import com.example.batch.partition.CompletionMarkerListener;
+import com.example.batch.partition.InputFilePartitioner;
+import com.example.batch.partition.LineAlignedRangePartitioner;
+import com.example.batch.partition.PartFileMergeTasklet;
 import com.example.batch.processor.PaymentItemProcessor;
+import com.example.batch.reader.MappedPaymentFileReader;
+import com.example.batch.reader.PaymentLineMappers;
+import com.example.batch.spill.PaymentSpillFormat;
+import com.example.batch.spill.SpillFileCleanupListener;
+import com.example.batch.summary.PaymentSummaryJobListener;
+import com.example.batch.summary.PaymentSummaryWriter;
+import com.example.batch.writer.PaymentFlatFileItemWriter;
+import com.example.batch.writer.PaymentLineAggregator;
+import com.example.batch.validation.PaymentValidator;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
-import org.springframework.batch.item.file.mapping.DefaultLineMapper;
-import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
-import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
 import org.springframework.batch.item.support.CompositeItemWriter;
-import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.convert.converter.Converter;
-import org.springframework.core.convert.support.DefaultConversionService;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import org.springframework.batch.core.ExitStatus;
-import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.StepExecutionListener;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Configuration
 @EnableBatchProcessing
 public class BatchConfig {
 
+    private static final String MAPPED_READER = "mapped";
+    private static final String ASYNC_PROCESSOR = "async";
+    private static final String JDBC_NONE = "none";
+    private static final String JDBC_UPSERT = "upsert";
+    private static final String JDBC_LOAD_DATA = "load-data";
+    private static final String PROCESSED_PAYMENTS_FILE = "processed_payments.txt";
+    private static final String PAYMENT_REPORT_FILE = "payment_report.txt";
+    private static final String REJECTED_PAYMENTS_FILE = "rejected_payments.txt";
+    private static final String COLUMNAR_PAYMENTS_FILE = "payments.pcol";
+    private static final String REJECTED_SPILL_FILE = "rejected_payments.spill";
+    private static final String SUMMARY_WRITER_NAME = "paymentSummaryWriter";
+
     @Autowired
     private JobBuilderFactory jobBuilderFactory;
 
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${payment.input.resource}")
+    private Resource inputResource;
+
+    @Value("${payment.input.directory}")
+    private String inputDirectory;
+
+    @Value("${payment.input.pattern}")
+    private String inputPattern;
+
+    @Value("${payment.output.dir}")
+    private String outputDir;
+
+    @Value("${payment.output.force-sync}")
+    private boolean outputForceSync;
+
+    @Value("${payment.output.compression}")
+    private String outputCompression;
+
+    @Value("${payment.output.columnar}")
+    private boolean columnarOutput;
+
+    @Value("${payment.output.jdbc.mode}")
+    private String jdbcOutputMode;
+
+    @Value("${payment.output.jdbc.table}")
+    private String jdbcOutputTable;
+
+    @Value("${payment.output.jdbc.rows-per-statement}")
+    private int jdbcRowsPerStatement;
+
+    @Value("${payment.summary.enabled}")
+    private boolean summaryEnabled;
+
+    @Value("${payment.summary.file}")
+    private String summaryFile;
+
+    @Value("${payment.summary.journal-dir}")
+    private String summaryJournalDir;
+
     @Value("${payment.commission.rate}")
     private double commissionRate;
 
-    private List<Payment> invalidPayments = new ArrayList<>();
+    @Value("${payment.validation.min-amount}")
+    private double minAmount;
+
+    @Value("${payment.validation.max-amount}")
+    private double maxAmount;
+
+    @Value("${payment.validation.supported-currencies}")
+    private String supportedCurrencies;
+
+    @Value("${payment.validation.rules}")
+    private String validationRules;
+
+    @Value("${payment.reader.mode}")
+    private String readerMode;
+
+    @Value("${payment.reader.line-mapper}")
+    private String lineMapperType;
+
+    @Value("${payment.processor.mode}")
+    private String processorMode;
+
+    @Value("${payment.processor.async.executor}")
+    private String processorExecutorType;
+
+    @Value("${payment.processor.async.threads}")
+    private int processorThreads;
+
+    @Value("${payment.processor.async.queue-capacity}")
+    private int processorQueueCapacity;
+
+    @Value("${payment.metrics.enabled}")
+    private boolean metricsEnabled;
+
+    @Value("${payment.metrics.file}")
+    private String metricsFile;
+
+    @Value("${payment.logging.item-samples-per-second}")
+    private int itemLogSamplesPerSecond;
+
+    @Value("${payment.logging.chunk-summary}")
+    private boolean chunkSummaryEnabled;
+
+    @Value("${payment.incremental.enabled}")
+    private boolean incrementalEnabled;
+
+    @Value("${payment.incremental.index-file}")
+    private String incrementalIndexFile;
+
+    @Value("${payment.customer.enabled}")
+    private boolean customerEnabled;
+
+    @Value("${payment.customer.table}")
+    private String customerTable;
+
+    @Value("${payment.customer.cache-size}")
+    private int customerCacheSize;
+
+    @Value("${payment.dedup.enabled}")
+    private boolean dedupEnabled;
+
+    @Value("${payment.dedup.expected-payments}")
+    private long dedupExpectedPayments;
+
+    @Value("${payment.dedup.false-positive-rate}")
+    private double dedupFalsePositiveRate;
+
+    @Value("${payment.dedup.journal-file}")
+    private String dedupJournalFile;
+
+    @Value("${payment.repository.mode}")
+    private String repositoryMode;
+
+    @Value("${payment.partition.enabled}")
+    private boolean partitionEnabled;
+
+    @Value("${payment.partition.grid-size}")
+    private int partitionGridSize;
+
+    @Value("${payment.partition.threads}")
+    private int partitionThreads;
+
+    @Value("${payment.chunk.initial-size}")
+    private int chunkInitialSize;
+
+    @Value("${payment.chunk.min-size}")
+    private int chunkMinSize;
+
+    @Value("${payment.chunk.max-size}")
+    private int chunkMaxSize;
+
+    @Value("${payment.chunk.target-commit-millis}")
+    private long chunkTargetCommitMillis;
+
+    @Value("${payment.fx.source}")
+    private String fxSource;
+
+    @Value("${payment.fx.rates-file}")
+    private Resource fxRatesFile;
+
+    @Value("${payment.fx.table}")
+    private String fxTable;
 
     @Bean
-    public FlatFileItemReader<Payment> reader() {
+    @StepScope
+    public ItemStreamReader<Payment> reader(@Value("#{jobParameters['input.resource']}") String inputParameter) {
         log.info("Configurando el lector de archivos...");
+        return paymentFileReader(inputResource(inputParameter));
+    }
+
+    private ItemStreamReader<Payment> paymentFileReader(Resource resource) {
+        if (MAPPED_READER.equals(readerMode)) {
+            if (compressed(resource)) {
+                throw new IllegalStateException("El lector mapeado no admite una entrada comprimida: " + resource);
+            }
+            MappedPaymentFileReader reader = new MappedPaymentFileReader(resource, paymentLineMapper());
+            reader.setName("reader");
+            reader.setLinesToSkip(1);
+            return reader;
+        }
         FlatFileItemReader<Payment> reader = new FlatFileItemReader<>();
-        reader.setResource(new ClassPathResource("input/payments.txt"));
+        reader.setResource(resource);
         reader.setLinesToSkip(1);
+        // Un .gz o .zst se descomprime al vuelo
+        reader.setBufferedReaderFactory(new DecompressingBufferedReaderFactory());
+        reader.setLineMapper(paymentLineMapper());
+        return reader;
+    }
+
+    private Resource inputResource(String inputParameter) {
+        // El parámetro input.resource del job reemplaza a payment.input.resource
+        return inputParameter != null ? resourceLoader.getResource(inputParameter) : inputResource;
+    }
 
-        DefaultLineMapper<Payment> lineMapper = new DefaultLineMapper<>();
-        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setNames("id", "amount", "currency", "status", "paymentDate", "paymentType", "customerName", "customerEmail");
+    private String outputDir(String outputParameter) {
+        // El parámetro output.dir del job reemplaza a payment.output.dir
+        return outputParameter != null ? outputParameter : outputDir;
+    }
 
-        BeanWrapperFieldSetMapper<Payment> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
-        fieldSetMapper.setTargetType(Payment.class);
-        
-        DefaultConversionService conversionService = new DefaultConversionService();
-        conversionService.addConverter(new StringToLocalDateTimeConverter());
-        fieldSetMapper.setConversionService(conversionService);
+    private static String outputFile(String directory, String fileName) {
+        return new File(directory, fileName).getPath();
+    }
 
-        lineMapper.setLineTokenizer(tokenizer);
-        lineMapper.setFieldSetMapper(fieldSetMapper);
-        reader.setLineMapper(lineMapper);
+    private String rejectedSpillFile(String outputParameter) {
+        // Junto a las salidas del job: un reinicio lo vuelve a encontrar y dos jobs con directorios
+        // distintos no comparten canal. El paso 3 lo borra al terminar.
+        return outputFile(outputDir(outputParameter), REJECTED_SPILL_FILE);
+    }
 
-        return reader;
+    private String textOutputFile(String directory, String fileName) {
+        // La extensión del códec (.gz, .zst) se agrega al nombre de cada salida de texto
+        return outputFile(directory, fileName + outputCompression().getExtension());
+    }
+
+    private CompressionCodec outputCompression() {
+        return CompressionCodec.forName(outputCompression);
+    }
+
+    private static boolean compressed(Resource resource) {
+        return CompressionCodec.forFileName(resource.getFilename()) != CompressionCodec.NONE;
+    }
+
+    private LineMapper<Payment> paymentLineMapper() {
+        return PaymentLineMappers.forType(lineMapperType);
     }
 
     @Bean
-    public ItemReader<Payment> invalidPaymentsReader() {
-        return () -> {
-            if (!invalidPayments.isEmpty()) {
-                return invalidPayments.remove(0);
-            }
-            return null;
-        };
+    @Lazy(false)
+    @ConditionalOnProperty(name = "payment.startup.skip-existing-schema", havingValue = "true")
+    public ExistingSchemaBatchInitializer batchDataSourceInitializer(BatchProperties batchProperties) {
+        // Reemplaza al inicializador de Spring Boot, que se retira si ya hay uno. Con inicialización
+        // diferida nadie lo pide, así que se crea siempre al arrancar
+        return new ExistingSchemaBatchInitializer(dataSource, batchProperties.getJdbc());
     }
 
-    private static class StringToLocalDateTimeConverter implements Converter<String, LocalDateTime> {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+    @Bean
+    public static PaymentBatchConfigurer batchConfigurer(BatchProperties batchProperties, DataSource dataSource,
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers,
+            @Value("${payment.repository.mode}") String mode,
+            @Value("${payment.repository.flush-every-commits}") int flushEveryCommits,
+            @Value("${payment.repository.flush-interval-millis}") long flushIntervalMillis) {
+        // Estático: crear esta clase ya pide las fábricas de jobs y pasos, que dependen del repositorio
+        return new PaymentBatchConfigurer(batchProperties, dataSource, transactionManagerCustomizers.getIfAvailable(),
+                mode, flushEveryCommits, flushIntervalMillis);
+    }
 
-        @Override
-        public LocalDateTime convert(String source) {
-            if (source == null || source.trim().isEmpty()) {
-                return null;
-            }
-            try {
-                return LocalDateTime.parse(source, formatter);
-            } catch (Exception e) {
-                return null;
-            }
+    @Bean
+    @StepScope
+    public FlatFileItemReader<Payment> rejectedPaymentsReader(
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        // Lee secuencialmente el canal de rechazados que el paso 1 volcó a disco
+        FlatFileItemReader<Payment> reader = new FlatFileItemReader<>();
+        reader.setName("rejectedPaymentsReader");
+        reader.setResource(new FileSystemResource(rejectedSpillFile(outputParameter)));
+        reader.setEncoding(StandardCharsets.UTF_8.name());
+        reader.setLineMapper(new PaymentSpillFormat());
+        return reader;
+    }
+
+    private String processorRules() {
+        // La tabla usa el id como clave: un pago sin id no puede llegar a la base
+        if (JDBC_NONE.equals(jdbcOutputMode) || Arrays.stream(validationRules.split(","))
+                .anyMatch(rule -> PaymentValidator.ID.equals(rule.trim()))) {
+            return validationRules;
         }
+        return PaymentValidator.ID + "," + validationRules;
     }
 
     @Bean
@@ -109,188 +376,613 @@ public class BatchConfig {
         log.info("Configurando el procesador de pagos...");
         PaymentItemProcessor processor = new PaymentItemProcessor();
         processor.setCommissionRate(commissionRate);
-        processor.setMinAmount(10.0);
-        processor.setMaxAmount(10000.0);
-        processor.setSupportedCurrencies("USD,EUR,GBP,JPY");
+        processor.setMinAmount(minAmount);
+        processor.setMaxAmount(maxAmount);
+        processor.setSupportedCurrencies(supportedCurrencies);
+        processor.setRules(processorRules());
+        processor.setRateTableSupplier(fxRateJobListener()::getRateTable);
+        processor.setItemLogSampler(new LogSampler(itemLogSamplesPerSecond));
+        if (incrementalEnabled) {
+            processor.setAlreadyProcessed(processedPaymentIndex()::contains);
+        }
+        if (dedupEnabled) {
+            processor.setDuplicateDetector(duplicatePaymentDetector());
+        }
+        if (customerEnabled) {
+            processor.setCustomerProfiles(customerProfileCache());
+        }
         return processor;
     }
 
     @Bean
-    public ItemProcessor<Payment, Payment> validPaymentProcessor() {
-        return payment -> {
-            if ("PROCESSED".equals(payment.getStatus())) {
-                return payment;
-            }
-            invalidPayments.add(payment);
-            return null;
-        };
+    @Lazy
+    public CustomerProfileCache customerProfileCache() {
+        CustomerProfileCache cache = new CustomerProfileCache(
+                new JdbcCustomerProfileStore(new JdbcTemplate(dataSource), customerTable), customerCacheSize);
+        cache.bindTo(Metrics.globalRegistry);
+        return cache;
     }
 
     @Bean
-    public FlatFileItemWriter<Payment> validPaymentsWriter() {
-        log.info("Configurando el escritor de pagos válidos...");
-        FlatFileItemWriter<Payment> writer = new FlatFileItemWriter<>();
-        writer.setResource(new FileSystemResource("src/main/resources/output/processed_payments.txt"));
+    public FxRateJobListener fxRateJobListener() {
+        return new FxRateJobListener(fxRateLoader());
+    }
+
+    private FxRateLoader fxRateLoader() {
+        switch (fxSource) {
+            case "file":
+                return new CsvFxRateLoader(fxRatesFile);
+            case "jdbc":
+                return new JdbcFxRateLoader(new JdbcTemplate(dataSource), fxTable);
+            default:
+                throw new IllegalArgumentException("Origen de tipos de cambio no soportado: " + fxSource);
+        }
+    }
+
+    private FlatFileItemWriter<Payment> restartableFileWriter(FlatFileItemWriter<Payment> writer, String name,
+                                                              String path) {
+        // El escritor guarda en el ExecutionContext el byte confirmado en cada commit y solo vuelca el
+        // chunk al archivo cuando la transacción se confirma. Al reiniciar, trunca lo escrito después del
+        // último commit y sigue desde ahí; el archivo se borra únicamente en una ejecución nueva.
+        writer.setName(name);
+        writer.setResource(new FileSystemResource(path));
+        writer.setSaveState(true);
+        writer.setTransactional(true);
         writer.setShouldDeleteIfExists(true);
         writer.setAppendAllowed(false);
-        
-        DelimitedLineAggregator<Payment> lineAggregator = new DelimitedLineAggregator<>();
-        lineAggregator.setDelimiter(",");
-        
-        BeanWrapperFieldExtractor<Payment> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[] {
-            "id", "amount", "currency", "status", "paymentDate", 
-            "paymentType", "customerName", "customerEmail",
-            "amountInUSD", "commission", "validationStatus"
-        });
-        
-        lineAggregator.setFieldExtractor(fieldExtractor);
-        writer.setLineAggregator(lineAggregator);
-        
+        // Con force-sync el offset guardado nunca apunta más allá de lo que llegó al disco
+        writer.setForceSync(outputForceSync);
+        return writer;
+    }
+
+    private PaymentFlatFileItemWriter paymentFileWriter(PaymentLineAggregator lineAggregator) {
+        PaymentFlatFileItemWriter writer = new PaymentFlatFileItemWriter(lineAggregator);
+        writer.setCompression(outputCompression());
+        return writer;
+    }
+
+    private FlatFileItemWriter<Payment> appendIfIncremental(FlatFileItemWriter<Payment> writer) {
+        // En modo incremental cada ejecución agrega solo los pagos nuevos a las salidas de las anteriores
+        if (incrementalEnabled) {
+            writer.setShouldDeleteIfExists(false);
+            writer.setAppendAllowed(true);
+        }
         return writer;
     }
 
     @Bean
-    public ItemWriter<Payment> invalidPaymentsCollector() {
-        return items -> {
-            for (Payment payment : items) {
-                if (!"PROCESSED".equals(payment.getStatus())) {
-                    invalidPayments.add(payment);
-                }
-            }
-        };
+    @StepScope
+    public FlatFileItemWriter<Payment> validPaymentsWriter(
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        log.info("Configurando el escritor de pagos válidos...");
+        return appendIfIncremental(validPaymentsFileWriter("validPaymentsWriter",
+                textOutputFile(outputDir(outputParameter), PROCESSED_PAYMENTS_FILE)));
+    }
+
+    private FlatFileItemWriter<Payment> validPaymentsFileWriter(String name, String path) {
+        return restartableFileWriter(paymentFileWriter(PaymentLineAggregator.processedPayments()), name, path);
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> rejectedPaymentsSpillWriter(
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        return spillFileWriter("rejectedPaymentsSpillWriter", rejectedSpillFile(outputParameter));
+    }
+
+    private FlatFileItemWriter<Payment> spillFileWriter(String name, String path) {
+        // Canal acotado: solo el chunk en curso queda en memoria, el resto se agrega al archivo
+        FlatFileItemWriter<Payment> writer = restartableFileWriter(new FlatFileItemWriter<>(), name, path);
+        writer.setEncoding(StandardCharsets.UTF_8.name());
+        writer.setLineAggregator(new PaymentSpillFormat());
+        return writer;
     }
 
     @Bean
-    public CompositeItemWriter<Payment> validPaymentWriter() {
+    @StepScope
+    public ClassifierCompositeItemWriter<Payment> paymentStatusWriter() {
+        return statusClassifierWriter(processedPaymentsWriter(validPaymentsWriter(null)), rejectedPaymentsSpillWriter(null));
+    }
+
+    private ItemWriter<Payment> processedPaymentsWriter(ItemWriter<Payment> fileWriter) {
+        if (!JDBC_UPSERT.equals(jdbcOutputMode)) {
+            return fileWriter;
+        }
+        // Los pagos procesados van al archivo y a la tabla, en la misma transacción del chunk
         CompositeItemWriter<Payment> writer = new CompositeItemWriter<>();
-        writer.setDelegates(List.of(validPaymentsWriter(), invalidPaymentsCollector()));
+        writer.setDelegates(List.of(fileWriter, paymentJdbcWriter()));
         return writer;
     }
 
     @Bean
-    public FlatFileItemWriter<Payment> reportWriter() {
-        log.info("Configurando el escritor del reporte...");
-        FlatFileItemWriter<Payment> writer = new FlatFileItemWriter<>();
-        writer.setResource(new FileSystemResource("src/main/resources/output/payment_report.txt"));
-        writer.setShouldDeleteIfExists(true);
-        writer.setAppendAllowed(false);
-        
-        DelimitedLineAggregator<Payment> lineAggregator = new DelimitedLineAggregator<>();
-        lineAggregator.setDelimiter("|");
-        
-        BeanWrapperFieldExtractor<Payment> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[] {
-            "id", "amount", "currency", "amountInUSD", 
-            "commission", "paymentType", "status"
-        });
-        
-        lineAggregator.setFieldExtractor(fieldExtractor);
-        writer.setLineAggregator(lineAggregator);
-        
+    @Lazy
+    public PaymentJdbcWriter paymentJdbcWriter() {
+        return new PaymentJdbcWriter(new JdbcTemplate(dataSource), jdbcOutputTable, jdbcRowsPerStatement);
+    }
+
+    private ClassifierCompositeItemWriter<Payment> statusClassifierWriter(ItemWriter<Payment> processedWriter,
+                                                                         ItemWriter<Payment> invalidWriter) {
+        // Los pagos procesados van al archivo de válidos, el resto al canal de rechazados
+        ClassifierCompositeItemWriter<Payment> writer = new ClassifierCompositeItemWriter<>();
+        writer.setClassifier(payment -> "PROCESSED".equals(payment.getStatus()) ? processedWriter : invalidWriter);
         return writer;
     }
 
     @Bean
-    public FlatFileItemWriter<Payment> rejectedWriter() {
-        log.info("Configurando el escritor de pagos rechazados...");
-        FlatFileItemWriter<Payment> writer = new FlatFileItemWriter<>();
-        writer.setResource(new FileSystemResource("src/main/resources/output/rejected_payments.txt"));
-        writer.setShouldDeleteIfExists(true);
-        writer.setAppendAllowed(false);
-        
-        DelimitedLineAggregator<Payment> lineAggregator = new DelimitedLineAggregator<>();
-        lineAggregator.setDelimiter(",");
-        
-        BeanWrapperFieldExtractor<Payment> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[] {
-            "id", "amount", "currency", "status", "paymentDate", 
-            "paymentType", "customerName", "customerEmail", "errorMessage"
-        });
-        
-        lineAggregator.setFieldExtractor(fieldExtractor);
-        writer.setLineAggregator(lineAggregator);
-        
+    @StepScope
+    public CompositeItemWriter<Payment> paymentOutputWriter() {
+        List<ItemWriter<? super Payment>> delegates = new ArrayList<>(List.of(reportWriter(null), paymentStatusWriter()));
+        if (columnarOutput) {
+            delegates.add(columnarWriter(null));
+        }
+        if (summaryEnabled) {
+            delegates.add(paymentSummaryWriter());
+        }
+        return outputCompositeWriter(delegates);
+    }
+
+    private CompositeItemWriter<Payment> outputCompositeWriter(List<ItemWriter<? super Payment>> delegates) {
+        // Un único paso de lectura: cada pago se escribe en el reporte y se clasifica según su estado
+        CompositeItemWriter<Payment> writer = new CompositeItemWriter<>();
+        writer.setDelegates(delegates);
         return writer;
     }
 
     @Bean
-    public ItemWriter<Payment> step1Writer() {
-        FlatFileItemWriter<Payment> writer = validPaymentsWriter();
-        writer.open(new ExecutionContext());
-        
-        return items -> {
-            log.info("Escribiendo {} pagos en el paso 1", items.size());
-            List<Payment> validPayments = new ArrayList<>();
-            
-            for (Payment payment : items) {
-                if ("PROCESSED".equals(payment.getStatus())) {
-                    log.info("Agregando pago procesado: {}", payment);
-                    validPayments.add(payment);
-                } else {
-                    log.info("Agregando pago inválido a la lista: {}", payment);
-                    invalidPayments.add(payment);
-                }
-            }
-            
-            if (!validPayments.isEmpty()) {
-                writer.write(validPayments);
-            }
-        };
+    @StepScope
+    public PaymentColumnarWriter columnarWriter(@Value("#{jobParameters['output.dir']}") String outputParameter) {
+        // Todos los pagos del paso 1, válidos y rechazados, en formato binario por columnas
+        PaymentColumnarWriter writer = new PaymentColumnarWriter(
+                Paths.get(outputFile(outputDir(outputParameter), COLUMNAR_PAYMENTS_FILE)));
+        writer.setName("columnarWriter");
+        writer.setAppendAllowed(incrementalEnabled);
+        writer.setForceSync(outputForceSync);
+        return writer;
+    }
+
+    @Bean
+    public PaymentSummaryWriter paymentSummaryWriter() {
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(Paths.get(summaryJournalDir));
+        writer.setName(SUMMARY_WRITER_NAME);
+        return writer;
+    }
+
+    @Bean
+    @Lazy
+    public PaymentSummaryJobListener paymentSummaryJobListener() {
+        return new PaymentSummaryJobListener(jobExplorer, SUMMARY_WRITER_NAME,
+                parameters -> Paths.get(outputFile(outputDir(parameters.getString("output.dir")), summaryFile)));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> reportWriter(@Value("#{jobParameters['output.dir']}") String outputParameter) {
+        log.info("Configurando el escritor del reporte...");
+        return appendIfIncremental(reportFileWriter("reportWriter",
+                textOutputFile(outputDir(outputParameter), PAYMENT_REPORT_FILE)));
+    }
+
+    private FlatFileItemWriter<Payment> reportFileWriter(String name, String path) {
+        return restartableFileWriter(paymentFileWriter(PaymentLineAggregator.report()), name, path);
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> rejectedWriter(@Value("#{jobParameters['output.dir']}") String outputParameter) {
+        log.info("Configurando el escritor de pagos rechazados...");
+        return appendIfIncremental(rejectedFileWriter("rejectedWriter",
+                textOutputFile(outputDir(outputParameter), REJECTED_PAYMENTS_FILE)));
+    }
+
+    private FlatFileItemWriter<Payment> rejectedFileWriter(String name, String path) {
+        return restartableFileWriter(paymentFileWriter(PaymentLineAggregator.rejectedPayments()), name, path);
+    }
+
+    @Bean
+    @StepScope
+    public AdaptiveChunkSizePolicy chunkSizePolicy() {
+        // Una instancia por ejecución de paso: cada partición ajusta su propio tamaño
+        return new AdaptiveChunkSizePolicy(chunkInitialSize, chunkMinSize, chunkMaxSize, chunkTargetCommitMillis);
     }
 
     @Bean
     public Step step1() {
         log.info("Configurando el paso 1...");
-        return stepBuilderFactory.get("step1")
-                .<Payment, Payment>chunk(10)
-                .reader(reader())
-                .processor(processor())
-                .writer(step1Writer())
-                .listener(new StepExecutionListener() {
-                    @Override
-                    public void beforeStep(StepExecution stepExecution) {
-                        // No necesitamos hacer nada antes del paso
-                    }
-
-                    @Override
-                    public ExitStatus afterStep(StepExecution stepExecution) {
-                        validPaymentsWriter().close();
-                        return ExitStatus.COMPLETED;
-                    }
-                })
+        // El ClassifierCompositeItemWriter no propaga el ciclo de vida a sus delegados
+        List<ItemStream> streams = new ArrayList<>(List.of(validPaymentsWriter(null), rejectedPaymentsSpillWriter(null)));
+        if (dedupEnabled) {
+            streams.add(duplicatePaymentDetector());
+        }
+        return paymentChunkStep("step1", reader(null), paymentOutputWriter(), streams.toArray(new ItemStream[0]));
+    }
+
+    @Bean
+    @Lazy
+    public DuplicatePaymentDetector duplicatePaymentDetector() {
+        return new DuplicatePaymentDetector(Paths.get(dedupJournalFile), dedupExpectedPayments,
+                dedupFalsePositiveRate);
+    }
+
+    private Step paymentChunkStep(String name, ItemStreamReader<Payment> reader, ItemWriter<Payment> writer,
+                                  ItemStream... streams) {
+        return paymentChunkStep(name, reader, writer, List.of(), streams);
+    }
+
+    private Step paymentChunkStep(String name, ItemStreamReader<Payment> reader, ItemWriter<Payment> writer,
+                                  List<StepExecutionListener> listeners, ItemStream... streams) {
+        if (ASYNC_PROCESSOR.equals(processorMode)) {
+            // Los pagos del chunk se procesan en paralelo y se escriben en el orden de lectura.
+            // El procesador queda envuelto, así que su @BeforeStep se registra aparte.
+            SimpleStepBuilder<Payment, Future<Payment>> step = chunkStep(name, reader,
+                    new AsyncItemProcessor<>(processor(), processorExecutor()), new AsyncItemWriter<>(writer), streams);
+            step.listener((Object) processor());
+            registerProcessedPaymentRecorder(step);
+            listeners.forEach(step::listener);
+            return step.build();
+        }
+        SimpleStepBuilder<Payment, Payment> step = chunkStep(name, reader, processor(), writer, streams);
+        registerProcessedPaymentRecorder(step);
+        listeners.forEach(step::listener);
+        return step.build();
+    }
+
+    private void registerProcessedPaymentRecorder(SimpleStepBuilder<Payment, ?> step) {
+        if (!incrementalEnabled) {
+            return;
+        }
+        step.listener((StepExecutionListener) processedPaymentRecorder());
+        step.listener((ItemWriteListener<Object>) processedPaymentRecorder());
+        step.listener((ChunkListener) processedPaymentRecorder());
+    }
+
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public ProcessedPaymentIndex processedPaymentIndex() {
+        return ProcessedPaymentIndex.open(Paths.get(incrementalIndexFile));
+    }
+
+    @Bean
+    @Lazy
+    public ProcessedPaymentRecorder processedPaymentRecorder() {
+        return new ProcessedPaymentRecorder(processedPaymentIndex());
+    }
+
+    private <O> SimpleStepBuilder<Payment, O> chunkStep(String name, ItemStreamReader<Payment> reader,
+                                                        ItemProcessor<Payment, O> processor, ItemWriter<O> writer,
+                                                        ItemStream... streams) {
+        SimpleStepBuilder<Payment, O> step = stepBuilderFactory.get(name)
+                .<Payment, O>chunk(chunkSizePolicy())
+                .reader(reader)
+                .processor(processor)
+                .writer(writer);
+        for (ItemStream stream : streams) {
+            step.stream(stream);
+        }
+        step.listener((ChunkListener) chunkSizePolicy());
+        step.listener((StepExecutionListener) chunkSizePolicy());
+        registerStepMetrics(step);
+        registerChunkSummary(step);
+        return step;
+    }
+
+    private void registerStepMetrics(SimpleStepBuilder<Payment, ?> step) {
+        if (!metricsEnabled) {
+            return;
+        }
+        step.listener((StepExecutionListener) stepMetricsListener());
+        step.listener((ChunkListener) stepMetricsListener());
+        step.listener((ItemProcessListener<Object, Object>) stepMetricsListener());
+        step.listener((ItemWriteListener<Object>) stepMetricsListener());
+    }
+
+    private void registerChunkSummary(SimpleStepBuilder<Payment, ?> step) {
+        if (chunkSummaryEnabled) {
+            step.listener(chunkSummaryLogger());
+        }
+    }
+
+    @Bean
+    public ChunkSummaryLogger chunkSummaryLogger() {
+        return new ChunkSummaryLogger();
+    }
+
+    @Bean
+    public StepMetricsListener stepMetricsListener() {
+        return new StepMetricsListener(Metrics.globalRegistry, Set.of(supportedCurrencies.split(",")));
+    }
+
+    @Bean
+    @Lazy
+    public PrometheusTextFileExporter metricsExporter() {
+        return new PrometheusTextFileExporter(Paths.get(metricsFile));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @Lazy
+    public ExecutorService processorExecutor() {
+        return ProcessorExecutors.create(processorExecutorType, processorThreads, processorQueueCapacity);
+    }
+
+    @Bean
+    @StepScope
+    public LineAlignedRangePartitioner inputPartitioner(
+            @Value("#{jobParameters['input.resource']}") String inputParameter) {
+        Resource resource = inputResource(inputParameter);
+        if (compressed(resource)) {
+            // Los rangos de bytes de un archivo comprimido no empiezan en un límite de línea
+            throw new IllegalStateException("El paso 1 particionado no admite una entrada comprimida: " + resource);
+        }
+        return new LineAlignedRangePartitioner(resource, 1);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partitionThreads);
+        executor.setMaxPoolSize(partitionThreads);
+        executor.setThreadNamePrefix("payments-partition-");
+        // Los hilos no deben impedir que la JVM termine cuando el job finaliza
+        executor.setDaemon(true);
+        return executor;
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Payment> partitionReader(
+            @Value("#{jobParameters['input.resource']}") String inputParameter,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset) {
+        Resource inputResource = inputResource(inputParameter);
+        if (MAPPED_READER.equals(readerMode)) {
+            MappedPaymentFileReader reader = new MappedPaymentFileReader(inputResource, paymentLineMapper());
+            reader.setName("partitionReader");
+            reader.setRange(startOffset, endOffset);
+            return reader;
+        }
+        FlatFileItemReader<Payment> reader = new FlatFileItemReader<>();
+        reader.setName("partitionReader");
+        reader.setResource(inputResource);
+        reader.setBufferedReaderFactory(new ByteRangeBufferedReaderFactory(startOffset, endOffset));
+        reader.setLineMapper(paymentLineMapper());
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> partitionValidPaymentsWriter(
+            @Value("#{jobParameters['output.dir']}") String outputParameter,
+            @Value("#{stepExecutionContext['partitionIndex']}") Integer partitionIndex) {
+        return validPaymentsFileWriter("validPaymentsWriter", PartFileMergeTasklet.partFile(
+                textOutputFile(outputDir(outputParameter), PROCESSED_PAYMENTS_FILE), partitionIndex));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> partitionReportWriter(
+            @Value("#{jobParameters['output.dir']}") String outputParameter,
+            @Value("#{stepExecutionContext['partitionIndex']}") Integer partitionIndex) {
+        return reportFileWriter("reportWriter", PartFileMergeTasklet.partFile(
+                textOutputFile(outputDir(outputParameter), PAYMENT_REPORT_FILE), partitionIndex));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> partitionRejectedSpillWriter(
+            @Value("#{jobParameters['output.dir']}") String outputParameter,
+            @Value("#{stepExecutionContext['partitionIndex']}") Integer partitionIndex) {
+        return spillFileWriter("rejectedPaymentsSpillWriter",
+                PartFileMergeTasklet.partFile(rejectedSpillFile(outputParameter), partitionIndex));
+    }
+
+    @Bean
+    @StepScope
+    public PaymentSummaryWriter partitionSummaryWriter() {
+        // Cada partición acumula sus totales en su propio contexto; el listener del job los junta
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(Paths.get(summaryJournalDir));
+        writer.setName(SUMMARY_WRITER_NAME);
+        return writer;
+    }
+
+    @Bean
+    public Step step1Worker() {
+        // Cada partición procesa su rango de bytes y escribe sus propios archivos parciales
+        List<ItemWriter<? super Payment>> delegates = new ArrayList<>(List.of(partitionReportWriter(null, null),
+                statusClassifierWriter(processedPaymentsWriter(partitionValidPaymentsWriter(null, null)),
+                        partitionRejectedSpillWriter(null, null))));
+        if (summaryEnabled) {
+            delegates.add(partitionSummaryWriter());
+        }
+        return paymentChunkStep("step1Worker", partitionReader(null, null, null), outputCompositeWriter(delegates),
+                partitionValidPaymentsWriter(null, null), partitionRejectedSpillWriter(null, null));
+    }
+
+    @Bean
+    public Step step1Manager() {
+        log.info("Configurando el paso 1 particionado en {} rangos con {} hilos...", partitionGridSize, partitionThreads);
+        return stepBuilderFactory.get("step1Manager")
+                .partitioner("step1Worker", inputPartitioner(null))
+                .step(step1Worker())
+                .gridSize(partitionGridSize)
+                .taskExecutor(partitionTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public Step step1Merge() {
+        return stepBuilderFactory.get("step1Merge")
+                .tasklet(partFileMergeTasklet(null))
                 .build();
     }
 
     @Bean
-    public Step step2() {
-        log.info("Configurando el paso 2...");
-        return stepBuilderFactory.get("step2")
-                .<Payment, Payment>chunk(10)
-                .reader(reader())
-                .processor(processor())
-                .writer(reportWriter())
+    @StepScope
+    public PartFileMergeTasklet partFileMergeTasklet(@Value("#{jobParameters['output.dir']}") String outputParameter) {
+        // Las partes se concatenan por índice, lo que conserva el orden original de la entrada
+        String directory = outputDir(outputParameter);
+        return new PartFileMergeTasklet(List.of(textOutputFile(directory, PROCESSED_PAYMENTS_FILE),
+                textOutputFile(directory, PAYMENT_REPORT_FILE), rejectedSpillFile(outputParameter)),
+                partitionGridSize);
+    }
+
+    @Bean
+    @Lazy
+    public Step step1Load() {
+        return stepBuilderFactory.get("step1Load")
+                .tasklet(paymentBulkLoadTasklet(null))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public PaymentBulkLoadTasklet paymentBulkLoadTasklet(
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        // Carga inicial: la tabla se llena de una vez con el archivo de válidos ya completo
+        return new PaymentBulkLoadTasklet(new JdbcTemplate(dataSource), jdbcOutputTable,
+                Paths.get(textOutputFile(outputDir(outputParameter), PROCESSED_PAYMENTS_FILE)));
+    }
+
+    @Bean
+    @StepScope
+    public InputFilePartitioner inputFilePartitioner(
+            @Value("#{jobParameters['input.directory']}") String inputDirectoryParameter,
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        // El parámetro input.directory del job reemplaza a payment.input.directory
+        return new InputFilePartitioner(
+                Paths.get(inputDirectoryParameter != null ? inputDirectoryParameter : inputDirectory), inputPattern,
+                Paths.get(outputDir(outputParameter)));
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Payment> inputFileReader(
+            @Value("#{stepExecutionContext['inputFile']}") String inputFile) {
+        return paymentFileReader(new FileSystemResource(inputFile));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> inputFileValidPaymentsWriter(
+            @Value("#{stepExecutionContext['outputDir']}") String fileOutputDir) {
+        return validPaymentsFileWriter("validPaymentsWriter", textOutputFile(fileOutputDir, PROCESSED_PAYMENTS_FILE));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> inputFileReportWriter(
+            @Value("#{stepExecutionContext['outputDir']}") String fileOutputDir) {
+        return reportFileWriter("reportWriter", textOutputFile(fileOutputDir, PAYMENT_REPORT_FILE));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Payment> inputFileRejectedWriter(
+            @Value("#{stepExecutionContext['outputDir']}") String fileOutputDir) {
+        return rejectedFileWriter("rejectedWriter", textOutputFile(fileOutputDir, REJECTED_PAYMENTS_FILE));
+    }
+
+    @Bean
+    public Step step1File() {
+        // Cada archivo escribe sus salidas en su propio directorio. Los rechazados van directo a su
+        // archivo final: sin partes que unir no hace falta el canal intermedio del paso 3.
+        List<ItemWriter<? super Payment>> delegates = new ArrayList<>(List.of(inputFileReportWriter(null),
+                statusClassifierWriter(processedPaymentsWriter(inputFileValidPaymentsWriter(null)),
+                        inputFileRejectedWriter(null))));
+        if (summaryEnabled) {
+            delegates.add(partitionSummaryWriter());
+        }
+        return paymentChunkStep("step1File", inputFileReader(null), outputCompositeWriter(delegates),
+                List.of(new CompletionMarkerListener()),
+                inputFileValidPaymentsWriter(null), inputFileRejectedWriter(null));
+    }
+
+    @Bean
+    public Step step1Files() {
+        log.info("Configurando el paso 1 por archivos de {} con {} hilos...", inputDirectory, partitionThreads);
+        return stepBuilderFactory.get("step1Files")
+                .partitioner("step1File", inputFilePartitioner(null, null))
+                .step(step1File())
+                .taskExecutor(partitionTaskExecutor())
                 .build();
     }
 
     @Bean
     public Step step3() {
         log.info("Configurando el paso 3 para pagos rechazados...");
-        return stepBuilderFactory.get("step3")
-                .<Payment, Payment>chunk(10)
-                .reader(invalidPaymentsReader())
-                .writer(rejectedWriter())
-                .build();
+        SimpleStepBuilder<Payment, Payment> step = stepBuilderFactory.get("step3")
+                .<Payment, Payment>chunk(chunkSizePolicy())
+                .reader(rejectedPaymentsReader(null))
+                .writer(rejectedWriter(null));
+        step.listener(rejectedSpillCleanupListener(null));
+        step.listener((ChunkListener) chunkSizePolicy());
+        step.listener((StepExecutionListener) chunkSizePolicy());
+        registerStepMetrics(step);
+        registerChunkSummary(step);
+        return step.build();
+    }
+
+    @Bean
+    @StepScope
+    public SpillFileCleanupListener rejectedSpillCleanupListener(
+            @Value("#{jobParameters['output.dir']}") String outputParameter) {
+        return new SpillFileCleanupListener(Paths.get(rejectedSpillFile(outputParameter)));
     }
 
     @Bean
     public Job importPaymentsJob() {
         log.info("Configurando el job de importación de pagos...");
-        return jobBuilderFactory.get("importPaymentsJob")
+        JobBuilder job = jobBuilderFactory.get("importPaymentsJob")
                 .incrementer(new RunIdIncrementer())
-                .start(step1())
-                .next(step2())
+                .listener(fxRateJobListener());
+        if (metricsEnabled) {
+            job.listener(metricsExporter());
+        }
+        if (summaryEnabled) {
+            job.listener(paymentSummaryJobListener());
+        }
+        if (dedupEnabled && (partitionEnabled || !inputDirectory.isEmpty())) {
+            // Las particiones corren a la vez y cada una guarda su propio ExecutionContext
+            throw new IllegalStateException(
+                    "La deduplicación de pagos no admite el paso 1 particionado ni el directorio de entrada");
+        }
+        if (incrementalEnabled && PaymentBatchConfigurer.COALESCING.equals(repositoryMode)) {
+            // El índice avanza en cada commit; tras una caída volvería a un punto de reinicio anterior y
+            // los pagos confirmados después quedarían marcados como procesados sin estar en las salidas
+            throw new IllegalStateException("El modo incremental no admite el repositorio de jobs coalescing");
+        }
+        if (!inputDirectory.isEmpty()) {
+            if (incrementalEnabled || columnarOutput || JDBC_LOAD_DATA.equals(jdbcOutputMode)) {
+                // Esos modos trabajan sobre un único juego de salidas
+                throw new IllegalStateException(
+                        "El directorio de entrada no admite el modo incremental, la salida columnar ni load-data");
+            }
+            return job.start(step1Files()).build();
+        }
+        if (partitionEnabled) {
+            if (incrementalEnabled) {
+                // La unión de las partes reescribe los destinos en lugar de agregarles lo nuevo
+                throw new IllegalStateException("El modo incremental no admite el paso 1 particionado");
+            }
+            if (columnarOutput) {
+                // Cada archivo columnar lleva su propio pie, así que las partes no se pueden concatenar
+                throw new IllegalStateException("La salida columnar no admite el paso 1 particionado");
+            }
+            return withBulkLoad(job.start(step1Manager()).next(step1Merge()))
+                    .next(step3())
+                    .build();
+        }
+        return withBulkLoad(job.start(step1()))
                 .next(step3())
                 .build();
     }
+
+    private SimpleJobBuilder withBulkLoad(SimpleJobBuilder job) {
+        if (!JDBC_LOAD_DATA.equals(jdbcOutputMode)) {
+            return job;
+        }
+        if (outputCompression() != CompressionCodec.NONE) {
+            // LOAD DATA y CSVREAD leen el archivo de válidos sin descomprimir
+            throw new IllegalStateException("La carga load-data no admite salidas comprimidas");
+        }
+        return job.next(step1Load());
+    }
 }
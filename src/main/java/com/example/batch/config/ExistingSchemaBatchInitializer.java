@@ -0,0 +1,65 @@
+package com.example.batch.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.batch.BatchDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Inicializador del esquema de Spring Batch que no hace nada si la tabla de instancias de job ya
+ * existe. Con {@code initialize-schema: always} el inicializador de Spring Boot vuelve a ejecutar el
+ * script completo en cada arranque e ignora los errores de las tablas existentes; sobre una base
+ * persistente eso es una consulta de metadatos en lugar de un script entero por cada job lanzado.
+ */
+@Slf4j
+public class ExistingSchemaBatchInitializer extends BatchDataSourceScriptDatabaseInitializer {
+
+    private static final String DEFAULT_TABLE_PREFIX = "BATCH_";
+
+    private final DataSource dataSource;
+    private final String jobInstanceTable;
+
+    public ExistingSchemaBatchInitializer(DataSource dataSource, BatchProperties.Jdbc properties) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+        String prefix = properties.getTablePrefix() != null ? properties.getTablePrefix() : DEFAULT_TABLE_PREFIX;
+        this.jobInstanceTable = prefix + "JOB_INSTANCE";
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        if (schemaExists()) {
+            log.info("El esquema de Spring Batch ya existe ({}), no se inicializa", jobInstanceTable);
+            return false;
+        }
+        return super.initializeDatabase();
+    }
+
+    private boolean schemaExists() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Según la base, los identificadores sin comillas se guardan en mayúsculas o en minúsculas
+            return tableExists(metaData, jobInstanceTable.toUpperCase(Locale.ROOT))
+                    || tableExists(metaData, jobInstanceTable.toLowerCase(Locale.ROOT));
+        } catch (SQLException e) {
+            log.warn("No se pudo consultar si existe {}, se inicializa el esquema", jobInstanceTable, e);
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static boolean tableExists(DatabaseMetaData metaData, String table) throws SQLException {
+        try (ResultSet tables = metaData.getTables(null, null, table, new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
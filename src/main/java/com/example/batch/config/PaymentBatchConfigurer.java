@@ -0,0 +1,85 @@
+package com.example.batch.config;
+
+import com.example.batch.repository.CoalescingJobRepository;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.MapJobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.boot.autoconfigure.batch.BasicBatchConfigurer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link BasicBatchConfigurer} de Spring Boot con el repositorio de jobs elegido en
+ * {@code payment.repository.mode}:
+ * <ul>
+ *     <li>{@code jdbc}: el de Spring Boot, que escribe el progreso de cada paso en cada commit.</li>
+ *     <li>{@code coalescing}: el mismo envuelto en un {@link CoalescingJobRepository}.</li>
+ *     <li>{@code memory}: mapas en memoria, sin tablas de metadatos, que solo guardan los cambios de
+ *     estado de los pasos. Las ejecuciones se pierden al terminar el proceso, así que no hay reinicio
+ *     ni control de instancias ya completadas: solo para ejecuciones descartables.</li>
+ * </ul>
+ */
+@Slf4j
+@SuppressWarnings("deprecation")
+public class PaymentBatchConfigurer extends BasicBatchConfigurer {
+
+    static final String JDBC = "jdbc";
+    static final String COALESCING = "coalescing";
+    static final String MEMORY = "memory";
+
+    private final String mode;
+    private final int flushEveryCommits;
+    private final long flushIntervalMillis;
+
+    private MapJobRepositoryFactoryBean mapRepositoryFactory;
+
+    public PaymentBatchConfigurer(BatchProperties properties, DataSource dataSource,
+            TransactionManagerCustomizers transactionManagerCustomizers, String mode, int flushEveryCommits,
+            long flushIntervalMillis) {
+        super(properties, dataSource, transactionManagerCustomizers);
+        if (!JDBC.equals(mode) && !COALESCING.equals(mode) && !MEMORY.equals(mode)) {
+            throw new IllegalStateException("Modo de repositorio de jobs desconocido: " + mode);
+        }
+        this.mode = mode;
+        this.flushEveryCommits = flushEveryCommits;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @Override
+    protected JobRepository createJobRepository() throws Exception {
+        if (MEMORY.equals(mode)) {
+            log.info("Repositorio de jobs en memoria: las ejecuciones no se guardan");
+            mapRepositoryFactory = new MapJobRepositoryFactoryBean(getTransactionManager());
+            mapRepositoryFactory.afterPropertiesSet();
+            // Los mapas copian la ejecución serializándola en cada escritura, y sin reinicio posible el
+            // progreso de un paso en curso no le sirve a nadie: solo se guardan los cambios de estado
+            return new CoalescingJobRepository(mapRepositoryFactory.getObject(), Integer.MAX_VALUE, Long.MAX_VALUE);
+        }
+        JobRepository jobRepository = super.createJobRepository();
+        if (JDBC.equals(mode)) {
+            return jobRepository;
+        }
+        log.info("Repositorio de jobs con el progreso de los pasos agrupado cada {} commits o {} ms",
+                flushEveryCommits, flushIntervalMillis);
+        CoalescingJobRepository coalescing = new CoalescingJobRepository(jobRepository, flushEveryCommits,
+                flushIntervalMillis);
+        coalescing.bindTo(Metrics.globalRegistry);
+        return coalescing;
+    }
+
+    @Override
+    protected JobExplorer createJobExplorer() throws Exception {
+        if (mapRepositoryFactory == null) {
+            return super.createJobExplorer();
+        }
+        // Tiene que leer los mismos mapas que escribe el repositorio
+        MapJobExplorerFactoryBean explorerFactory = new MapJobExplorerFactoryBean(mapRepositoryFactory);
+        explorerFactory.afterPropertiesSet();
+        return explorerFactory.getObject();
+    }
+}
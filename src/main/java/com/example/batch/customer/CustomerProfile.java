@@ -0,0 +1,69 @@
+package com.example.batch.customer;
+
+import com.example.batch.model.ScaledDecimals;
+
+import java.math.BigDecimal;
+
+/**
+ * Perfil de un cliente: nivel de riesgo, comisión propia y bloqueo. Es inmutable y se comparte entre
+ * hilos desde {@link CustomerProfileCache}. La comisión propia se guarda también sin escalar para el
+ * camino compacto del procesador.
+ */
+public final class CustomerProfile {
+
+    /** Perfil de los clientes que no están en el almacén: sin comisión propia y sin bloqueo. */
+    public static final CustomerProfile DEFAULT = new CustomerProfile(null, null, false);
+
+    private final String riskTier;
+    private final BigDecimal commissionRate;
+    private final boolean commissionCompact;
+    private final long commissionUnscaled;
+    private final int commissionScale;
+    private final boolean blocked;
+
+    public CustomerProfile(String riskTier, BigDecimal commissionRate, boolean blocked) {
+        this.riskTier = riskTier;
+        this.commissionRate = commissionRate;
+        this.commissionCompact = commissionRate != null && ScaledDecimals.fits(commissionRate);
+        this.commissionUnscaled = commissionCompact ? commissionRate.unscaledValue().longValue() : 0;
+        this.commissionScale = commissionRate == null ? 0 : commissionRate.scale();
+        this.blocked = blocked;
+    }
+
+    public String getRiskTier() {
+        return riskTier;
+    }
+
+    /**
+     * @return la comisión propia del cliente, o null si usa la general
+     */
+    public BigDecimal getCommissionRate() {
+        return commissionRate;
+    }
+
+    public boolean hasCommissionRate() {
+        return commissionRate != null;
+    }
+
+    public boolean isCommissionCompact() {
+        return commissionCompact;
+    }
+
+    public long getCommissionUnscaled() {
+        return commissionUnscaled;
+    }
+
+    public int getCommissionScale() {
+        return commissionScale;
+    }
+
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerProfile{riskTier=" + riskTier + ", commissionRate=" + commissionRate
+                + ", blocked=" + blocked + '}';
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.batch.customer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de {@link CustomerProfile} por email normalizado. Los clientes frecuentes de un
+ * archivo se resuelven sin ir al almacén; los que no están en él se guardan como
+ * {@link CustomerProfile#DEFAULT}, así que tampoco se vuelven a buscar.
+ *
+ * Está partida en {@value #SEGMENTS} segmentos LRU, cada uno un {@link LinkedHashMap} en orden de
+ * acceso con su propio lock, para que los hilos del procesador asíncrono o de las particiones no
+ * compitan por uno solo. La búsqueda en el almacén ocurre fuera del lock: dos hilos pueden cargar el
+ * mismo email a la vez y se queda el primero. Publica aciertos, fallos, desalojos y tamaño como
+ * métricas {@code payments.customer.cache.*}.
+ */
+public class CustomerProfileCache {
+
+    public static final String HITS_METRIC = "payments.customer.cache.hits";
+    public static final String MISSES_METRIC = "payments.customer.cache.misses";
+    public static final String EVICTIONS_METRIC = "payments.customer.cache.evictions";
+    public static final String SIZE_METRIC = "payments.customer.cache.size";
+
+    private static final int SEGMENTS = 16;
+
+    private final CustomerProfileStore store;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CustomerProfileCache(CustomerProfileStore store, int maximumSize) {
+        if (maximumSize < SEGMENTS) {
+            throw new IllegalArgumentException("Tamaño de caché de clientes inválido: " + maximumSize);
+        }
+        this.store = store;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maximumSize / SEGMENTS);
+        }
+    }
+
+    /**
+     * @return el perfil del cliente, o {@link CustomerProfile#DEFAULT} si el email es null o no está
+     * en el almacén
+     */
+    public CustomerProfile get(String email) {
+        if (email == null) {
+            return CustomerProfile.DEFAULT;
+        }
+        String key = normalize(email);
+        int hash = key.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        CustomerProfile profile = segment.find(key);
+        if (profile != null) {
+            hits.increment();
+            return profile;
+        }
+        misses.increment();
+        CustomerProfile loaded = store.find(key);
+        return segment.insert(key, loaded == null ? CustomerProfile.DEFAULT : loaded);
+    }
+
+    /**
+     * Sin espacios alrededor y en minúsculas. Un email que ya está normalizado se devuelve tal cual,
+     * sin crear otro String.
+     */
+    public static String normalize(String email) {
+        int length = email.length();
+        boolean normalized = length == 0
+                || (!Character.isWhitespace(email.charAt(0)) && !Character.isWhitespace(email.charAt(length - 1)));
+        for (int i = 0; normalized && i < length; i++) {
+            char c = email.charAt(i);
+            normalized = c < 0x80 ? (c < 'A' || c > 'Z') : Character.toLowerCase(c) == c;
+        }
+        return normalized ? email : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(HITS_METRIC, this, CustomerProfileCache::hitCount)
+                .description("Pagos cuyo cliente estaba en la caché de perfiles")
+                .register(registry);
+        FunctionCounter.builder(MISSES_METRIC, this, CustomerProfileCache::missCount)
+                .description("Pagos cuyo cliente se buscó en el almacén de perfiles")
+                .register(registry);
+        FunctionCounter.builder(EVICTIONS_METRIC, this, CustomerProfileCache::evictionCount)
+                .description("Perfiles desalojados de la caché por tamaño")
+                .register(registry);
+        Gauge.builder(SIZE_METRIC, this, CustomerProfileCache::size)
+                .description("Perfiles en la caché")
+                .register(registry);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerProfileCache{size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", evictions=" + evictionCount() + '}';
+    }
+
+    private final class Segment extends LinkedHashMap<String, CustomerProfile> {
+
+        private final int maximumSize;
+
+        private Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        private synchronized CustomerProfile find(String key) {
+            // En orden de acceso get() también mueve la entrada al final
+            return get(key);
+        }
+
+        private synchronized CustomerProfile insert(String key, CustomerProfile profile) {
+            CustomerProfile current = super.putIfAbsent(key, profile);
+            return current != null ? current : profile;
+        }
+
+        private synchronized int count() {
+            return size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CustomerProfile> eldest) {
+            if (size() <= maximumSize) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.batch.customer;
+
+/**
+ * Origen de los perfiles de cliente. Se consulta solo cuando el email no está en
+ * {@link CustomerProfileCache}, y puede hacerse desde varios hilos a la vez.
+ */
+public interface CustomerProfileStore {
+
+    /**
+     * @param email email normalizado (ver {@link CustomerProfileCache#normalize})
+     * @return el perfil, o null si el cliente no está en el almacén
+     */
+    CustomerProfile find(String email);
+}
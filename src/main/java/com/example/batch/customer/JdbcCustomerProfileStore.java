@@ -0,0 +1,29 @@
+package com.example.batch.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Lee los perfiles de una tabla con columnas {@code EMAIL}, {@code RISK_TIER},
+ * {@code COMMISSION_RATE} y {@code BLOCKED}, con el email ya normalizado (ver
+ * {@code customer/schema-customer-profiles.sql}).
+ */
+public class JdbcCustomerProfileStore implements CustomerProfileStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+
+    public JdbcCustomerProfileStore(JdbcTemplate jdbcTemplate, String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sql = "SELECT RISK_TIER, COMMISSION_RATE, BLOCKED FROM " + tableName + " WHERE EMAIL = ?";
+    }
+
+    @Override
+    public CustomerProfile find(String email) {
+        List<CustomerProfile> profiles = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new CustomerProfile(rs.getString(1), rs.getBigDecimal(2), rs.getBoolean(3)),
+                email);
+        return profiles.isEmpty() ? null : profiles.get(0);
+    }
+}
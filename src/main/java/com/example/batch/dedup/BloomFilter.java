@@ -0,0 +1,72 @@
+package com.example.batch.dedup;
+
+/**
+ * Filtro de Bloom sobre claves de 64 bits ya mezcladas (ver {@link DuplicatePaymentDetector}). Las
+ * {@code k} posiciones de cada clave salen de sus dos mitades con doble hashing, sin volver a
+ * calcular hashes. Con la tasa de falsos positivos por defecto (1 %) ocupa unos 10 bits por clave:
+ * 100 millones de claves entran en 120 MB.
+ *
+ * No es seguro para varios hilos; quien lo usa serializa los accesos.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new long[(int) ((bits + Long.SIZE - 1) / Long.SIZE)];
+        this.bits = (long) words.length * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Tamaño óptimo para {@code expectedKeys} claves con la tasa de falsos positivos pedida.
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("Cantidad de claves esperadas inválida: " + expectedKeys);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Tasa de falsos positivos inválida: " + falsePositiveRate);
+        }
+        double bitsPerKey = -Math.log(falsePositiveRate) / (LN2 * LN2);
+        long bits = (long) Math.ceil(expectedKeys * bitsPerKey);
+        if (bits > (long) Integer.MAX_VALUE * Long.SIZE) {
+            throw new IllegalArgumentException("Filtro demasiado grande: " + bits + " bits");
+        }
+        int hashes = Math.max(1, (int) Math.round(bitsPerKey * LN2));
+        return new BloomFilter(Math.max(bits, Long.SIZE), hashes);
+    }
+
+    public boolean mightContain(long key) {
+        long h1 = (int) key;
+        long h2 = key >>> 32;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(long key) {
+        long h1 = (int) key;
+        long h2 = key >>> 32;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+}
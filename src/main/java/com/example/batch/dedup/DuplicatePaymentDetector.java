@@ -0,0 +1,245 @@
+package com.example.batch.dedup;
+
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Detecta pagos reenviados: con el mismo id que uno anterior del paso, o con otro id pero el mismo
+ * email, importe, moneda y fecha. Cada pago aporta dos claves de 64 bits, la de id (una biyección del
+ * id, así que es exacta) y la de contenido (un hash de esos cuatro campos, con el importe sin ceros
+ * finales).
+ *
+ * Las claves pasan primero por un {@link BloomFilter} en el heap, de unos 10 bits por clave. Solo
+ * cuando el filtro dice "quizás" se confirma contra el {@link OffHeapLongSet}, que tiene todas las
+ * claves fuera del heap, así que los falsos positivos del filtro nunca rechazan un pago. Por pago con
+ * id son dos claves: unos 2,5 bytes de filtro en el heap, entre 23 y 34 bytes de páginas del conjunto
+ * y 16 bytes de diario en disco.
+ *
+ * Solo el heap queda en unos pocos bytes por pago; el total no. Cumplir ese presupuesto exigiría
+ * rechazar por el filtro solo, y su 1 % de falsos positivos rechazaría un millón de pagos legítimos
+ * cada 100 millones, o confirmar cada acierto contra el diario, que no tiene índice y habría que
+ * recorrer entero. El conjunto exacto vive en páginas de un archivo mapeado, que el sistema puede
+ * bajar a disco, en lugar del heap.
+ *
+ * El filtro no se guarda en el ExecutionContext: a 100 millones de pagos serían cientos de MB por
+ * commit. Cada clave nueva se agrega a un diario en disco y en cada commit el ExecutionContext guarda
+ * cuántas claves tiene el diario. Al reiniciar, el diario se trunca a esa cantidad y el filtro y el
+ * conjunto se reconstruyen leyéndolo, con exactamente las claves de los chunks confirmados.
+ */
+@Slf4j
+public class DuplicatePaymentDetector extends ItemStreamSupport {
+
+    /** Clave, sin el prefijo del nombre, de la cantidad de claves confirmadas en el diario. */
+    public static final String KEYS_KEY = "keys";
+
+    private static final long ID_SEED = 0x1d8e4e27c47d124fL;
+    private static final long CONTENT_SEED = 0x6a09e667f3bcc909L;
+    private static final int JOURNAL_BUFFER_BYTES = 64 * 1024;
+
+    private final Path journalFile;
+    private final long expectedPayments;
+    private final double falsePositiveRate;
+    private final ByteBuffer journalBuffer = ByteBuffer.allocateDirect(JOURNAL_BUFFER_BYTES);
+
+    private BloomFilter filter;
+    private OffHeapLongSet keys;
+    private FileChannel journal;
+    private long journaledKeys;
+    private long filterHits;
+    private long duplicates;
+
+    public DuplicatePaymentDetector(Path journalFile, long expectedPayments, double falsePositiveRate) {
+        this.journalFile = journalFile;
+        this.expectedPayments = expectedPayments;
+        this.falsePositiveRate = falsePositiveRate;
+        setName(DuplicatePaymentDetector.class.getSimpleName());
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) {
+        String countKey = getExecutionContextKey(KEYS_KEY);
+        long committed = executionContext.containsKey(countKey) ? executionContext.getLong(countKey) : 0;
+        filter = BloomFilter.create(expectedPayments * 2, falsePositiveRate);
+        // El conjunto parte de las claves a restaurar y crece con las que se guardan, no con las esperadas
+        keys = OffHeapLongSet.create(journalFile.toAbsolutePath().getParent(), committed);
+        journalBuffer.clear();
+        journaledKeys = 0;
+        filterHits = 0;
+        duplicates = 0;
+        try {
+            Files.createDirectories(journalFile.toAbsolutePath().getParent());
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (journal.size() < committed * Long.BYTES) {
+                throw new ItemStreamException("El diario de deduplicación " + journalFile + " tiene menos de las "
+                        + committed + " claves confirmadas");
+            }
+            // Lo que quedó después del último commit es de chunks que se van a volver a procesar
+            journal.truncate(committed * Long.BYTES);
+            replay(committed);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el diario de deduplicación " + journalFile, e);
+        }
+        log.info("Deduplicación de pagos: filtro de {} bits y {} funciones de hash, {} claves restauradas",
+                filter.bitSize(), filter.hashCount(), journaledKeys);
+    }
+
+    /**
+     * Registra las claves de un pago nuevo.
+     *
+     * @return el motivo si el pago repite el id o el contenido de uno anterior, o null si es nuevo
+     */
+    public synchronized RejectReason check(Payment payment) {
+        long idKey = payment.hasId() ? idKey(payment.getIdValue()) : 0;
+        long contentKey = contentKey(payment);
+        RejectReason duplicate = payment.hasId() && seen(idKey) ? RejectReason.DUPLICATE_ID
+                : seen(contentKey) ? RejectReason.DUPLICATE_PAYMENT
+                : null;
+        if (duplicate != null) {
+            duplicates++;
+            return duplicate;
+        }
+        if (payment.hasId()) {
+            record(idKey);
+        }
+        record(contentKey);
+        return null;
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) {
+        flushJournal();
+        executionContext.putLong(getExecutionContextKey(KEYS_KEY), journaledKeys);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (journal == null) {
+            return;
+        }
+        log.info("Deduplicación de pagos: {} claves, {} aciertos del filtro, {} duplicados",
+                journaledKeys, filterHits, duplicates);
+        try {
+            journal.close();
+            keys.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar la deduplicación de pagos", e);
+        } finally {
+            journal = null;
+            keys = null;
+            filter = null;
+        }
+    }
+
+    private boolean seen(long key) {
+        if (!filter.mightContain(key)) {
+            return false;
+        }
+        filterHits++;
+        return keys.contains(key);
+    }
+
+    private void record(long key) {
+        if (!keys.add(key)) {
+            return;
+        }
+        filter.put(key);
+        if (!journalBuffer.hasRemaining()) {
+            flushJournal();
+        }
+        journalBuffer.putLong(key);
+        journaledKeys++;
+    }
+
+    private void flushJournal() {
+        journalBuffer.flip();
+        try {
+            while (journalBuffer.hasRemaining()) {
+                journal.write(journalBuffer);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo escribir el diario de deduplicación " + journalFile, e);
+        }
+        journalBuffer.clear();
+    }
+
+    private void replay(long count) throws IOException {
+        journal.position(0);
+        journalBuffer.clear();
+        long remaining = count;
+        while (remaining > 0) {
+            if (journal.read(journalBuffer) < 0) {
+                throw new ItemStreamException("Fin inesperado del diario de deduplicación " + journalFile);
+            }
+            journalBuffer.flip();
+            while (journalBuffer.remaining() >= Long.BYTES && remaining > 0) {
+                long key = journalBuffer.getLong();
+                keys.add(key);
+                filter.put(key);
+                journaledKeys++;
+                remaining--;
+            }
+            journalBuffer.compact();
+        }
+        journalBuffer.clear();
+        journal.position(count * Long.BYTES);
+    }
+
+    static long idKey(long id) {
+        return mix(id ^ ID_SEED);
+    }
+
+    static long contentKey(Payment payment) {
+        long hash = CONTENT_SEED;
+        hash = combine(hash, payment.getCustomerEmail());
+        if (payment.isAmountCompact()) {
+            // 100.5 y 100.50 son el mismo importe
+            long unscaled = payment.getAmountUnscaled();
+            int scale = payment.getAmountScale();
+            while (scale > 0 && unscaled % 10 == 0) {
+                unscaled /= 10;
+                scale--;
+            }
+            hash = combine(combine(hash, unscaled), scale);
+        } else {
+            BigDecimal amount = payment.getAmount();
+            hash = combine(hash, amount == null ? null : amount.stripTrailingZeros().toPlainString());
+        }
+        hash = combine(hash, payment.getCurrency());
+        hash = combine(combine(hash, payment.getPaymentEpochSecond()), payment.getPaymentDateNano());
+        return mix(hash);
+    }
+
+    private static long combine(long hash, String value) {
+        if (value == null) {
+            return combine(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = combine(hash, value.charAt(i));
+        }
+        return combine(hash, value.length());
+    }
+
+    private static long combine(long hash, long value) {
+        return (hash ^ value) * 0x9e3779b97f4a7c15L + 0x632be59bd9b4e019L;
+    }
+
+    /** Finalizador de SplitMix64: biyectivo, así que la clave de id no tiene colisiones. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.batch.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Conjunto exacto de longs fuera del heap: una tabla de direccionamiento abierto con sondeo lineal
+ * sobre un archivo temporal mapeado en memoria, así que ocupa páginas del sistema operativo y no
+ * heap, y el sistema puede bajarlas a disco. Cada mapeo cubre a lo sumo {@code 2^27} posiciones
+ * (1 GB).
+ *
+ * La tabla se dimensiona por las claves guardadas, no por las esperadas: como las claves caen en
+ * cualquier página, una tabla grande se termina ocupando entera aunque tenga pocas. Al pasar el
+ * {@value #MAX_LOAD_PERCENT} % de ocupación crece a 1,5 veces en un archivo nuevo, así que cada clave
+ * cuesta entre 11,4 y 17 bytes de páginas.
+ *
+ * Las claves tienen que llegar ya mezcladas: la posición inicial sale de sus 32 bits altos. El 0 marca
+ * una posición libre y se guarda aparte. No es seguro para varios hilos.
+ */
+@Slf4j
+public class OffHeapLongSet implements AutoCloseable {
+
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long MIN_CAPACITY = 1 << 10;
+    private static final long MAX_CAPACITY = 1L << 32;
+    private static final int MAX_LOAD_PERCENT = 70;
+
+    private final Path directory;
+    private Path file;
+    private FileChannel channel;
+    private LongBuffer[] segments;
+    private long capacity;
+    private long maxSize;
+    private long size;
+    private boolean containsZero;
+
+    private OffHeapLongSet(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param initialKeys claves que se van a agregar de entrada, por ejemplo las de un diario a restaurar
+     */
+    public static OffHeapLongSet create(Path directory, long initialKeys) {
+        OffHeapLongSet set = new OffHeapLongSet(directory);
+        set.allocate(Math.max(MIN_CAPACITY, initialKeys * 100 / MAX_LOAD_PERCENT + 1));
+        return set;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        for (long slot = slot(key); ; slot = next(slot)) {
+            long current = get(slot);
+            if (current == key) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return true si la clave no estaba
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if (!insert(key)) {
+            return false;
+        }
+        if (++size > maxSize) {
+            grow();
+        }
+        return true;
+    }
+
+    public long size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            release(channel, file);
+            channel = null;
+            segments = null;
+        }
+    }
+
+    private boolean insert(long key) {
+        for (long slot = slot(key); ; slot = next(slot)) {
+            long current = get(slot);
+            if (current == key) {
+                return false;
+            }
+            if (current == 0) {
+                segments[(int) (slot >>> SEGMENT_SHIFT)].put((int) (slot & ((1 << SEGMENT_SHIFT) - 1)), key);
+                return true;
+            }
+        }
+    }
+
+    /** Lleva los 32 bits altos de la clave a [0, capacity) con una multiplicación, sin división. */
+    private long slot(long key) {
+        return ((key >>> 32) * capacity) >>> 32;
+    }
+
+    private long next(long slot) {
+        return slot + 1 == capacity ? 0 : slot + 1;
+    }
+
+    private long get(long slot) {
+        return segments[(int) (slot >>> SEGMENT_SHIFT)].get((int) (slot & ((1 << SEGMENT_SHIFT) - 1)));
+    }
+
+    private void grow() {
+        LongBuffer[] oldSegments = segments;
+        FileChannel oldChannel = channel;
+        Path oldFile = file;
+        allocate(Math.min(MAX_CAPACITY, capacity + capacity / 2));
+        for (LongBuffer segment : oldSegments) {
+            for (int i = 0; i < segment.capacity(); i++) {
+                long key = segment.get(i);
+                if (key != 0) {
+                    insert(key);
+                }
+            }
+        }
+        log.info("Conjunto de claves de deduplicación agrandado a {} posiciones", capacity);
+        try {
+            release(oldChannel, oldFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo liberar " + oldFile, e);
+        }
+    }
+
+    private void allocate(long capacity) {
+        if (capacity > MAX_CAPACITY || capacity * MAX_LOAD_PERCENT / 100 <= size) {
+            throw new IllegalStateException("El conjunto de claves de deduplicación no admite más de "
+                    + MAX_CAPACITY * MAX_LOAD_PERCENT / 100 + " claves");
+        }
+        long segmentSlots = 1L << SEGMENT_SHIFT;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "dedup-", ".set");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments = new LongBuffer[(int) ((capacity + segmentSlots - 1) / segmentSlots)];
+            for (int i = 0; i < segments.length; i++) {
+                // El archivo crece disperso: solo ocupan disco y memoria las páginas que se tocan
+                long slots = Math.min(segmentSlots, capacity - i * segmentSlots);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentSlots * Long.BYTES,
+                        slots * Long.BYTES).asLongBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el conjunto de claves en " + directory, e);
+        }
+        this.capacity = capacity;
+        this.maxSize = capacity * MAX_LOAD_PERCENT / 100;
+    }
+
+    private static void release(FileChannel channel, Path file) throws IOException {
+        // El mapeo se libera con el GC; el archivo se borra ya
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
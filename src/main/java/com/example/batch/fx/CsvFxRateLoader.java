@@ -0,0 +1,52 @@
+package com.example.batch.fx;
+
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee las tasas de un archivo {@code currency,effectiveDate,rateToUsd} con encabezado. Las líneas
+ * vacías y las que empiezan con {@code #} se ignoran.
+ */
+public class CsvFxRateLoader implements FxRateLoader {
+
+    private final Resource resource;
+
+    public CsvFxRateLoader(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public FxRateTable load() throws Exception {
+        List<FxRate> rates = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            int lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split(",");
+                if (fields.length != 3) {
+                    throw new IllegalStateException("Línea " + lineNumber + " inválida en " + resource + ": " + line);
+                }
+                rates.add(new FxRate(fields[0].trim(), LocalDate.parse(fields[1].trim()), new BigDecimal(fields[2].trim())));
+            }
+        }
+        return FxRateTable.of(rates);
+    }
+
+    @Override
+    public String toString() {
+        return resource.getDescription();
+    }
+}
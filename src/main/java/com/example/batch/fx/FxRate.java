@@ -0,0 +1,37 @@
+package com.example.batch.fx;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tipo de cambio de una moneda a USD vigente desde {@code effectiveDate}.
+ */
+public final class FxRate {
+
+    private final String currency;
+    private final LocalDate effectiveDate;
+    private final BigDecimal rateToUsd;
+
+    public FxRate(String currency, LocalDate effectiveDate, BigDecimal rateToUsd) {
+        this.currency = currency;
+        this.effectiveDate = effectiveDate;
+        this.rateToUsd = rateToUsd;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public BigDecimal getRateToUsd() {
+        return rateToUsd;
+    }
+
+    @Override
+    public String toString() {
+        return currency + "@" + effectiveDate + "=" + rateToUsd;
+    }
+}
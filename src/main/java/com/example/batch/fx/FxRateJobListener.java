@@ -0,0 +1,53 @@
+package com.example.batch.fx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Carga la tabla de tipos de cambio una vez al inicio del job y registra su versión en el
+ * ExecutionContext del job. Al reiniciar una ejecución fallida, la versión guardada debe coincidir
+ * con la de las tasas actuales; si no, el job falla en lugar de mezclar conversiones con tasas
+ * distintas.
+ */
+@Slf4j
+public class FxRateJobListener implements JobExecutionListener {
+
+    public static final String VERSION_KEY = "fx.rates.version";
+
+    private final FxRateLoader loader;
+    private volatile FxRateTable rateTable;
+
+    public FxRateJobListener(FxRateLoader loader) {
+        this.loader = loader;
+    }
+
+    public FxRateTable getRateTable() {
+        return rateTable;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        FxRateTable table;
+        try {
+            table = loader.load();
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo cargar la tabla de tipos de cambio desde " + loader, e);
+        }
+
+        ExecutionContext context = jobExecution.getExecutionContext();
+        String previousVersion = context.getString(VERSION_KEY, null);
+        if (previousVersion != null && !previousVersion.equals(table.getVersion())) {
+            throw new IllegalStateException("La versión de tipos de cambio cambió desde la ejecución anterior: "
+                    + previousVersion + " -> " + table.getVersion());
+        }
+        context.putString(VERSION_KEY, table.getVersion());
+        rateTable = table;
+        log.info("Tipos de cambio cargados desde {}: {} tasas, versión {}", loader, table.size(), table.getVersion());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+    }
+}
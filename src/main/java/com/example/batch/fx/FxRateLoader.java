@@ -0,0 +1,9 @@
+package com.example.batch.fx;
+
+/**
+ * Origen de la tabla de tipos de cambio. Se invoca una vez al inicio de cada job.
+ */
+public interface FxRateLoader {
+
+    FxRateTable load() throws Exception;
+}
@@ -0,0 +1,10 @@
+package com.example.batch.fx;
+
+import java.time.LocalDate;
+
+public class FxRateNotFoundException extends RuntimeException {
+
+    public FxRateNotFoundException(String currency, LocalDate date) {
+        super("No hay tipo de cambio para " + currency + " vigente al " + date);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.batch.fx;
+
+import com.example.batch.model.ScaledDecimals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Instantánea inmutable de tipos de cambio a USD por moneda y fecha de vigencia. Se construye una
+ * vez por job y luego solo se lee: cada consulta es un acceso a un mapa que no cambia y una
+ * búsqueda binaria sobre arreglos, sin E/S ni bloqueos.
+ *
+ * La versión es un hash del contenido normalizado, por lo que el mismo conjunto de tasas da la
+ * misma versión sin importar si vino de un archivo o de la base de datos.
+ */
+public final class FxRateTable {
+
+    public static final String BASE_CURRENCY = "USD";
+    public static final int USD_SCALE = 2;
+    private static final int VERSION_LENGTH = 16;
+
+    private final Map<String, CurrencyRates> ratesByCurrency;
+    private final String version;
+
+    private FxRateTable(Map<String, CurrencyRates> ratesByCurrency, String version) {
+        this.ratesByCurrency = ratesByCurrency;
+        this.version = version;
+    }
+
+    public static FxRateTable of(List<FxRate> rates) {
+        Map<String, TreeMap<LocalDate, BigDecimal>> grouped = new TreeMap<>();
+        for (FxRate rate : rates) {
+            if (rate.getRateToUsd().signum() <= 0) {
+                throw new IllegalArgumentException("Tipo de cambio inválido: " + rate);
+            }
+            BigDecimal previous = grouped.computeIfAbsent(rate.getCurrency(), currency -> new TreeMap<>())
+                    .put(rate.getEffectiveDate(), rate.getRateToUsd());
+            if (previous != null) {
+                throw new IllegalArgumentException("Tipo de cambio duplicado: " + rate);
+            }
+        }
+
+        Map<String, CurrencyRates> ratesByCurrency = new HashMap<>();
+        StringBuilder canonical = new StringBuilder();
+        grouped.forEach((currency, byDate) -> {
+            ratesByCurrency.put(currency, new CurrencyRates(byDate));
+            byDate.forEach((date, rate) -> canonical.append(currency).append('|').append(date).append('|')
+                    .append(rate.stripTrailingZeros().toPlainString()).append('\n'));
+        });
+        return new FxRateTable(Map.copyOf(ratesByCurrency), sha256(canonical.toString()));
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return ratesByCurrency.values().stream().mapToInt(rates -> rates.effectiveDays.length).sum();
+    }
+
+    /**
+     * Tasa vigente para la moneda en la fecha dada: la de mayor fecha de vigencia que no sea
+     * posterior a {@code date}, o null si no hay ninguna.
+     */
+    public BigDecimal rateToUsd(String currency, LocalDate date) {
+        CurrencyRates rates = ratesByCurrency.get(currency);
+        return rates == null ? null : rates.rateAt(date.toEpochDay());
+    }
+
+    /**
+     * Convierte el monto a USD con 2 decimales (HALF_UP). Los montos en USD se devuelven sin cambios.
+     *
+     * @throws FxRateNotFoundException si no hay tasa vigente para la moneda y fecha
+     */
+    public BigDecimal convertToUsd(BigDecimal amount, String currency, LocalDate date) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return amount;
+        }
+        BigDecimal rate = rateToUsd(currency, date);
+        if (rate == null) {
+            throw new FxRateNotFoundException(currency, date);
+        }
+        return amount.multiply(rate).setScale(USD_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Lo mismo para un monto guardado como valor sin escalar y escala, en una moneda distinta de USD:
+     * devuelve el valor sin escalar del resultado, que tiene {@link #USD_SCALE} decimales.
+     *
+     * @throws FxRateNotFoundException si no hay tasa vigente para la moneda y fecha
+     * @throws ArithmeticException si la tasa o el resultado no caben en un long
+     */
+    public long convertToUsd(long unscaledAmount, int scale, String currency, long epochDay) {
+        CurrencyRates rates = ratesByCurrency.get(currency);
+        int found = rates == null ? -1 : rates.indexAt(epochDay);
+        if (found < 0) {
+            throw new FxRateNotFoundException(currency, LocalDate.ofEpochDay(epochDay));
+        }
+        if (rates.unscaledScales[found] < 0) {
+            throw new ArithmeticException("La tasa " + rates.rates[found] + " no cabe en un long");
+        }
+        return ScaledDecimals.multiply(unscaledAmount, scale, rates.unscaledRates[found],
+                rates.unscaledScales[found], USD_SCALE);
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(VERSION_LENGTH);
+            for (int i = 0; i < VERSION_LENGTH / 2; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static final class CurrencyRates {
+
+        private final long[] effectiveDays;
+        private final BigDecimal[] rates;
+        private final long[] unscaledRates;
+        private final int[] unscaledScales;
+
+        private CurrencyRates(TreeMap<LocalDate, BigDecimal> byDate) {
+            effectiveDays = new long[byDate.size()];
+            rates = new BigDecimal[byDate.size()];
+            unscaledRates = new long[byDate.size()];
+            unscaledScales = new int[byDate.size()];
+            int i = 0;
+            for (Map.Entry<LocalDate, BigDecimal> entry : byDate.entrySet()) {
+                effectiveDays[i] = entry.getKey().toEpochDay();
+                rates[i] = entry.getValue();
+                boolean fits = ScaledDecimals.fits(rates[i]);
+                unscaledRates[i] = fits ? rates[i].unscaledValue().longValue() : 0;
+                unscaledScales[i] = fits ? rates[i].scale() : -1;
+                i++;
+            }
+        }
+
+        private BigDecimal rateAt(long epochDay) {
+            int found = indexAt(epochDay);
+            return found < 0 ? null : rates[found];
+        }
+
+        private int indexAt(long epochDay) {
+            int low = 0;
+            int high = effectiveDays.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (effectiveDays[mid] <= epochDay) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
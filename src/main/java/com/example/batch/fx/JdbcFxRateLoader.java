@@ -0,0 +1,33 @@
+package com.example.batch.fx;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Lee las tasas de una tabla con columnas {@code CURRENCY}, {@code EFFECTIVE_DATE} y
+ * {@code RATE_TO_USD}.
+ */
+public class JdbcFxRateLoader implements FxRateLoader {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tableName;
+
+    public JdbcFxRateLoader(JdbcTemplate jdbcTemplate, String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public FxRateTable load() {
+        List<FxRate> rates = jdbcTemplate.query(
+                "SELECT CURRENCY, EFFECTIVE_DATE, RATE_TO_USD FROM " + tableName,
+                (rs, rowNum) -> new FxRate(rs.getString(1).trim(), rs.getDate(2).toLocalDate(), rs.getBigDecimal(3)));
+        return FxRateTable.of(rates);
+    }
+
+    @Override
+    public String toString() {
+        return "tabla " + tableName;
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.batch.incremental;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Índice persistente de los {@code Payment.id} ya procesados, comprimido por bloques de 65536 ids al
+ * estilo de los bitmaps "roaring": cada bloque con ids guarda sus 16 bits bajos en un arreglo ordenado
+ * (2 bytes por id) mientras tiene hasta {@value #ARRAY_MAX_SIZE}, y a partir de ahí en un bitmap de
+ * 8 KB. Los ids densos del archivo diario cuestan un bit cada uno (100 millones, unos 12,5 MB) y los
+ * dispersos o muy grandes solo lo que ocupan; admite cualquier long, así que ningún id queda fuera.
+ *
+ * El índice completo se guarda en {@code file} con {@link #force}, que lo escribe en un temporal y lo
+ * reemplaza. Entre un guardado y otro, los ids agregados se anotan en el diario {@code file.journal},
+ * que al abrir se vuelve a aplicar: un corte a mitad del paso no pierde los ids ya confirmados.
+ *
+ * Las consultas no toman ningún lock: leen una vista inmutable ({@link Snapshot}) que cada alta publica
+ * al terminar por un campo volatile. Las altas llegan en {@code afterChunk}, cuando los hilos del
+ * chunk ya terminaron, y copian solo los bloques que modifican, así que una consulta nunca ve un bloque
+ * a medio cambiar. Una consulta es una búsqueda binaria entre los bloques y después un bit del bitmap
+ * o una búsqueda binaria de a lo sumo 12 pasos en el arreglo, sin objetos.
+ */
+@Slf4j
+public class ProcessedPaymentIndex implements AutoCloseable {
+
+    private static final int MAGIC = 0x50504931;
+    private static final int ARRAY_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+
+    private final Path file;
+    private final FileChannel journal;
+    private final ByteBuffer journalBuffer = ByteBuffer.allocate(8192);
+
+    /** Estado de trabajo de las altas, solo con el lock; comparte con la vista los bloques que no cambian. */
+    private long[] keys = new long[16];
+    private Container[] containers = new Container[16];
+    private int size;
+    /** Los bloques de otra generación ya están en la vista publicada y se copian antes de cambiarlos. */
+    private int generation;
+    private boolean dirty;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new Container[0]);
+
+    private ProcessedPaymentIndex(Path file, FileChannel journal) {
+        this.file = file;
+        this.journal = journal;
+    }
+
+    public static ProcessedPaymentIndex open(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            FileChannel journal = FileChannel.open(journalFile(file), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                ProcessedPaymentIndex index = new ProcessedPaymentIndex(file, journal);
+                if (Files.exists(file)) {
+                    index.load();
+                }
+                long replayed = index.replayJournal();
+                index.publish();
+                if (replayed > 0) {
+                    log.info("Índice de pagos procesados {}: {} ids recuperados del diario", file, replayed);
+                    index.force();
+                }
+                log.info("Índice de pagos procesados {} abierto: {} ids en {} bloques", file, index.cardinality(),
+                        index.size);
+                return index;
+            } catch (IOException | RuntimeException e) {
+                journal.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el índice " + file, e);
+        }
+    }
+
+    public boolean contains(long id) {
+        Snapshot current = snapshot;
+        int i = Arrays.binarySearch(current.keys, id >> 16);
+        return i >= 0 && current.containers[i].contains((char) id);
+    }
+
+    public synchronized void add(long id) {
+        addAll(new long[]{id}, 1);
+    }
+
+    public synchronized void addAll(long[] ids, int count) {
+        if (count == 0) {
+            return;
+        }
+        try {
+            for (int i = 0; i < count; i++) {
+                if (!journalBuffer.hasRemaining()) {
+                    writeJournalBuffer();
+                }
+                journalBuffer.putLong(ids[i]);
+            }
+            writeJournalBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el diario del índice " + file, e);
+        }
+        for (int i = 0; i < count; i++) {
+            insert(ids[i]);
+        }
+        dirty = true;
+        publish();
+    }
+
+    /**
+     * Guarda el índice completo, si cambió, y vacía el diario.
+     */
+    public synchronized void force() {
+        if (!dirty) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Channels.newOutputStream(channel), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(keys[i]);
+                    containers[i].write(out);
+                }
+                out.flush();
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Si el proceso se corta antes de vaciarlo, volver a aplicar el diario no cambia nada
+            journal.truncate(0);
+            journal.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el índice " + file, e);
+        }
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (Container container : snapshot.containers) {
+            cardinality += container.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal.isOpen()) {
+            force();
+            journal.close();
+        }
+    }
+
+    private static Path journalFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("El archivo " + file + " no es un índice de pagos procesados");
+            }
+            int count = in.readInt();
+            keys = new long[Math.max(count, 16)];
+            containers = new Container[keys.length];
+            for (int i = 0; i < count; i++) {
+                keys[i] = in.readLong();
+                containers[i] = in.readByte() == BITMAP ? BitmapContainer.read(in) : ArrayContainer.read(in);
+            }
+            size = count;
+        }
+    }
+
+    private long replayJournal() throws IOException {
+        // Un long a medio escribir al final es de un chunk que no llegó a confirmarse
+        long length = journal.size() / Long.BYTES * Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long replayed = 0;
+        journal.position(0);
+        while (replayed * Long.BYTES < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), length - replayed * Long.BYTES));
+            while (buffer.hasRemaining()) {
+                if (journal.read(buffer) < 0) {
+                    throw new IOException("El diario del índice " + file + " terminó antes de lo esperado");
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                insert(buffer.getLong());
+                replayed++;
+            }
+        }
+        journal.truncate(length);
+        journal.position(length);
+        dirty = replayed > 0;
+        return replayed;
+    }
+
+    /**
+     * Publica el estado de trabajo como la vista que leen las consultas. Desde acá sus bloques son de
+     * la vista y la próxima alta que los toque trabaja sobre una copia.
+     */
+    private void publish() {
+        snapshot = new Snapshot(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size));
+        generation++;
+    }
+
+    private void writeJournalBuffer() throws IOException {
+        journalBuffer.flip();
+        while (journalBuffer.hasRemaining()) {
+            journal.write(journalBuffer);
+        }
+        journalBuffer.clear();
+    }
+
+    private void insert(long id) {
+        long key = id >> 16;
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = -i - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(containers, i, containers, i + 1, size - i);
+            keys[i] = key;
+            containers[i] = new ArrayContainer();
+            containers[i].generation = generation;
+            size++;
+        }
+        Container container = containers[i];
+        if (container.generation != generation) {
+            container = container.copy();
+            container.generation = generation;
+        }
+        container = container.add((char) id);
+        container.generation = generation;
+        containers[i] = container;
+    }
+
+    /**
+     * Bloques del índice tal como quedaron en la última alta; no cambia después de publicarse.
+     */
+    private static final class Snapshot {
+
+        private final long[] keys;
+        private final Container[] containers;
+
+        private Snapshot(long[] keys, Container[] containers) {
+            this.keys = keys;
+            this.containers = containers;
+        }
+    }
+
+    private abstract static class Container {
+
+        int generation;
+
+        abstract boolean contains(char low);
+
+        abstract Container copy();
+
+        /** Devuelve el bloque con el id agregado, que puede ser otro si cambió de representación. */
+        abstract Container add(char low);
+
+        abstract int cardinality();
+
+        abstract void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, values.length);
+            copy.size = size;
+            return copy;
+        }
+
+        @Override
+        Container add(char low) {
+            int i = Arrays.binarySearch(values, 0, size, low);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX_SIZE) {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int j = 0; j < size; j++) {
+                    bitmap.add(values[j]);
+                }
+                return bitmap.add(low);
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX_SIZE));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(ARRAY);
+            out.writeShort(size);
+            for (int i = 0; i < size; i++) {
+                out.writeChar(values[i]);
+            }
+        }
+
+        static ArrayContainer read(DataInputStream in) throws IOException {
+            ArrayContainer container = new ArrayContainer();
+            container.size = in.readUnsignedShort();
+            container.values = new char[Math.max(container.size, 4)];
+            for (int i = 0; i < container.size; i++) {
+                container.values[i] = in.readChar();
+            }
+            return container;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITMAP_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(BITMAP);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+
+        static BitmapContainer read(DataInputStream in) throws IOException {
+            BitmapContainer container = new BitmapContainer();
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                container.words[i] = in.readLong();
+                container.cardinality += Long.bitCount(container.words[i]);
+            }
+            return container;
+        }
+    }
+}
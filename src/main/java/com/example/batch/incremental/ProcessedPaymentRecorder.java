@@ -0,0 +1,111 @@
+package com.example.batch.incremental;
+
+import com.example.batch.model.Payment;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Agrega al {@link ProcessedPaymentIndex} los ids de los pagos escritos como procesados, recién
+ * después del commit del chunk: si el chunk falla, sus pagos siguen pendientes para la próxima
+ * ejecución. Los rechazados no se registran, así que un pago corregido y reenviado con el mismo id
+ * se procesa; mientras siga sin corregir, cada ejecución lo vuelve a rechazar. Los ids del chunk en
+ * curso se guardan por hilo, ya que cada ejecución de paso corre en uno solo, y el índice se guarda
+ * completo al terminar el paso.
+ */
+public class ProcessedPaymentRecorder implements StepExecutionListener, ItemWriteListener<Object>, ChunkListener {
+
+    private final ProcessedPaymentIndex index;
+    private final ThreadLocal<PendingIds> pending = ThreadLocal.withInitial(PendingIds::new);
+
+    public ProcessedPaymentRecorder(ProcessedPaymentIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        pending.get().clear();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        pending.remove();
+        index.force();
+        return null;
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        PendingIds ids = pending.get();
+        for (Object item : items) {
+            Payment payment = resolve(item);
+            if (payment != null && payment.hasId() && "PROCESSED".equals(payment.getStatus())) {
+                ids.add(payment.getIdValue());
+            }
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        PendingIds ids = pending.get();
+        index.addAll(ids.ids, ids.size);
+        ids.clear();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        pending.get().clear();
+    }
+
+    private static Payment resolve(Object item) {
+        // En modo asíncrono el escritor ya esperó cada Future, así que get() no bloquea
+        if (item instanceof Future) {
+            try {
+                item = ((Future<?>) item).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+        return item instanceof Payment ? (Payment) item : null;
+    }
+
+    private static final class PendingIds {
+
+        private long[] ids = new long[256];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+}
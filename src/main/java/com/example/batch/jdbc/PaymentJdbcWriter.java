@@ -0,0 +1,119 @@
+package com.example.batch.jdbc;
+
+import com.example.batch.model.Payment;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Guarda los pagos procesados en una tabla con las columnas de {@code jdbc/schema-processed-payments.sql}.
+ * Cada chunk se envía en sentencias {@code INSERT ... VALUES (...), (...) ON DUPLICATE KEY UPDATE}
+ * de hasta {@code rowsPerStatement} filas, lo mismo que arma {@code rewriteBatchedStatements} en
+ * MySQL pero sin depender del driver; H2 la acepta en modo MySQL.
+ *
+ * Como la clave es {@link Payment#getId()}, volver a escribir un chunk tras un reinicio actualiza
+ * las filas en lugar de duplicarlas; un pago sin id se rechaza en el procesador y, si llega igual,
+ * falla con un error claro. Con el mismo DataSource que el JobRepository las filas se
+ * confirman en la transacción del chunk.
+ */
+public class PaymentJdbcWriter implements ItemWriter<Payment> {
+
+    static final String[] COLUMNS = {"ID", "AMOUNT", "CURRENCY", "STATUS", "PAYMENT_DATE", "PAYMENT_TYPE",
+            "CUSTOMER_NAME", "CUSTOMER_EMAIL", "AMOUNT_IN_USD", "COMMISSION", "VALIDATION_STATUS"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tableName;
+    private final int rowsPerStatement;
+    private final String fullStatement;
+
+    public PaymentJdbcWriter(JdbcTemplate jdbcTemplate, String tableName, int rowsPerStatement) {
+        if (rowsPerStatement < 1) {
+            throw new IllegalArgumentException("rowsPerStatement debe ser positivo: " + rowsPerStatement);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+        this.rowsPerStatement = rowsPerStatement;
+        this.fullStatement = upsertStatement(rowsPerStatement);
+    }
+
+    @Override
+    public void write(List<? extends Payment> items) {
+        for (int from = 0; from < items.size(); from += rowsPerStatement) {
+            int start = from;
+            int rows = Math.min(rowsPerStatement, items.size() - from);
+            String sql = rows == rowsPerStatement ? fullStatement : upsertStatement(rows);
+            jdbcTemplate.update(sql, statement -> {
+                int index = 1;
+                for (int i = start; i < start + rows; i++) {
+                    index = bind(statement, index, items.get(i));
+                }
+            });
+        }
+    }
+
+    String upsertStatement(int rows) {
+        String placeholders = "(?" + ", ?".repeat(COLUMNS.length - 1) + ")";
+        StringBuilder sql = new StringBuilder(64 + rows * (placeholders.length() + 2))
+                .append("INSERT INTO ").append(tableName)
+                .append(" (").append(String.join(", ", COLUMNS)).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 1; i < COLUMNS.length; i++) {
+            if (i > 1) {
+                sql.append(", ");
+            }
+            sql.append(COLUMNS[i]).append(" = VALUES(").append(COLUMNS[i]).append(')');
+        }
+        return sql.toString();
+    }
+
+    private static int bind(PreparedStatement statement, int index, Payment payment) throws SQLException {
+        if (!payment.hasId()) {
+            // Lo evita la regla id, que se activa sola con la salida JDBC
+            throw new IllegalArgumentException("Pago sin id, no se puede guardar en la tabla: " + payment);
+        }
+        statement.setLong(index++, payment.getIdValue());
+        setDecimal(statement, index++, payment.getAmount());
+        setText(statement, index++, payment.getCurrency());
+        setText(statement, index++, payment.getStatus());
+        if (payment.getPaymentDate() == null) {
+            statement.setNull(index++, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index++, Timestamp.valueOf(payment.getPaymentDate()));
+        }
+        setText(statement, index++, payment.getPaymentType() == null ? null : payment.getPaymentType().name());
+        setText(statement, index++, payment.getCustomerName());
+        setText(statement, index++, payment.getCustomerEmail());
+        setDecimal(statement, index++, payment.getAmountInUSD());
+        setDecimal(statement, index++, payment.getCommission());
+        setText(statement, index++, payment.getValidationStatus());
+        return index;
+    }
+
+    private static void setDecimal(PreparedStatement statement, int index, BigDecimal value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.DECIMAL);
+        } else {
+            statement.setBigDecimal(index, value);
+        }
+    }
+
+    private static void setText(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+}
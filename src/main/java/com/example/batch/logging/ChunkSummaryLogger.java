@@ -0,0 +1,37 @@
+package com.example.batch.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Una línea por chunk confirmado con los totales acumulados del paso, en lugar de una por pago.
+ * Los contadores salen de la {@link StepExecution}, así que una sola instancia sirve a todos los
+ * pasos y particiones.
+ */
+@Slf4j
+public class ChunkSummaryLogger implements ChunkListener {
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        log.info("Paso {}: chunk {} confirmado, {} leídos, {} escritos, {} filtrados, {} omitidos",
+                stepExecution.getStepName(), stepExecution.getCommitCount(), stepExecution.getReadCount(),
+                stepExecution.getWriteCount(), stepExecution.getFilterCount(), stepExecution.getSkipCount());
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        log.warn("Paso {}: falló el chunk {} tras {} ítems leídos", stepExecution.getStepName(),
+                stepExecution.getCommitCount() + 1, stepExecution.getReadCount());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.batch.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita las líneas de log por ítem a un máximo por segundo, compartido por todos los hilos que
+ * procesan el paso. Agotado el cupo de la ventana, {@link #sample()} solo lee dos atómicos, así que
+ * consultarlo por cada pago no agrega escrituras en memoria compartida. Con cero no se muestrea nada.
+ */
+public class LogSampler {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int permitsPerSecond;
+    private final LongSupplier nanoClock;
+    private final AtomicLong windowStart;
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    public LogSampler(int permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    LogSampler(int permitsPerSecond, LongSupplier nanoClock) {
+        if (permitsPerSecond < 0) {
+            throw new IllegalArgumentException("Cupo de muestreo inválido: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.nanoClock = nanoClock;
+        // La primera consulta abre una ventana nueva
+        this.windowStart = new AtomicLong(nanoClock.getAsLong() - WINDOW_NANOS);
+    }
+
+    public boolean sample() {
+        if (permitsPerSecond == 0) {
+            return false;
+        }
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            remaining.set(permitsPerSecond);
+        }
+        return remaining.get() > 0 && remaining.getAndDecrement() > 0;
+    }
+
+    @Override
+    public String toString() {
+        return permitsPerSecond + " líneas/s";
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.batch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vuelca las métricas del job en un archivo con el formato de texto de Prometheus al terminar cada
+ * ejecución, pensado para el textfile collector de node_exporter: un job batch no vive lo
+ * suficiente como para que Prometheus lo consulte. El archivo se escribe en uno temporal y se
+ * mueve, por lo que el colector nunca lee uno a medias.
+ *
+ * Registra su propio {@link SimpleMeterRegistry} en {@link Metrics#globalRegistry}, donde publican
+ * todas las métricas de la aplicación, y lo retira al cerrarse. Descarta los tiempos por ítem de
+ * Spring Batch ({@code spring.batch.item.*}).
+ */
+@Slf4j
+public class PrometheusTextFileExporter implements JobExecutionListener, AutoCloseable {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Path file;
+
+    public PrometheusTextFileExporter(Path file) {
+        this.file = file;
+        // Los tiempos por ítem de Spring Batch ya están cubiertos por las fases de cada chunk
+        registry.config().meterFilter(MeterFilter.denyNameStartsWith("spring.batch.item"));
+        Metrics.addRegistry(registry);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        export();
+    }
+
+    public void export() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.writeString(temp, scrape(registry), StandardCharsets.UTF_8);
+            // createTempFile deja el archivo solo para el dueño y node_exporter suele correr con otro usuario
+            if (Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Métricas exportadas a {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron exportar las métricas a " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    /**
+     * Formato de texto de Prometheus (0.0.4) de todos los medidores del registro.
+     */
+    static String scrape(MeterRegistry registry) {
+        Map<String, Family> families = new TreeMap<>();
+        List<Meter> meters = new ArrayList<>(registry.getMeters());
+        meters.sort(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                .thenComparing(meter -> meter.getId().getTags().toString()));
+        for (Meter meter : meters) {
+            Meter.Id id = meter.getId();
+            // Los buckets de los histogramas ya salen con su medidor; se omiten los gauges derivados
+            if (id.syntheticAssociation() != null) {
+                continue;
+            }
+            String name = sanitize(id.getName());
+            String labels = labels(id.getTags());
+            if (meter instanceof Counter) {
+                String unit = unitSuffix(id.getBaseUnit());
+                family(families, name + unit + "_total", "counter", id)
+                        .sample(name + unit + "_total", labels, ((Counter) meter).count());
+            } else if (meter instanceof FunctionCounter) {
+                String unit = unitSuffix(id.getBaseUnit());
+                family(families, name + unit + "_total", "counter", id)
+                        .sample(name + unit + "_total", labels, ((FunctionCounter) meter).count());
+            } else if (meter instanceof TimeGauge) {
+                family(families, name + "_seconds", "gauge", id)
+                        .sample(name + "_seconds", labels, ((TimeGauge) meter).value(TimeUnit.SECONDS));
+            } else if (meter instanceof Gauge) {
+                String unit = unitSuffix(id.getBaseUnit());
+                family(families, name + unit, "gauge", id).sample(name + unit, labels, ((Gauge) meter).value());
+            } else if (meter instanceof Timer) {
+                distribution(families, name + "_seconds", id, ((Timer) meter).takeSnapshot(), TimeUnit.SECONDS);
+            } else if (meter instanceof DistributionSummary) {
+                distribution(families, name + unitSuffix(id.getBaseUnit()), id,
+                        ((DistributionSummary) meter).takeSnapshot(), null);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        families.forEach((name, family) -> family.appendTo(text, name));
+        return text.toString();
+    }
+
+    private static void distribution(Map<String, Family> families, String name, Meter.Id id,
+                                     HistogramSnapshot snapshot, TimeUnit unit) {
+        String labels = labels(id.getTags());
+        CountAtBucket[] buckets = snapshot.histogramCounts();
+        Family family = family(families, name, buckets.length > 0 ? "histogram" : "summary", id);
+        for (CountAtBucket bucket : buckets) {
+            double le = unit == null ? bucket.bucket() : bucket.bucket(unit);
+            family.sample(name + "_bucket", withLabel(labels, "le", format(le)), bucket.count());
+        }
+        if (buckets.length > 0) {
+            family.sample(name + "_bucket", withLabel(labels, "le", "+Inf"), snapshot.count());
+        }
+        family.sample(name + "_sum", labels, unit == null ? snapshot.total() : snapshot.total(unit));
+        family.sample(name + "_count", labels, snapshot.count());
+        family(families, name + "_max", "gauge", id)
+                .sample(name + "_max", labels, unit == null ? snapshot.max() : snapshot.max(unit));
+    }
+
+    private static Family family(Map<String, Family> families, String name, String type, Meter.Id id) {
+        return families.computeIfAbsent(name, key -> new Family(type, id.getDescription()));
+    }
+
+    private static String labels(List<Tag> tags) {
+        StringBuilder labels = new StringBuilder();
+        for (Tag tag : tags) {
+            if (labels.length() > 0) {
+                labels.append(',');
+            }
+            labels.append(sanitize(tag.getKey())).append("=\"").append(escape(tag.getValue())).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String withLabel(String labels, String key, String value) {
+        return (labels.isEmpty() ? "" : labels + ",") + key + "=\"" + value + "\"";
+    }
+
+    private static String unitSuffix(String baseUnit) {
+        return baseUnit == null || baseUnit.isEmpty() ? "" : "_" + sanitize(baseUnit);
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (i > 0 && c >= '0' && c <= '9');
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static final class Family {
+
+        private final String type;
+        private final String help;
+        private final StringBuilder samples = new StringBuilder();
+
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+
+        private Family sample(String name, String labels, double value) {
+            samples.append(name);
+            if (!labels.isEmpty()) {
+                samples.append('{').append(labels).append('}');
+            }
+            samples.append(' ').append(format(value)).append('\n');
+            return this;
+        }
+
+        private void appendTo(StringBuilder text, String name) {
+            if (help != null) {
+                text.append("# HELP ").append(name).append(' ')
+                        .append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            }
+            text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            text.append(samples);
+        }
+    }
+}
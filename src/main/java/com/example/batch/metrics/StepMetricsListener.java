@@ -0,0 +1,285 @@
+package com.example.batch.metrics;
+
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de los pasos chunk-oriented:
+ *
+ * <ul>
+ *   <li>{@value #THROUGHPUT_METRIC}: ítems leídos por segundo en cada ejecución del paso.</li>
+ *   <li>{@value #CHUNK_DURATION_METRIC}: histograma de la duración de cada chunk, commit incluido.</li>
+ *   <li>{@value #PHASE_DURATION_METRIC}: tiempo de cada chunk en lectura, proceso, escritura y commit.</li>
+ *   <li>{@value #CHUNK_ALLOCATION_METRIC}: bytes reservados en el hilo del chunk, si la JVM lo permite.</li>
+ *   <li>{@value #REJECTED_METRIC}: pagos rechazados por motivo y moneda.</li>
+ * </ul>
+ *
+ * Para que el costo sea por chunk y no por ítem, las fases se delimitan con el orden en que
+ * Spring Batch arma un chunk: primero lee todos los ítems, luego los procesa y al final los
+ * escribe. Basta con tomar la hora al inicio del chunk, en el primer {@code beforeProcess}, en
+ * {@code beforeWrite}, en {@code afterWrite} y al terminar el chunk. En modo asíncrono la fase de
+ * proceso mide solo el envío al ejecutor y la espera de los resultados cae en la escritura.
+ *
+ * Una sola instancia sirve a todos los pasos: cada ejecución de paso, incluida cada partición,
+ * corre en un único hilo, así que el estado del paso se guarda por hilo. Registrarla con alcance de
+ * paso haría pasar cada {@code beforeProcess} por el proxy del scope.
+ *
+ * Los rechazos se cuentan al escribir, cuando los resultados asíncronos ya están resueltos. Las
+ * monedas fuera de la lista soportada se agrupan en {@value #OTHER_CURRENCY} para acotar las series.
+ */
+@Slf4j
+public class StepMetricsListener implements StepExecutionListener, ChunkListener,
+        ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    public static final String THROUGHPUT_METRIC = "payments.step.throughput";
+    public static final String CHUNK_DURATION_METRIC = "payments.chunk.duration";
+    public static final String PHASE_DURATION_METRIC = "payments.chunk.phase.duration";
+    public static final String CHUNK_ALLOCATION_METRIC = "payments.chunk.allocated";
+    public static final String REJECTED_METRIC = "payments.rejected";
+    public static final String OTHER_CURRENCY = "OTHER";
+
+    private static final long NOT_SET = Long.MIN_VALUE;
+    private static final Duration[] CHUNK_DURATION_BUCKETS = {
+            Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(200), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2),
+            Duration.ofSeconds(5)};
+
+    private final MeterRegistry registry;
+    private final Set<String> supportedCurrencies;
+    private final LongSupplier nanoClock;
+    private final com.sun.management.ThreadMXBean threadBean = allocationCountingThreadBean();
+    private final ThreadLocal<StepMetrics> current = new ThreadLocal<>();
+
+    public StepMetricsListener(MeterRegistry registry, Set<String> supportedCurrencies) {
+        this(registry, supportedCurrencies, System::nanoTime);
+    }
+
+    StepMetricsListener(MeterRegistry registry, Set<String> supportedCurrencies, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.supportedCurrencies = Set.copyOf(supportedCurrencies);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        StepMetrics step = new StepMetrics(stepExecution.getStepName());
+        step.startNanos = nanoClock.getAsLong();
+        current.set(step);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepMetrics step = current.get();
+        current.remove();
+        if (step != null) {
+            long elapsed = nanoClock.getAsLong() - step.startNanos;
+            double itemsPerSecond = elapsed > 0 ? stepExecution.getReadCount() * 1e9 / elapsed : 0;
+            step.throughput.record(itemsPerSecond);
+            log.info("Paso {}: {} ítems leídos, {} ítems/s", step.name, stepExecution.getReadCount(),
+                    Math.round(itemsPerSecond));
+        }
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepMetrics step = current.get();
+        if (step == null) {
+            return;
+        }
+        step.chunkStartNanos = nanoClock.getAsLong();
+        step.processStartNanos = NOT_SET;
+        step.writeStartNanos = NOT_SET;
+        step.writeEndNanos = NOT_SET;
+        step.chunkStartAllocated = allocatedBytes();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepMetrics step = current.get();
+        if (step == null) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        step.chunk.record(now - step.chunkStartNanos, TimeUnit.NANOSECONDS);
+        // Sin proceso (paso 3) la lectura termina donde empieza la escritura
+        long writeStart = step.writeStartNanos != NOT_SET ? step.writeStartNanos : now;
+        long readEnd = step.processStartNanos != NOT_SET ? step.processStartNanos : writeStart;
+        step.read.record(readEnd - step.chunkStartNanos, TimeUnit.NANOSECONDS);
+        if (step.processStartNanos != NOT_SET) {
+            step.process.record(writeStart - step.processStartNanos, TimeUnit.NANOSECONDS);
+        }
+        if (step.writeStartNanos != NOT_SET) {
+            long writeEnd = step.writeEndNanos != NOT_SET ? step.writeEndNanos : now;
+            step.write.record(writeEnd - step.writeStartNanos, TimeUnit.NANOSECONDS);
+            step.commit.record(now - writeEnd, TimeUnit.NANOSECONDS);
+        }
+        long allocated = allocatedBytes();
+        if (allocated >= 0 && step.chunkStartAllocated >= 0) {
+            step.allocation.record(allocated - step.chunkStartAllocated);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        StepMetrics step = current.get();
+        if (step != null && step.processStartNanos == NOT_SET) {
+            step.processStartNanos = nanoClock.getAsLong();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        StepMetrics step = current.get();
+        if (step != null) {
+            step.writeStartNanos = nanoClock.getAsLong();
+        }
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        StepMetrics step = current.get();
+        if (step == null) {
+            return;
+        }
+        step.writeEndNanos = nanoClock.getAsLong();
+        for (Object item : items) {
+            Payment payment = resolve(item);
+            if (payment != null && payment.getRejectReason() != null) {
+                step.rejected(payment.getRejectReason(), payment.getCurrency()).increment();
+            }
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+    }
+
+    private static Payment resolve(Object item) {
+        // En modo asíncrono el escritor ya esperó cada Future, así que get() no bloquea
+        if (item instanceof Future) {
+            try {
+                item = ((Future<?>) item).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+        return item instanceof Payment ? (Payment) item : null;
+    }
+
+    private long allocatedBytes() {
+        return threadBean == null ? -1 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCountingThreadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Medidores y marcas de tiempo de una ejecución de paso.
+     */
+    private final class StepMetrics {
+
+        private final String name;
+        private final DistributionSummary throughput;
+        private final Timer chunk;
+        private final Timer read;
+        private final Timer process;
+        private final Timer write;
+        private final Timer commit;
+        private final DistributionSummary allocation;
+        private final Map<RejectReason, Map<String, Counter>> rejectCounters = new EnumMap<>(RejectReason.class);
+
+        private long startNanos;
+        private long chunkStartNanos;
+        private long processStartNanos = NOT_SET;
+        private long writeStartNanos = NOT_SET;
+        private long writeEndNanos = NOT_SET;
+        private long chunkStartAllocated;
+
+        private StepMetrics(String name) {
+            this.name = name;
+            throughput = DistributionSummary.builder(THROUGHPUT_METRIC)
+                    .description("Ítems leídos por segundo en cada ejecución del paso")
+                    .baseUnit("items.per.second")
+                    .tag("step", name)
+                    .register(registry);
+            chunk = Timer.builder(CHUNK_DURATION_METRIC)
+                    .description("Duración de cada chunk, commit incluido")
+                    .tag("step", name)
+                    .serviceLevelObjectives(CHUNK_DURATION_BUCKETS)
+                    .register(registry);
+            read = phaseTimer("read");
+            process = phaseTimer("process");
+            write = phaseTimer("write");
+            commit = phaseTimer("commit");
+            allocation = DistributionSummary.builder(CHUNK_ALLOCATION_METRIC)
+                    .description("Bytes reservados en el hilo del chunk")
+                    .baseUnit("bytes")
+                    .tag("step", name)
+                    .register(registry);
+        }
+
+        private Timer phaseTimer(String phase) {
+            return Timer.builder(PHASE_DURATION_METRIC)
+                    .description("Tiempo de cada chunk en una fase")
+                    .tags("step", name, "phase", phase)
+                    .register(registry);
+        }
+
+        private Counter rejected(RejectReason reason, String currency) {
+            String tag = currency != null && supportedCurrencies.contains(currency) ? currency : OTHER_CURRENCY;
+            return rejectCounters.computeIfAbsent(reason, key -> new HashMap<>())
+                    .computeIfAbsent(tag, key -> Counter.builder(REJECTED_METRIC)
+                            .description("Pagos rechazados por motivo y moneda")
+                            .tags("step", name, "reason", reason.name(), "currency", tag)
+                            .register(registry));
+        }
+    }
+}
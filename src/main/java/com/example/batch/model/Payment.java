@@ -2,37 +2,96 @@ package com.example.batch.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import com.example.batch.enums.PaymentType;
+import com.example.batch.validation.RejectReason;
 
+/**
+ * Un pago guarda sus números y su fecha como primitivos: el id como long, cada importe como valor
+ * sin escalar más su escala y la fecha como segundos desde la época (UTC) más nanosegundos. Moneda y
+ * estados son las constantes compartidas que asignan el lector y el procesador, no copias por pago.
+ *
+ * Los getters y setters con BigDecimal, Long y LocalDateTime convierten al vuelo y quedan para los
+ * bordes (mapeo genérico, JDBC, formatos de disco, tests). El camino de cada registro usa los
+ * accesores primitivos. Un importe que no cabe en un long se guarda tal cual como BigDecimal y
+ * {@code isXxxCompact()} devuelve false.
+ */
 public class Payment {
-    private Long id;
-    private BigDecimal amount;
+    private static final byte NULL_SCALE = -1;
+    private static final int NULL_NANO = -1;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private long id;
+    private boolean idPresent;
+    private long amountUnscaled;
+    private byte amountScale = NULL_SCALE;
+    private BigDecimal largeAmount;
     private String currency;
     private String status;
-    private LocalDateTime paymentDate;
+    private long paymentEpochSecond;
+    private int paymentDateNano = NULL_NANO;
     private PaymentType paymentType;
     private String customerName;
     private String customerEmail;
-    private BigDecimal amountInUSD;
-    private BigDecimal commission;
+    private long amountInUSDUnscaled;
+    private byte amountInUSDScale = NULL_SCALE;
+    private BigDecimal largeAmountInUSD;
+    private long commissionUnscaled;
+    private byte commissionScale = NULL_SCALE;
+    private BigDecimal largeCommission;
     private String validationStatus;
     private String errorMessage;
+    private RejectReason rejectReason;
 
     // Getters y Setters
     public Long getId() {
-        return id;
+        return idPresent ? id : null;
     }
 
     public void setId(Long id) {
+        this.idPresent = id != null;
+        this.id = id != null ? id : 0;
+    }
+
+    public boolean hasId() {
+        return idPresent;
+    }
+
+    public long getIdValue() {
+        return id;
+    }
+
+    public void setIdValue(long id) {
         this.id = id;
+        this.idPresent = true;
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return largeAmount != null ? largeAmount : toBigDecimal(amountUnscaled, amountScale);
     }
 
     public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+        largeAmount = isLarge(amount) ? amount : null;
+        amountScale = scaleOf(amount);
+        amountUnscaled = unscaledOf(amount);
+    }
+
+    public boolean isAmountCompact() {
+        return amountScale != NULL_SCALE;
+    }
+
+    public long getAmountUnscaled() {
+        return amountUnscaled;
+    }
+
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    public void setAmount(long unscaled, int scale) {
+        largeAmount = null;
+        amountUnscaled = unscaled;
+        amountScale = checkScale(scale);
     }
 
     public String getCurrency() {
@@ -52,11 +111,43 @@ public class Payment {
     }
 
     public LocalDateTime getPaymentDate() {
-        return paymentDate;
+        return hasPaymentDate()
+                ? LocalDateTime.ofEpochSecond(paymentEpochSecond, paymentDateNano, ZoneOffset.UTC)
+                : null;
     }
 
     public void setPaymentDate(LocalDateTime paymentDate) {
-        this.paymentDate = paymentDate;
+        if (paymentDate == null) {
+            paymentEpochSecond = 0;
+            paymentDateNano = NULL_NANO;
+        } else {
+            paymentEpochSecond = paymentDate.toEpochSecond(ZoneOffset.UTC);
+            paymentDateNano = paymentDate.getNano();
+        }
+    }
+
+    public boolean hasPaymentDate() {
+        return paymentDateNano != NULL_NANO;
+    }
+
+    public long getPaymentEpochSecond() {
+        return paymentEpochSecond;
+    }
+
+    public int getPaymentDateNano() {
+        return paymentDateNano;
+    }
+
+    public long getPaymentEpochDay() {
+        return Math.floorDiv(paymentEpochSecond, SECONDS_PER_DAY);
+    }
+
+    public void setPaymentDate(long epochSecond, int nano) {
+        if (nano < 0 || nano > 999_999_999) {
+            throw new IllegalArgumentException("Nanosegundos fuera de rango: " + nano);
+        }
+        paymentEpochSecond = epochSecond;
+        paymentDateNano = nano;
     }
 
     public PaymentType getPaymentType() {
@@ -84,19 +175,59 @@ public class Payment {
     }
 
     public BigDecimal getAmountInUSD() {
-        return amountInUSD;
+        return largeAmountInUSD != null ? largeAmountInUSD : toBigDecimal(amountInUSDUnscaled, amountInUSDScale);
     }
 
     public void setAmountInUSD(BigDecimal amountInUSD) {
-        this.amountInUSD = amountInUSD;
+        largeAmountInUSD = isLarge(amountInUSD) ? amountInUSD : null;
+        amountInUSDScale = scaleOf(amountInUSD);
+        amountInUSDUnscaled = unscaledOf(amountInUSD);
+    }
+
+    public boolean isAmountInUSDCompact() {
+        return amountInUSDScale != NULL_SCALE;
+    }
+
+    public long getAmountInUSDUnscaled() {
+        return amountInUSDUnscaled;
+    }
+
+    public int getAmountInUSDScale() {
+        return amountInUSDScale;
+    }
+
+    public void setAmountInUSD(long unscaled, int scale) {
+        largeAmountInUSD = null;
+        amountInUSDUnscaled = unscaled;
+        amountInUSDScale = checkScale(scale);
     }
 
     public BigDecimal getCommission() {
-        return commission;
+        return largeCommission != null ? largeCommission : toBigDecimal(commissionUnscaled, commissionScale);
     }
 
     public void setCommission(BigDecimal commission) {
-        this.commission = commission;
+        largeCommission = isLarge(commission) ? commission : null;
+        commissionScale = scaleOf(commission);
+        commissionUnscaled = unscaledOf(commission);
+    }
+
+    public boolean isCommissionCompact() {
+        return commissionScale != NULL_SCALE;
+    }
+
+    public long getCommissionUnscaled() {
+        return commissionUnscaled;
+    }
+
+    public int getCommissionScale() {
+        return commissionScale;
+    }
+
+    public void setCommission(long unscaled, int scale) {
+        largeCommission = null;
+        commissionUnscaled = unscaled;
+        commissionScale = checkScale(scale);
     }
 
     public String getValidationStatus() {
@@ -114,4 +245,42 @@ public class Payment {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public RejectReason getRejectReason() {
+        return rejectReason;
+    }
+
+    public void setRejectReason(RejectReason rejectReason) {
+        this.rejectReason = rejectReason;
+    }
+
+    private static BigDecimal toBigDecimal(long unscaled, byte scale) {
+        return scale == NULL_SCALE ? null : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static boolean isLarge(BigDecimal value) {
+        return value != null && !ScaledDecimals.fits(value);
+    }
+
+    private static byte scaleOf(BigDecimal value) {
+        return value == null || !ScaledDecimals.fits(value) ? NULL_SCALE : (byte) value.scale();
+    }
+
+    private static long unscaledOf(BigDecimal value) {
+        return value == null || !ScaledDecimals.fits(value) ? 0 : value.unscaledValue().longValue();
+    }
+
+    private static byte checkScale(int scale) {
+        if (scale < 0 || scale > ScaledDecimals.MAX_DIGITS) {
+            throw new IllegalArgumentException("Escala fuera de rango: " + scale);
+        }
+        return (byte) scale;
+    }
+
+    @Override
+    public String toString() {
+        // Solo los campos que identifican el pago; los datos del cliente no van al log
+        return "Payment{id=" + getId() + ", amount=" + getAmount() + ", currency=" + currency + ", status=" + status
+                + (rejectReason != null ? ", rejectReason=" + rejectReason : "") + "}";
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.batch.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Aritmética exacta sobre decimales guardados como valor sin escalar y escala, el formato con el
+ * que {@link Payment} guarda sus importes. Da los mismos resultados que {@link BigDecimal} sin crear
+ * objetos; si un resultado no cabe en un long lanza {@link ArithmeticException} y el llamador
+ * vuelve a {@code BigDecimal}.
+ */
+public final class ScaledDecimals {
+
+    /** Dígitos que siempre caben en un long. */
+    public static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private ScaledDecimals() {
+    }
+
+    /**
+     * Si el valor se puede guardar como long sin escalar con escala entre 0 y {@link #MAX_DIGITS}.
+     */
+    public static boolean fits(BigDecimal value) {
+        return value.scale() >= 0 && value.scale() <= MAX_DIGITS && value.precision() <= MAX_DIGITS;
+    }
+
+    /**
+     * Igual que {@code BigDecimal.valueOf(a, aScale).compareTo(BigDecimal.valueOf(b, bScale))}.
+     */
+    public static int compare(long a, int aScale, long b, int bScale) {
+        try {
+            if (aScale < bScale) {
+                return Long.compare(Math.multiplyExact(a, pow10(bScale - aScale)), b);
+            }
+            if (aScale > bScale) {
+                return Long.compare(a, Math.multiplyExact(b, pow10(aScale - bScale)));
+            }
+            return Long.compare(a, b);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(a, aScale).compareTo(BigDecimal.valueOf(b, bScale));
+        }
+    }
+
+    /**
+     * Valor sin escalar de {@code a * b} con {@code resultScale} decimales, redondeado HALF_UP como
+     * {@code multiply(...).setScale(resultScale, RoundingMode.HALF_UP)}.
+     *
+     * @throws ArithmeticException si el producto o el resultado no caben en un long
+     */
+    public static long multiply(long a, int aScale, long b, int bScale, int resultScale) {
+        long product = Math.multiplyExact(a, b);
+        int scale = aScale + bScale;
+        if (scale <= resultScale) {
+            return Math.multiplyExact(product, pow10(resultScale - scale));
+        }
+        long divisor = pow10(scale - resultScale);
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+        // HALF_UP: la mitad o más se redondea alejándose de cero
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    public static long pow10(int exponent) {
+        if (exponent > MAX_DIGITS) {
+            throw new ArithmeticException("10^" + exponent + " no cabe en un long");
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+}
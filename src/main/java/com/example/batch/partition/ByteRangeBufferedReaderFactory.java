@@ -0,0 +1,83 @@
+package com.example.batch.partition;
+
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Abre el recurso posicionado en {@code startOffset} y corta la lectura en {@code endOffset},
+ * para que un {@link org.springframework.batch.item.file.FlatFileItemReader} solo vea las
+ * líneas de su partición. El reinicio sigue funcionando por número de línea dentro del rango.
+ */
+public class ByteRangeBufferedReaderFactory implements BufferedReaderFactory {
+
+    private final long startOffset;
+    private final long endOffset;
+
+    public ByteRangeBufferedReaderFactory(long startOffset, long endOffset) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public BufferedReader create(Resource resource, String encoding) throws IOException {
+        FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+        channel.position(startOffset);
+        InputStream range = new RangeInputStream(Channels.newInputStream(channel), endOffset - startOffset);
+        return new BufferedReader(new InputStreamReader(range, encoding));
+    }
+
+    private static class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
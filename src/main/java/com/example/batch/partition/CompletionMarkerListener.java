@@ -0,0 +1,43 @@
+package com.example.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Deja el marcador {@link InputFilePartitioner#COMPLETION_MARKER} en el directorio de salida de
+ * un archivo cuando su partición termina bien. Con el marcador presente las salidas de ese archivo
+ * están completas y el particionador ya no lo vuelve a tomar.
+ */
+@Slf4j
+public class CompletionMarkerListener implements StepExecutionListener {
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (!ExitStatus.COMPLETED.getExitCode().equals(stepExecution.getExitStatus().getExitCode())) {
+            return null;
+        }
+        Path output = Paths.get(stepExecution.getExecutionContext().getString(InputFilePartitioner.OUTPUT_DIR));
+        try {
+            Files.createDirectories(output);
+            Files.write(output.resolve(InputFilePartitioner.COMPLETION_MARKER), new byte[0]);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo escribir el marcador de " + output, e);
+        }
+        log.info("Archivo {} completo: {} leídos, {} escritos",
+                stepExecution.getExecutionContext().getString(InputFilePartitioner.INPUT_FILE),
+                stepExecution.getReadCount(), stepExecution.getWriteCount());
+        return null;
+    }
+}
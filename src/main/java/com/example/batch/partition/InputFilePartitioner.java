@@ -0,0 +1,80 @@
+package com.example.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Una partición por archivo del directorio de entrada que cumple el patrón (glob). Cada archivo
+ * escribe sus salidas en un subdirectorio propio del directorio de salida, con el nombre del
+ * archivo, y al terminar deja ahí el marcador {@link #COMPLETION_MARKER} (ver
+ * {@link CompletionMarkerListener}). Los archivos que ya tienen su marcador no se vuelven a
+ * procesar, así que el job puede correr una y otra vez sobre un directorio de llegada.
+ *
+ * El tamaño de grilla no se usa: la cantidad de particiones es la de archivos pendientes.
+ */
+@Slf4j
+public class InputFilePartitioner implements Partitioner {
+
+    public static final String INPUT_FILE = "inputFile";
+    public static final String OUTPUT_DIR = "outputDir";
+    public static final String COMPLETION_MARKER = "_SUCCESS";
+
+    private final Path inputDirectory;
+    private final String pattern;
+    private final Path outputDirectory;
+
+    public InputFilePartitioner(Path inputDirectory, String pattern, Path outputDirectory) {
+        this.inputDirectory = inputDirectory;
+        this.pattern = pattern;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Directorio de salida de un archivo de entrada.
+     */
+    public static Path outputDirectory(Path outputDirectory, Path inputFile) {
+        return outputDirectory.resolve(inputFile.getFileName().toString());
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inputDirectory, pattern)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry) && !Files.isHidden(entry)) {
+                    files.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo listar el directorio de entrada " + inputDirectory, e);
+        }
+        // Orden estable: los nombres de partición tienen que coincidir al reiniciar
+        files.sort(null);
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (Path file : files) {
+            Path output = outputDirectory(outputDirectory, file);
+            if (Files.exists(output.resolve(COMPLETION_MARKER))) {
+                log.info("Se omite {}: ya fue procesado", file.getFileName());
+                continue;
+            }
+            ExecutionContext context = new ExecutionContext();
+            context.putString(INPUT_FILE, file.toAbsolutePath().toString());
+            context.putString(OUTPUT_DIR, output.toAbsolutePath().toString());
+            partitions.put(file.getFileName().toString(), context);
+        }
+        log.info("{} archivos pendientes en {} ({} encontrados)", partitions.size(), inputDirectory, files.size());
+        return partitions;
+    }
+}
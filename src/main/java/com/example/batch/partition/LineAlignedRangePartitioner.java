@@ -0,0 +1,94 @@
+package com.example.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Divide el archivo de entrada en rangos de bytes contiguos cuyos límites caen siempre
+ * al inicio de una línea. Cada partición recibe su rango y su índice, que se usa para
+ * nombrar los archivos parciales y concatenarlos luego en el orden original.
+ */
+@Slf4j
+public class LineAlignedRangePartitioner implements Partitioner {
+
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+    public static final String PARTITION_INDEX = "partitionIndex";
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final Resource resource;
+    private final int linesToSkip;
+
+    public LineAlignedRangePartitioner(Resource resource, int linesToSkip) {
+        this.resource = resource;
+        this.linesToSkip = linesToSkip;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            long dataStart = 0;
+            for (int i = 0; i < linesToSkip; i++) {
+                dataStart = nextLineStart(channel, dataStart, length);
+            }
+
+            long start = dataStart;
+            for (int index = 0; index < gridSize; index++) {
+                long end = index == gridSize - 1
+                        ? length
+                        : Math.max(start, alignToLineStart(channel, dataStart + (length - dataStart) * (index + 1) / gridSize, length));
+
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(START_OFFSET, start);
+                context.putLong(END_OFFSET, end);
+                context.putInt(PARTITION_INDEX, index);
+                partitions.put("partition" + index, context);
+                log.info("Partición {}: bytes [{}, {})", index, start, end);
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo particionar el archivo " + resource.getDescription(), e);
+        }
+        return partitions;
+    }
+
+    private static long alignToLineStart(FileChannel channel, long position, long length) throws IOException {
+        // Si el byte anterior es un salto de línea, position ya es inicio de línea
+        return position <= 0 ? 0 : nextLineStart(channel, position - 1, length);
+    }
+
+    /**
+     * Devuelve la posición siguiente al primer salto de línea desde {@code position} inclusive,
+     * o el tamaño del archivo si no quedan más saltos de línea.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Concatena los archivos parciales {@code <destino>.part-N} de cada partición en su destino,
+ * en orden de índice, y solo borra las partes cuando todos los destinos están completos.
+ * Si el paso falla a mitad, el reinicio vuelve a generar los destinos desde las partes.
+ */
+@Slf4j
+public class PartFileMergeTasklet implements Tasklet {
+
+    private final List<String> targets;
+    private final int partitionCount;
+
+    public PartFileMergeTasklet(List<String> targets, int partitionCount) {
+        this.targets = targets;
+        this.partitionCount = partitionCount;
+    }
+
+    public static String partFile(String target, int partitionIndex) {
+        return target + ".part-" + partitionIndex;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        for (String target : targets) {
+            merge(Paths.get(target));
+        }
+        for (String target : targets) {
+            for (int i = 0; i < partitionCount; i++) {
+                Files.deleteIfExists(Paths.get(partFile(target, i)));
+            }
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private void merge(Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < partitionCount; i++) {
+                Path part = Paths.get(partFile(target.toString(), i));
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        log.info("Unidas {} partes en {}", partitionCount, target);
+    }
+}
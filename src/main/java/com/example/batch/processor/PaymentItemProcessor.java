@@ -1,40 +1,52 @@
 package com.example.batch.processor;
 
+import com.example.batch.customer.CustomerProfile;
+import com.example.batch.customer.CustomerProfileCache;
+import com.example.batch.dedup.DuplicatePaymentDetector;
 import com.example.batch.model.Payment;
-import com.example.batch.enums.PaymentType;
+import com.example.batch.model.ScaledDecimals;
+import com.example.batch.fx.FxRateNotFoundException;
+import com.example.batch.fx.FxRateTable;
+import com.example.batch.logging.LogSampler;
+import com.example.batch.validation.PaymentRule;
+import com.example.batch.validation.RejectReason;
+import com.example.batch.validation.PaymentValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.InitializingBean;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 
+/**
+ * Se configura con los setters y {@link #afterPropertiesSet()} arma una sola vez las reglas y la
+ * comisión en un estado inmutable. Una misma instancia la comparten los hilos del procesador
+ * asíncrono y todas las particiones del paso 1, así que después de eso nada se reasigna: cada
+ * pago lee la tabla de tipos de cambio vigente del listener del job.
+ */
 @Slf4j
-@Component
-public class PaymentItemProcessor implements ItemProcessor<Payment, Payment> {
-    
-    private static final Set<String> SUPPORTED_CURRENCIES = new HashSet<>(Arrays.asList("USD", "EUR", "GBP", "JPY"));
-    private static final BigDecimal MIN_AMOUNT = new BigDecimal("10.00");
-    private static final BigDecimal MAX_AMOUNT = new BigDecimal("100000.00");
-    
+public class PaymentItemProcessor implements ItemProcessor<Payment, Payment>, InitializingBean {
+
+    private static final int COMMISSION_SCALE = 2;
+
     private double commissionRate;
     private double minAmount;
     private double maxAmount;
     private String supportedCurrencies;
-    
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
-    
-    private List<String> currencies;
-    private StepExecution stepExecution;
+    private String rules;
+
+    private volatile Settings settings;
+    private Supplier<FxRateTable> rateTableSupplier;
+    private LogSampler itemLogSampler = new LogSampler(0);
+    private LongPredicate alreadyProcessed;
+    private DuplicatePaymentDetector duplicateDetector;
+    private CustomerProfileCache customerProfiles;
 
     public void setCommissionRate(double commissionRate) {
         this.commissionRate = commissionRate;
@@ -51,98 +63,189 @@ public class PaymentItemProcessor implements ItemProcessor<Payment, Payment> {
     public void setSupportedCurrencies(String supportedCurrencies) {
         this.supportedCurrencies = supportedCurrencies;
     }
-    
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        this.stepExecution = stepExecution;
-        this.currencies = Arrays.asList(supportedCurrencies.split(","));
+
+    public void setRules(String rules) {
+        this.rules = rules;
+    }
+
+    public void setRateTableSupplier(Supplier<FxRateTable> rateTableSupplier) {
+        this.rateTableSupplier = rateTableSupplier;
+    }
+
+    public void setItemLogSampler(LogSampler itemLogSampler) {
+        this.itemLogSampler = itemLogSampler;
+    }
+
+    /**
+     * En modo incremental, los pagos cuyo id ya se procesó en una ejecución anterior se filtran
+     * antes de validarlos y no llegan a los escritores. Los rechazados no quedan en el índice, así
+     * que se vuelven a validar.
+     */
+    public void setAlreadyProcessed(LongPredicate alreadyProcessed) {
+        this.alreadyProcessed = alreadyProcessed;
+    }
+
+    /**
+     * Con detector, un pago válido que repite el id o el contenido de uno anterior del paso se rechaza
+     * antes de convertirlo y cobrarle comisión.
+     */
+    public void setDuplicateDetector(DuplicatePaymentDetector duplicateDetector) {
+        this.duplicateDetector = duplicateDetector;
     }
-    
+
+    /**
+     * Con perfiles de cliente, los pagos válidos de un cliente bloqueado se rechazan y los de un
+     * cliente con comisión propia se cobran con ella.
+     */
+    public void setCustomerProfiles(CustomerProfileCache customerProfiles) {
+        this.customerProfiles = customerProfiles;
+    }
+
     @Override
-    public Payment process(Payment payment) throws Exception {
-        log.info("Procesando pago: {}", payment);
-        try {
-            validatePayment(payment);
-            payment.setStatus("PROCESSED");
-            payment.setValidationStatus("VALID");
-            payment.setCommission(calculateCommission(payment.getAmount()));
-            payment.setAmountInUSD(convertToUSD(payment.getAmount(), payment.getCurrency()));
-            log.info("Pago procesado exitosamente: {}", payment);
-        } catch (PaymentValidationException e) {
-            payment.setStatus("INVALID");
-            payment.setValidationStatus("INVALID");
-            payment.setErrorMessage(e.getMessage());
-            log.warn("Pago inválido: {}", e.getMessage());
-        }
-        return payment;
+    public void afterPropertiesSet() {
+        // Las reglas y sus constantes se arman una sola vez, no por cada paso ni por cada pago
+        List<String> ruleNames = rules == null ? PaymentValidator.DEFAULT_RULES : Arrays.asList(rules.split(","));
+        settings = new Settings(PaymentValidator.compile(ruleNames, minAmount, maxAmount,
+                Arrays.asList(supportedCurrencies.split(","))), BigDecimal.valueOf(commissionRate));
     }
-    
-    private void validatePayment(Payment payment) {
-        // Validar monto
-        if (payment.getAmount().compareTo(BigDecimal.valueOf(minAmount)) < 0) {
-            throw new PaymentValidationException("El monto es menor al mínimo permitido: " + minAmount);
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        // Solo comprueba: la instancia es compartida y otras particiones pueden estar procesando
+        if (settings == null) {
+            throw new IllegalStateException("El procesador de pagos no fue inicializado");
         }
-        if (payment.getAmount().compareTo(BigDecimal.valueOf(maxAmount)) > 0) {
-            throw new PaymentValidationException("El monto es mayor al máximo permitido: " + maxAmount);
+        if (rateTableSupplier == null || rateTableSupplier.get() == null) {
+            throw new IllegalStateException("La tabla de tipos de cambio no fue cargada");
         }
-        
-        // Validar moneda
-        if (!currencies.contains(payment.getCurrency())) {
-            throw new PaymentValidationException("Moneda no soportada: " + payment.getCurrency());
+        log.info("Reglas de validación: {}; muestreo de pagos en el log: {}", settings.validator, itemLogSampler);
+    }
+
+    @Override
+    public Payment process(Payment payment) throws Exception {
+        Settings settings = this.settings;
+        if (alreadyProcessed != null && payment.hasId() && alreadyProcessed.test(payment.getIdValue())) {
+            return null;
         }
-        
-        // Validar email
-        if (payment.getCustomerEmail() == null || payment.getCustomerEmail().isEmpty()) {
-            throw new PaymentValidationException("Email del cliente es requerido");
+        PaymentRule failedRule = settings.validator.validate(payment);
+        if (failedRule != null) {
+            reject(payment, failedRule.reason(), failedRule.rejectMessage(payment));
+            return payment;
         }
-        if (!isValidEmail(payment.getCustomerEmail())) {
-            throw new PaymentValidationException("Formato de email inválido: " + payment.getCustomerEmail());
+        CustomerProfile profile = CustomerProfile.DEFAULT;
+        if (customerProfiles != null) {
+            profile = customerProfiles.get(payment.getCustomerEmail());
+            if (profile.isBlocked()) {
+                reject(payment, RejectReason.CUSTOMER_BLOCKED, "Cliente bloqueado: " + payment.getCustomerEmail());
+                return payment;
+            }
         }
-        
-        // Validar tipo de pago
-        if (payment.getPaymentType() == null) {
-            throw new PaymentValidationException("Tipo de pago es requerido");
+        if (duplicateDetector != null) {
+            RejectReason duplicate = duplicateDetector.check(payment);
+            if (duplicate != null) {
+                reject(payment, duplicate, duplicateMessage(payment, duplicate));
+                return payment;
+            }
         }
-        
-        // Validar fecha
-        if (payment.getPaymentDate() == null) {
-            throw new PaymentValidationException("Fecha de pago es requerida");
+
+        // La tabla la carga el listener del job antes del primer paso y no cambia hasta el próximo job
+        FxRateTable rateTable = rateTableSupplier.get();
+        try {
+            if (!convertCompact(payment, profile, settings, rateTable)) {
+                BigDecimal amountInUSD = rateTable.convertToUsd(payment.getAmount(), payment.getCurrency(),
+                        payment.getPaymentDate().toLocalDate());
+                payment.setCommission(calculateCommission(payment.getAmount(),
+                        profile.hasCommissionRate() ? profile.getCommissionRate() : settings.commission));
+                payment.setAmountInUSD(amountInUSD);
+            }
+        } catch (FxRateNotFoundException e) {
+            reject(payment, RejectReason.FX_RATE_NOT_FOUND, e.getMessage());
+            return payment;
         }
-        
-        log.info("Pago validado exitosamente: {}", payment);
-    }
-    
-    private void processValidPayment(Payment payment) {
-        // Calcular comisión
-        BigDecimal commission = calculateCommission(payment.getAmount());
-        payment.setCommission(commission);
-        
-        // Convertir a USD (placeholder para futura implementación)
-        BigDecimal amountInUSD = convertToUSD(payment.getAmount(), payment.getCurrency());
-        payment.setAmountInUSD(amountInUSD);
-        
-        // Marcar como procesado
         payment.setStatus("PROCESSED");
         payment.setValidationStatus("VALID");
+        if (log.isDebugEnabled()) {
+            log.debug("Pago procesado exitosamente: {}", payment);
+        } else if (log.isInfoEnabled() && itemLogSampler.sample()) {
+            log.info("Pago procesado exitosamente (muestra): {}", payment);
+        }
+        return payment;
+    }
+
+    private void reject(Payment payment, RejectReason reason, String message) {
+        payment.setStatus("INVALID");
+        payment.setValidationStatus("INVALID");
+        payment.setErrorMessage(message);
+        payment.setRejectReason(reason);
+        // Un pago por línea solo a DEBUG; a WARN se muestrea para no volcar cada rechazo de un archivo grande
+        if (log.isDebugEnabled()) {
+            log.debug("Pago inválido: {}", message);
+        } else if (log.isWarnEnabled() && itemLogSampler.sample()) {
+            log.warn("Pago inválido (muestra): {}", message);
+        }
     }
-    
-    private BigDecimal calculateCommission(BigDecimal amount) {
-        return amount.multiply(BigDecimal.valueOf(commissionRate))
-                .setScale(2, RoundingMode.HALF_UP);
+
+    private static String duplicateMessage(Payment payment, RejectReason reason) {
+        return reason == RejectReason.DUPLICATE_ID
+                ? "Pago duplicado: el id " + payment.getIdValue() + " ya fue recibido"
+                : "Pago duplicado: mismo email, monto, moneda y fecha que un pago anterior";
     }
-    
-    private BigDecimal convertToUSD(BigDecimal amount, String currency) {
-        // TODO: Implementar conversión real usando API de cambio de divisas
-        return amount;
+
+    /**
+     * Conversión y comisión con aritmética de long sobre el importe sin escalar, con el mismo
+     * resultado que el camino con BigDecimal. Devuelve false sin tocar el pago si algún valor no cabe
+     * en un long, y entonces se usa ese camino.
+     */
+    private static boolean convertCompact(Payment payment, CustomerProfile profile, Settings settings,
+                                          FxRateTable rateTable) {
+        boolean override = profile.hasCommissionRate();
+        if (!payment.isAmountCompact() || !payment.hasPaymentDate()
+                || !(override ? profile.isCommissionCompact() : settings.commissionCompact)) {
+            return false;
+        }
+        long amount = payment.getAmountUnscaled();
+        int scale = payment.getAmountScale();
+        try {
+            long commissionValue = override
+                    ? ScaledDecimals.multiply(amount, scale, profile.getCommissionUnscaled(),
+                            profile.getCommissionScale(), COMMISSION_SCALE)
+                    : ScaledDecimals.multiply(amount, scale, settings.commissionUnscaled, settings.commissionScale,
+                            COMMISSION_SCALE);
+            if (FxRateTable.BASE_CURRENCY.equals(payment.getCurrency())) {
+                payment.setAmountInUSD(amount, scale);
+            } else {
+                payment.setAmountInUSD(rateTable.convertToUsd(amount, scale, payment.getCurrency(),
+                        payment.getPaymentEpochDay()), FxRateTable.USD_SCALE);
+            }
+            payment.setCommission(commissionValue, COMMISSION_SCALE);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
     }
-    
-    private boolean isValidEmail(String email) {
-        return EMAIL_PATTERN.matcher(email).matches();
+
+    private static BigDecimal calculateCommission(BigDecimal amount, BigDecimal commission) {
+        return amount.multiply(commission)
+                .setScale(COMMISSION_SCALE, RoundingMode.HALF_UP);
     }
-    
-    private static class PaymentValidationException extends RuntimeException {
-        public PaymentValidationException(String message) {
-            super(message);
+
+    /**
+     * Reglas compiladas y comisión por defecto, inmutables y publicadas por el campo volátil.
+     */
+    private static final class Settings {
+
+        private final PaymentValidator validator;
+        private final BigDecimal commission;
+        private final boolean commissionCompact;
+        private final long commissionUnscaled;
+        private final int commissionScale;
+
+        private Settings(PaymentValidator validator, BigDecimal commission) {
+            this.validator = validator;
+            this.commission = commission;
+            this.commissionCompact = ScaledDecimals.fits(commission);
+            this.commissionUnscaled = commissionCompact ? commission.unscaledValue().longValue() : 0;
+            this.commissionScale = commission.scale();
         }
     }
 }
@@ -0,0 +1,290 @@
+package com.example.batch.reader;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.util.NumberUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Mapeador de líneas escrito a mano para {@code payments.txt}. Recorre la línea en el lugar,
+ * sin {@code FieldSet} ni reflexión, y convierte números, enums y fechas ISO directamente a
+ * {@link Payment}, a sus campos primitivos cuando el valor cabe. Reproduce el resultado de {@link PaymentLineMappers#beanWrapper()}: mismo
+ * conteo estricto de columnas, campos recortados, vacío como null y fecha inválida como null
+ * (sin excepciones en el camino habitual). Las líneas con comillas se delegan al mapeador genérico.
+ */
+public class PaymentLineMapper implements LineMapper<Payment> {
+
+    private static final int FIELD_COUNT = PaymentLineMappers.FIELD_NAMES.length;
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY"};
+    private static final String[] STATUSES = {"PENDING"};
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    private final LineMapper<Payment> quotedLineMapper;
+
+    public PaymentLineMapper(LineMapper<Payment> quotedLineMapper) {
+        this.quotedLineMapper = quotedLineMapper;
+    }
+
+    @Override
+    public Payment mapLine(String line, int lineNumber) throws Exception {
+        return map(line, lineNumber);
+    }
+
+    public Payment map(CharSequence line, int lineNumber) throws Exception {
+        int length = line.length();
+        int delimiters = 0;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == DELIMITER) {
+                delimiters++;
+            } else if (c == QUOTE) {
+                return quotedLineMapper.mapLine(line.toString(), lineNumber);
+            }
+        }
+        int tokens = length == 0 ? 0 : delimiters + 1;
+        if (tokens != FIELD_COUNT) {
+            throw new IncorrectTokenCountException(FIELD_COUNT, tokens, line.toString());
+        }
+
+        // Igual que DefaultFieldSet, cada campo se recorta antes de convertirse
+        Payment payment = new Payment();
+        int start = 0;
+        int end = nextDelimiter(line, start);
+        setId(payment, line, trimStart(line, start, end), trimEnd(line, start, end));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        setAmount(payment, line, trimStart(line, start, end), trimEnd(line, start, end));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        payment.setCurrency(text(line, trimStart(line, start, end), trimEnd(line, start, end), CURRENCIES));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        payment.setStatus(text(line, trimStart(line, start, end), trimEnd(line, start, end), STATUSES));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        setPaymentDate(payment, line, trimStart(line, start, end), trimEnd(line, start, end));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        payment.setPaymentType(parsePaymentType(line, trimStart(line, start, end), trimEnd(line, start, end)));
+
+        start = end + 1;
+        end = nextDelimiter(line, start);
+        payment.setCustomerName(text(line, trimStart(line, start, end), trimEnd(line, start, end), null));
+
+        start = end + 1;
+        payment.setCustomerEmail(text(line, trimStart(line, start, length), trimEnd(line, start, length), null));
+        return payment;
+    }
+
+    private static int trimStart(CharSequence line, int start, int end) {
+        // Misma definición de espacio que String.trim()
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence line, int start, int end) {
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int nextDelimiter(CharSequence line, int from) {
+        int i = from;
+        while (line.charAt(i) != DELIMITER) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void setId(Payment payment, CharSequence line, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        if (end - start <= MAX_LONG_DIGITS) {
+            long value = 0;
+            int i = start;
+            for (; i < end; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == end) {
+                payment.setIdValue(value);
+                return;
+            }
+        }
+        // Signos, espacios o valores fuera de rango: misma semántica que la conversión de Spring
+        payment.setId(NumberUtils.parseNumber(line.subSequence(start, end).toString(), Long.class));
+    }
+
+    private static void setAmount(Payment payment, CharSequence line, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        int i = start;
+        boolean negative = line.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end && digits > 0 && digits <= MAX_LONG_DIGITS) {
+            payment.setAmount(negative ? -unscaled : unscaled, Math.max(scale, 0));
+            return;
+        }
+        payment.setAmount(NumberUtils.parseNumber(line.subSequence(start, end).toString(), BigDecimal.class));
+    }
+
+    /**
+     * Interpreta {@code yyyy-MM-ddTHH:mm[:ss]} sin pasar por {@link DateTimeFormatter}. Solo las
+     * variantes ISO poco habituales (fracciones, zona, años con signo) van al parser completo;
+     * cualquier otro texto deja la fecha en null directamente, como el conversor original.
+     */
+    private static void setPaymentDate(Payment payment, CharSequence line, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        int length = end - start;
+        if (length >= 16 && isDatePrefix(line, start)) {
+            if (length == 16 || (length == 19 && line.charAt(start + 16) == ':'
+                    && isDigit(line, start + 17) && isDigit(line, start + 18))) {
+                int year = digits(line, start, 4);
+                int month = digits(line, start + 5, 2);
+                int day = digits(line, start + 8, 2);
+                int hour = digits(line, start + 11, 2);
+                int minute = digits(line, start + 14, 2);
+                int second = length == 19 ? digits(line, start + 17, 2) : 0;
+                if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                        || hour > 23 || minute > 59 || second > 59) {
+                    return;
+                }
+                payment.setPaymentDate(epochDay(year, month, day) * SECONDS_PER_DAY
+                        + hour * 3600 + minute * 60 + second, 0);
+                return;
+            }
+            payment.setPaymentDate(parseIsoDateTime(line, start, end));
+            return;
+        }
+        char first = line.charAt(start);
+        if (first == '+' || first == '-') {
+            payment.setPaymentDate(parseIsoDateTime(line, start, end));
+        }
+    }
+
+    /**
+     * Días desde 1970-01-01 de una fecha ya validada, como {@code LocalDate.toEpochDay()} pero sin
+     * crear el LocalDate (algoritmo days_from_civil de H. Hinnant).
+     */
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static LocalDateTime parseIsoDateTime(CharSequence line, int start, int end) {
+        try {
+            return LocalDateTime.parse(line.subSequence(start, end), DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDatePrefix(CharSequence line, int start) {
+        char separator = line.charAt(start + 10);
+        return isDigit(line, start) && isDigit(line, start + 1) && isDigit(line, start + 2) && isDigit(line, start + 3)
+                && line.charAt(start + 4) == '-' && isDigit(line, start + 5) && isDigit(line, start + 6)
+                && line.charAt(start + 7) == '-' && isDigit(line, start + 8) && isDigit(line, start + 9)
+                && (separator == 'T' || separator == 't')
+                && isDigit(line, start + 11) && isDigit(line, start + 12) && line.charAt(start + 13) == ':'
+                && isDigit(line, start + 14) && isDigit(line, start + 15);
+    }
+
+    private static boolean isDigit(CharSequence line, int index) {
+        char c = line.charAt(index);
+        return c >= '0' && c <= '9';
+    }
+
+    private static int digits(CharSequence line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    static PaymentType parsePaymentType(CharSequence line, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        for (PaymentType type : PAYMENT_TYPES) {
+            if (regionEquals(line, start, end, type.name())) {
+                return type;
+            }
+        }
+        return PaymentType.valueOf(line.subSequence(start, end).toString());
+    }
+
+    private static String text(CharSequence line, int start, int end, String[] knownValues) {
+        if (knownValues != null) {
+            for (String value : knownValues) {
+                if (regionEquals(line, start, end, value)) {
+                    return value;
+                }
+            }
+        }
+        return line.subSequence(start, end).toString();
+    }
+
+    private static boolean regionEquals(CharSequence line, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (line.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
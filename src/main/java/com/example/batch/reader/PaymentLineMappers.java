@@ -0,0 +1,76 @@
+package com.example.batch.reader;
+
+import com.example.batch.model.Payment;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Fábrica de los mapeadores de líneas de {@code payments.txt}, seleccionados por
+ * {@code payment.reader.line-mapper}.
+ */
+public final class PaymentLineMappers {
+
+    public static final String FAST = "fast";
+    public static final String BEAN_WRAPPER = "bean-wrapper";
+
+    static final String[] FIELD_NAMES = {
+        "id", "amount", "currency", "status", "paymentDate", "paymentType", "customerName", "customerEmail"
+    };
+
+    private PaymentLineMappers() {
+    }
+
+    public static LineMapper<Payment> forType(String type) {
+        if (FAST.equals(type)) {
+            return fast();
+        }
+        if (BEAN_WRAPPER.equals(type)) {
+            return beanWrapper();
+        }
+        throw new IllegalArgumentException("Tipo de mapeador de líneas no soportado: " + type);
+    }
+
+    public static PaymentLineMapper fast() {
+        return new PaymentLineMapper(beanWrapper());
+    }
+
+    public static DefaultLineMapper<Payment> beanWrapper() {
+        DefaultLineMapper<Payment> lineMapper = new DefaultLineMapper<>();
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames(FIELD_NAMES);
+
+        BeanWrapperFieldSetMapper<Payment> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
+        fieldSetMapper.setTargetType(Payment.class);
+
+        DefaultConversionService conversionService = new DefaultConversionService();
+        conversionService.addConverter(new StringToLocalDateTimeConverter());
+        fieldSetMapper.setConversionService(conversionService);
+
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(fieldSetMapper);
+        return lineMapper;
+    }
+
+    static class StringToLocalDateTimeConverter implements Converter<String, LocalDateTime> {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+
+        @Override
+        public LocalDateTime convert(String source) {
+            if (source == null || source.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(source, formatter);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
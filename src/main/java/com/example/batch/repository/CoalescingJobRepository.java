@@ -0,0 +1,220 @@
+package com.example.batch.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JobRepository} que agrupa las actualizaciones de progreso de las ejecuciones de paso. En cada
+ * commit de chunk el paso guarda su ExecutionContext y su StepExecution; mientras el estado del paso
+ * no cambia, aquí solo se marcan como pendientes y se escriben juntas cada {@code flushEveryCommits}
+ * commits o cada {@code flushInterval}, lo que ocurra primero. Los cambios de estado (inicio, fin,
+ * fallo, detención) y todo lo que no es progreso de un paso se escriben en el momento.
+ *
+ * Lo que se escribe es siempre el ExecutionContext de un commit entero, así que la base queda en un
+ * punto de reinicio válido, solo que más viejo: si el proceso muere, el reinicio vuelve a leer desde
+ * el último punto escrito y los escritores truncan sus salidas a las posiciones de ese punto. Si el
+ * paso falla con una excepción, la escritura final lleva el contexto del último commit y el reinicio
+ * es el mismo que sin agrupar. Lo que se retrasa es lo que ven otros procesos: los contadores del
+ * paso y la detención pedida con {@code JobOperator.stop()}, que se detecta al escribir.
+ *
+ * El vaciado ocurre en el hilo del paso, dentro de la transacción del chunk, nunca desde otro hilo:
+ * así el contexto escrito no puede quedar a medio actualizar.
+ */
+@Slf4j
+public class CoalescingJobRepository implements JobRepository {
+
+    public static final String REQUESTED_METRIC = "payments.repository.step.updates.requested";
+    public static final String WRITTEN_METRIC = "payments.repository.step.updates.written";
+
+    private final JobRepository delegate;
+    private final int flushEveryCommits;
+    private final long flushIntervalNanos;
+    private final Map<Long, PendingStep> pending = new ConcurrentHashMap<>();
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    public CoalescingJobRepository(JobRepository delegate, int flushEveryCommits, long flushIntervalMillis) {
+        if (flushEveryCommits < 1 || flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Agrupamiento inválido: cada " + flushEveryCommits + " commits o "
+                    + flushIntervalMillis + " ms");
+        }
+        this.delegate = delegate;
+        this.flushEveryCommits = flushEveryCommits;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegate.add(stepExecution);
+        pending.put(stepExecution.getId(), new PendingStep(stepExecution.getStatus()));
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegate.addAll(stepExecutions);
+        for (StepExecution stepExecution : stepExecutions) {
+            pending.put(stepExecution.getId(), new PendingStep(stepExecution.getStatus()));
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        PendingStep step = pendingStep(stepExecution);
+        step.requested++;
+        requested.increment();
+        if (step.statusChanged(stepExecution)) {
+            writeContext(stepExecution, step);
+        } else {
+            step.context = true;
+        }
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        PendingStep step = pendingStep(stepExecution);
+        step.requested++;
+        requested.increment();
+        step.commits++;
+        if (step.statusChanged(stepExecution) || step.commits >= flushEveryCommits
+                || System.nanoTime() - step.lastFlush >= flushIntervalNanos) {
+            flush(stepExecution, step);
+        }
+    }
+
+    /**
+     * @return actualizaciones de pasos pedidas por Spring Batch (contexto y ejecución)
+     */
+    public long requestedCount() {
+        return requested.sum();
+    }
+
+    /**
+     * @return actualizaciones de pasos que llegaron al repositorio delegado
+     */
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(REQUESTED_METRIC, this, CoalescingJobRepository::requestedCount)
+                .description("Actualizaciones de ejecuciones de paso pedidas al repositorio de jobs")
+                .register(registry);
+        FunctionCounter.builder(WRITTEN_METRIC, this, CoalescingJobRepository::writtenCount)
+                .description("Actualizaciones de ejecuciones de paso escritas en el repositorio de jobs")
+                .register(registry);
+    }
+
+    private PendingStep pendingStep(StepExecution stepExecution) {
+        // Sin add() previo (otro repositorio creó la ejecución) el primer pedido se escribe siempre
+        return pending.computeIfAbsent(stepExecution.getId(), id -> new PendingStep(null));
+    }
+
+    private void flush(StepExecution stepExecution, PendingStep step) {
+        if (step.context) {
+            writeContext(stepExecution, step);
+        }
+        delegate.update(stepExecution);
+        step.written++;
+        written.increment();
+        step.status = stepExecution.getStatus();
+        step.commits = 0;
+        step.lastFlush = System.nanoTime();
+        if (!stepExecution.getStatus().isRunning()) {
+            pending.remove(stepExecution.getId());
+            log.info("Paso {}: {} actualizaciones de metadatos pedidas, {} escritas",
+                    stepExecution.getStepName(), step.requested, step.written);
+        }
+    }
+
+    private void writeContext(StepExecution stepExecution, PendingStep step) {
+        delegate.updateExecutionContext(stepExecution);
+        step.written++;
+        written.increment();
+        step.context = false;
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters,
+            String jobConfigurationLocation) {
+        return delegate.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegate.update(jobExecution);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    /**
+     * Estado de una ejecución de paso en curso. Solo lo usa el hilo de ese paso.
+     */
+    private static final class PendingStep {
+
+        /** Estado con el que la ejecución está escrita en el repositorio delegado. */
+        private BatchStatus status;
+        private boolean context;
+        private int commits;
+        private long requested;
+        private long written;
+        private long lastFlush = System.nanoTime();
+
+        private PendingStep(BatchStatus status) {
+            this.status = status;
+        }
+
+        private boolean statusChanged(StepExecution stepExecution) {
+            return stepExecution.getStatus() != status || !status.isRunning();
+        }
+    }
+}
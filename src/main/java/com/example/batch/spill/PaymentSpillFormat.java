@@ -0,0 +1,112 @@
+package com.example.batch.spill;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.LineAggregator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Formato de línea del canal de pagos rechazados: todos los campos de {@link Payment}
+ * separados por tabulador, con escape de caracteres de control y {@code \N} para null,
+ * de modo que la lectura devuelve exactamente el pago que se escribió.
+ */
+public class PaymentSpillFormat implements LineAggregator<Payment>, LineMapper<Payment> {
+
+    private static final char SEPARATOR = '\t';
+    private static final char ESCAPE = '\\';
+    private static final String NULL = "\\N";
+    private static final int FIELD_COUNT = 12;
+
+    @Override
+    public String aggregate(Payment payment) {
+        StringBuilder line = new StringBuilder(128);
+        append(line, payment.getId());
+        append(line, payment.getAmount());
+        append(line, payment.getCurrency());
+        append(line, payment.getStatus());
+        append(line, payment.getPaymentDate());
+        append(line, payment.getPaymentType() != null ? payment.getPaymentType().name() : null);
+        append(line, payment.getCustomerName());
+        append(line, payment.getCustomerEmail());
+        append(line, payment.getAmountInUSD());
+        append(line, payment.getCommission());
+        append(line, payment.getValidationStatus());
+        append(line, payment.getErrorMessage());
+        line.setLength(line.length() - 1);
+        return line.toString();
+    }
+
+    @Override
+    public Payment mapLine(String line, int lineNumber) {
+        String[] fields = split(line, lineNumber);
+        Payment payment = new Payment();
+        payment.setId(fields[0] != null ? Long.valueOf(fields[0]) : null);
+        payment.setAmount(fields[1] != null ? new BigDecimal(fields[1]) : null);
+        payment.setCurrency(fields[2]);
+        payment.setStatus(fields[3]);
+        payment.setPaymentDate(fields[4] != null ? LocalDateTime.parse(fields[4]) : null);
+        payment.setPaymentType(fields[5] != null ? PaymentType.valueOf(fields[5]) : null);
+        payment.setCustomerName(fields[6]);
+        payment.setCustomerEmail(fields[7]);
+        payment.setAmountInUSD(fields[8] != null ? new BigDecimal(fields[8]) : null);
+        payment.setCommission(fields[9] != null ? new BigDecimal(fields[9]) : null);
+        payment.setValidationStatus(fields[10]);
+        payment.setErrorMessage(fields[11]);
+        return payment;
+    }
+
+    private static void append(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append(NULL);
+        } else {
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '\t': line.append(ESCAPE).append('t'); break;
+                    case '\n': line.append(ESCAPE).append('n'); break;
+                    case '\r': line.append(ESCAPE).append('r'); break;
+                    case ESCAPE: line.append(ESCAPE).append(ESCAPE); break;
+                    default: line.append(c);
+                }
+            }
+        }
+        line.append(SEPARATOR);
+    }
+
+    private static String[] split(String line, int lineNumber) {
+        String[] fields = new String[FIELD_COUNT];
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+        int index = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            char c = i < line.length() ? line.charAt(i) : SEPARATOR;
+            if (c == SEPARATOR) {
+                if (index >= FIELD_COUNT) {
+                    throw new IllegalStateException("Línea " + lineNumber + " del canal de rechazados tiene más de " + FIELD_COUNT + " campos");
+                }
+                fields[index++] = isNull ? null : field.toString();
+                field.setLength(0);
+                isNull = false;
+            } else if (c == ESCAPE && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 't': field.append('\t'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    case 'N': isNull = true; break;
+                    default: field.append(next);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        if (index != FIELD_COUNT) {
+            throw new IllegalStateException("Línea " + lineNumber + " del canal de rechazados tiene " + index + " campos, se esperaban " + FIELD_COUNT);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.batch.spill;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Borra el canal de rechazados cuando el paso que lo consume termina bien. Si el paso falla el
+ * archivo se conserva, porque el reinicio lo vuelve a leer desde el último commit.
+ */
+@Slf4j
+public class SpillFileCleanupListener implements StepExecutionListener {
+
+    private final Path spillFile;
+
+    public SpillFileCleanupListener(Path spillFile) {
+        this.spillFile = spillFile;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (!ExitStatus.COMPLETED.getExitCode().equals(stepExecution.getExitStatus().getExitCode())) {
+            return null;
+        }
+        try {
+            if (Files.deleteIfExists(spillFile)) {
+                log.info("Canal de rechazados {} borrado", spillFile);
+            }
+        } catch (IOException e) {
+            // Las salidas ya están completas: no vale la pena fallar el paso por esto
+            log.warn("No se pudo borrar el canal de rechazados {}: {}", spillFile, e.getMessage());
+        }
+        return null;
+    }
+}
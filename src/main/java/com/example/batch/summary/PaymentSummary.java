@@ -0,0 +1,318 @@
+package com.example.batch.summary;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.model.ScaledDecimals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de pagos por moneda, tipo de pago y hora de la fecha de pago: cantidad, rechazados y
+ * sumas de importe, importe en USD y comisión.
+ *
+ * Los acumuladores son {@link LongAdder}, repartidos en celdas por hilo, así que varios hilos pueden
+ * sumar a la vez sin contención. Los importes se suman como valores sin escalar con
+ * {@link #SUM_SCALE} decimales; los que no caben en un long van a un resto {@link BigDecimal}
+ * sincronizado. El estado se serializa como texto, una línea por grupo.
+ */
+public class PaymentSummary {
+
+    /** Decimales con los que se acumulan los importes. */
+    public static final int SUM_SCALE = 4;
+
+    static final String HEADER = "currency|paymentType|hour|count|rejected|amount|amountInUSD|commission";
+
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final long NO_HOUR = Long.MIN_VALUE;
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private static final Comparator<Key> KEY_ORDER = Comparator
+            .comparing((Key key) -> key.currency, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(key -> key.paymentType, Comparator.nullsFirst(Comparator.<PaymentType>naturalOrder()))
+            .thenComparingLong(key -> key.hour);
+
+    private final ConcurrentHashMap<Key, Totals> totals = new ConcurrentHashMap<>();
+
+    public void add(List<? extends Payment> payments) {
+        add(payments, 1);
+    }
+
+    /**
+     * Quita pagos sumados antes, por ejemplo los de un chunk que terminó en rollback.
+     */
+    public void subtract(List<? extends Payment> payments) {
+        add(payments, -1);
+    }
+
+    private void add(List<? extends Payment> payments, int sign) {
+        // Una clave de búsqueda reutilizable: solo se copia cuando el grupo es nuevo
+        Key probe = new Key();
+        for (Payment payment : payments) {
+            probe.set(payment.getCurrency(), payment.getPaymentType(), hour(payment));
+            Totals group = totals.get(probe);
+            if (group == null) {
+                group = totals.computeIfAbsent(probe.copy(), key -> new Totals());
+            }
+            group.add(payment, sign);
+        }
+    }
+
+    private static long hour(Payment payment) {
+        return payment.hasPaymentDate() ? Math.floorDiv(payment.getPaymentEpochSecond(), SECONDS_PER_HOUR) : NO_HOUR;
+    }
+
+    public boolean isEmpty() {
+        return totals.isEmpty();
+    }
+
+    /**
+     * Suma los totales de otro resumen, por ejemplo el de otra partición.
+     */
+    public void merge(PaymentSummary other) {
+        other.totals.forEach((key, group) -> totals.computeIfAbsent(key, k -> new Totals()).add(group));
+    }
+
+    /**
+     * Estado serializado: una línea por grupo con sus campos separados por tabulador.
+     */
+    public String toState() {
+        StringBuilder state = new StringBuilder();
+        totals.forEach((key, group) -> {
+            if (group.count.sum() == 0) {
+                return;
+            }
+            state.append(key.currency != null ? key.currency : "").append(FIELD_SEPARATOR)
+                    .append(key.paymentType != null ? key.paymentType.name() : "").append(FIELD_SEPARATOR)
+                    .append(key.hour).append(FIELD_SEPARATOR)
+                    .append(group.count.sum()).append(FIELD_SEPARATOR)
+                    .append(group.rejected.sum()).append(FIELD_SEPARATOR)
+                    .append(group.amount.sum().toPlainString()).append(FIELD_SEPARATOR)
+                    .append(group.amountInUsd.sum().toPlainString()).append(FIELD_SEPARATOR)
+                    .append(group.commission.sum().toPlainString()).append('\n');
+        });
+        return state.toString();
+    }
+
+    public static PaymentSummary fromState(String state) {
+        PaymentSummary summary = new PaymentSummary();
+        for (String line : state.split("\n")) {
+            summary.addState(line);
+        }
+        return summary;
+    }
+
+    /**
+     * Suma el estado leído línea por línea; las claves repetidas se acumulan, así que admite varios
+     * estados seguidos, como los parciales de cada chunk en el diario de {@link PaymentSummaryWriter}.
+     */
+    public static PaymentSummary fromState(BufferedReader state) throws IOException {
+        PaymentSummary summary = new PaymentSummary();
+        for (String line = state.readLine(); line != null; line = state.readLine()) {
+            summary.addState(line);
+        }
+        return summary;
+    }
+
+    private void addState(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        String[] fields = line.split(FIELD_SEPARATOR, -1);
+        if (fields.length != 8) {
+            throw new IllegalArgumentException("Línea de estado del resumen inválida: " + line);
+        }
+        Key key = new Key();
+        key.set(fields[0].isEmpty() ? null : fields[0],
+                fields[1].isEmpty() ? null : PaymentType.valueOf(fields[1]), Long.parseLong(fields[2]));
+        Totals group = totals.computeIfAbsent(key, k -> new Totals());
+        group.count.add(Long.parseLong(fields[3]));
+        group.rejected.add(Long.parseLong(fields[4]));
+        group.amount.add(new BigDecimal(fields[5]), 1);
+        group.amountInUsd.add(new BigDecimal(fields[6]), 1);
+        group.commission.add(new BigDecimal(fields[7]), 1);
+    }
+
+    /**
+     * Escribe el resumen ordenado por moneda, tipo de pago y hora, con los campos separados por "|".
+     */
+    public void writeTo(Writer out) {
+        // Los grupos que solo tuvieron chunks deshechos quedan en cero y no se listan
+        List<Map.Entry<Key, Totals>> groups = new ArrayList<>();
+        for (Map.Entry<Key, Totals> entry : totals.entrySet()) {
+            if (entry.getValue().count.sum() != 0) {
+                groups.add(entry);
+            }
+        }
+        groups.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        try {
+            out.write(HEADER);
+            out.write('\n');
+            for (Map.Entry<Key, Totals> entry : groups) {
+                Key key = entry.getKey();
+                Totals group = entry.getValue();
+                out.write(key.currency != null ? key.currency : "");
+                out.write('|');
+                out.write(key.paymentType != null ? key.paymentType.name() : "");
+                out.write('|');
+                out.write(key.hour != NO_HOUR
+                        ? LocalDateTime.ofEpochSecond(key.hour * SECONDS_PER_HOUR, 0, ZoneOffset.UTC).toString()
+                        : "");
+                out.write('|');
+                out.write(Long.toString(group.count.sum()));
+                out.write('|');
+                out.write(Long.toString(group.rejected.sum()));
+                out.write('|');
+                out.write(format(group.amount.sum()));
+                out.write('|');
+                out.write(format(group.amountInUsd.sum()));
+                out.write('|');
+                out.write(format(group.commission.sum()));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el resumen de pagos", e);
+        }
+    }
+
+    private static String format(BigDecimal sum) {
+        // Sin los ceros de la escala de acumulación, pero siempre con al menos dos decimales
+        BigDecimal value = sum.stripTrailingZeros();
+        return (value.scale() < 2 ? value.setScale(2) : value).toPlainString();
+    }
+
+    /**
+     * Moneda, tipo de pago y hora desde la época (UTC) de un grupo.
+     */
+    private static final class Key {
+
+        private String currency;
+        private PaymentType paymentType;
+        private long hour;
+        private int hash;
+
+        private void set(String currency, PaymentType paymentType, long hour) {
+            this.currency = currency;
+            this.paymentType = paymentType;
+            this.hour = hour;
+            this.hash = (Objects.hashCode(currency) * 31 + Objects.hashCode(paymentType)) * 31 + Long.hashCode(hour);
+        }
+
+        private Key copy() {
+            Key copy = new Key();
+            copy.set(currency, paymentType, hour);
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hour == key.hour && paymentType == key.paymentType && Objects.equals(currency, key.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Totals {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final DecimalAdder amount = new DecimalAdder();
+        private final DecimalAdder amountInUsd = new DecimalAdder();
+        private final DecimalAdder commission = new DecimalAdder();
+
+        private void add(Payment payment, int sign) {
+            count.add(sign);
+            if (!"PROCESSED".equals(payment.getStatus())) {
+                rejected.add(sign);
+            }
+            if (payment.isAmountCompact()) {
+                amount.add(payment.getAmountUnscaled(), payment.getAmountScale(), sign);
+            } else {
+                amount.add(payment.getAmount(), sign);
+            }
+            if (payment.isAmountInUSDCompact()) {
+                amountInUsd.add(payment.getAmountInUSDUnscaled(), payment.getAmountInUSDScale(), sign);
+            } else {
+                amountInUsd.add(payment.getAmountInUSD(), sign);
+            }
+            if (payment.isCommissionCompact()) {
+                commission.add(payment.getCommissionUnscaled(), payment.getCommissionScale(), sign);
+            } else {
+                commission.add(payment.getCommission(), sign);
+            }
+        }
+
+        private void add(Totals other) {
+            count.add(other.count.sum());
+            rejected.add(other.rejected.sum());
+            amount.add(other.amount.sum(), 1);
+            amountInUsd.add(other.amountInUsd.sum(), 1);
+            commission.add(other.commission.sum(), 1);
+        }
+    }
+
+    /**
+     * Suma decimal sobre un {@link LongAdder} de valores con {@link #SUM_SCALE} decimales.
+     */
+    private static final class DecimalAdder {
+
+        private final LongAdder unscaled = new LongAdder();
+        private BigDecimal overflow = BigDecimal.ZERO;
+
+        private void add(long value, int scale, int sign) {
+            if (scale <= SUM_SCALE) {
+                try {
+                    long scaled = Math.multiplyExact(value, ScaledDecimals.pow10(SUM_SCALE - scale));
+                    unscaled.add(sign < 0 ? Math.negateExact(scaled) : scaled);
+                    return;
+                } catch (ArithmeticException e) {
+                    // Sigue por el resto BigDecimal
+                }
+            }
+            addOverflow(BigDecimal.valueOf(value, scale), sign);
+        }
+
+        private void add(BigDecimal value, int sign) {
+            if (value == null) {
+                return;
+            }
+            if (ScaledDecimals.fits(value)) {
+                add(value.unscaledValue().longValue(), value.scale(), sign);
+            } else {
+                addOverflow(value, sign);
+            }
+        }
+
+        private void addOverflow(BigDecimal value, int sign) {
+            synchronized (this) {
+                overflow = sign < 0 ? overflow.subtract(value) : overflow.add(value);
+            }
+        }
+
+        private BigDecimal sum() {
+            BigDecimal sum = BigDecimal.valueOf(unscaled.sum(), SUM_SCALE);
+            synchronized (this) {
+                return overflow.signum() == 0 ? sum : sum.add(overflow);
+            }
+        }
+    }
+}
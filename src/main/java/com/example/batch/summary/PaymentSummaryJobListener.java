@@ -0,0 +1,126 @@
+package com.example.batch.summary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Escribe el archivo de resumen cuando el job termina bien. Junta los diarios que cada
+ * {@link PaymentSummaryWriter} anotó en el ExecutionContext de su paso, hasta los bytes confirmados:
+ * de cada paso toma la última ejecución de la instancia, así que cubre tanto los reinicios como las
+ * particiones. El archivo se escribe en uno temporal y se mueve, por lo que nunca queda a medias;
+ * después se borran los diarios. Si el job falla, quedan para el reinicio.
+ */
+@Slf4j
+public class PaymentSummaryJobListener implements JobExecutionListener {
+
+    private final JobExplorer jobExplorer;
+    private final String writerName;
+    private final Function<JobParameters, Path> file;
+
+    /**
+     * @param file archivo del resumen según los parámetros del job, que pueden cambiar el directorio de salida
+     */
+    public PaymentSummaryJobListener(JobExplorer jobExplorer, String writerName, Function<JobParameters, Path> file) {
+        this.jobExplorer = jobExplorer;
+        this.writerName = writerName;
+        this.file = file;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            log.info("El job terminó con estado {}, no se escribe el resumen de pagos", jobExecution.getStatus());
+            return;
+        }
+        Path target = file.apply(jobExecution.getJobParameters());
+        Map<String, StepExecution> latest = latestStepExecutions(jobExecution);
+        write(summary(latest), target);
+        log.info("Resumen de pagos escrito en {}", target);
+        deleteJournals(latest);
+    }
+
+    PaymentSummary summary(JobExecution jobExecution) {
+        return summary(latestStepExecutions(jobExecution));
+    }
+
+    private Map<String, StepExecution> latestStepExecutions(JobExecution jobExecution) {
+        // Un paso reiniciado tiene una ejecución por intento; la última trae los bytes confirmados del diario
+        Map<String, StepExecution> latest = new HashMap<>();
+        for (JobExecution execution : jobExplorer.getJobExecutions(jobExecution.getJobInstance())) {
+            for (StepExecution step : execution.getStepExecutions()) {
+                latest.merge(step.getStepName(), step, (a, b) -> a.getId() > b.getId() ? a : b);
+            }
+        }
+        return latest;
+    }
+
+    private PaymentSummary summary(Map<String, StepExecution> latest) {
+        PaymentSummary summary = new PaymentSummary();
+        for (StepExecution step : latest.values()) {
+            try {
+                PaymentSummary part = PaymentSummaryWriter.committed(step.getExecutionContext(), writerName + ".");
+                if (part != null) {
+                    summary.merge(part);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el diario del resumen del paso " + step.getStepName(),
+                        e);
+            }
+        }
+        return summary;
+    }
+
+    private void deleteJournals(Map<String, StepExecution> latest) {
+        for (StepExecution step : latest.values()) {
+            Path journal = PaymentSummaryWriter.journalFile(step.getExecutionContext(), writerName + ".");
+            if (journal == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(journal);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el diario del resumen {}", journal, e);
+            }
+        }
+    }
+
+    private static void write(PaymentSummary summary, Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                summary.writeTo(out);
+            }
+            // createTempFile deja el archivo solo para el dueño; el resumen lo leen los operadores
+            if (Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el resumen de pagos en " + file, e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.batch.summary;
+
+import com.example.batch.model.Payment;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Acumula en un {@link PaymentSummary} los pagos que escribe el paso. Los totales se suman al
+ * escribir el chunk y se restan si su transacción termina en rollback.
+ *
+ * Los totales no se guardan en el ExecutionContext: con muchas monedas, tipos y horas serían un
+ * estado grande reescrito en cada commit. En cada commit se agregan a un diario en disco solo los
+ * totales del chunk, y el ExecutionContext guarda la ruta del diario y cuántos bytes confirmados
+ * tiene. Al reiniciar, el diario se trunca a esa longitud y se vuelve a sumar, con exactamente los
+ * chunks confirmados; el {@link PaymentSummaryJobListener} lo lee igual y lo borra al terminar bien.
+ */
+public class PaymentSummaryWriter extends ItemStreamSupport implements ItemStreamWriter<Payment> {
+
+    /** Clave, sin el prefijo del nombre del escritor, de la ruta del diario. */
+    public static final String JOURNAL_KEY = "journal";
+
+    /** Clave, sin el prefijo del nombre del escritor, de los bytes confirmados del diario. */
+    public static final String LENGTH_KEY = "journal.length";
+
+    private final Path journalDirectory;
+
+    private PaymentSummary summary = new PaymentSummary();
+    private PaymentSummary pending = new PaymentSummary();
+    private Path journalFile;
+    private FileChannel journal;
+    private long journalLength;
+    private long committedLength;
+    private long appends;
+
+    /**
+     * @param journalDirectory directorio donde se crea el diario de cada ejecución nueva del paso
+     */
+    public PaymentSummaryWriter(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
+        setName(PaymentSummaryWriter.class.getSimpleName());
+    }
+
+    public PaymentSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        summary = new PaymentSummary();
+        pending = new PaymentSummary();
+        appends = 0;
+        journalFile = journalFile(executionContext, getExecutionContextKey(""));
+        try {
+            if (journalFile != null) {
+                committedLength = executionContext.getLong(getExecutionContextKey(LENGTH_KEY));
+                journal = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                // Lo que quedó después del último commit es de chunks que se van a volver a procesar
+                summary = replay(journal, committedLength, journalFile);
+                journal.truncate(committedLength);
+                journal.position(committedLength);
+            } else {
+                Files.createDirectories(journalDirectory);
+                journalFile = Files.createTempFile(journalDirectory, "payment-summary-", ".journal");
+                journal = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+                committedLength = 0;
+            }
+            journalLength = committedLength;
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el diario del resumen " + journalFile, e);
+        }
+    }
+
+    @Override
+    public void write(List<? extends Payment> items) {
+        summary.add(items);
+        pending.add(items);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long appendsBefore = appends;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        committedLength = journalLength;
+                        return;
+                    }
+                    summary.subtract(items);
+                    if (appends == appendsBefore) {
+                        pending.subtract(items);
+                    } else {
+                        // update() ya los pasó al diario
+                        truncateJournal();
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (!pending.isEmpty()) {
+            ByteBuffer delta = ByteBuffer.wrap(pending.toState().getBytes(StandardCharsets.UTF_8));
+            try {
+                while (delta.hasRemaining()) {
+                    journalLength += journal.write(delta);
+                }
+            } catch (IOException e) {
+                throw new ItemStreamException("No se pudo escribir el diario del resumen " + journalFile, e);
+            }
+            pending = new PaymentSummary();
+            appends++;
+        }
+        executionContext.putString(getExecutionContextKey(JOURNAL_KEY), journalFile.toString());
+        executionContext.putLong(getExecutionContextKey(LENGTH_KEY), journalLength);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committedLength = journalLength;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el diario del resumen " + journalFile, e);
+        } finally {
+            journal = null;
+        }
+    }
+
+    private void truncateJournal() {
+        if (journalLength == committedLength) {
+            return;
+        }
+        try {
+            journal.truncate(committedLength);
+            journal.position(committedLength);
+            journalLength = committedLength;
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo deshacer el diario del resumen " + journalFile, e);
+        }
+    }
+
+    /**
+     * Diario que un escritor con el prefijo de claves {@code prefix} ({@code nombre.}) dejó en el
+     * contexto de un paso, o null si no dejó ninguno.
+     */
+    static Path journalFile(ExecutionContext executionContext, String prefix) {
+        String key = prefix + JOURNAL_KEY;
+        return executionContext.containsKey(key) ? Paths.get(executionContext.getString(key)) : null;
+    }
+
+    /**
+     * Totales de los chunks confirmados según el contexto de un paso, o null si el escritor no dejó
+     * diario en él.
+     */
+    static PaymentSummary committed(ExecutionContext executionContext, String prefix) throws IOException {
+        Path file = journalFile(executionContext, prefix);
+        if (file == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return replay(channel, executionContext.getLong(prefix + LENGTH_KEY), file);
+        }
+    }
+
+    private static PaymentSummary replay(FileChannel channel, long length, Path file) throws IOException {
+        if (channel.size() < length) {
+            throw new IOException("El diario del resumen " + file + " tiene menos de los " + length
+                    + " bytes confirmados");
+        }
+        channel.position(0);
+        // Sin cerrar el lector: cerraría el canal, que sigue en uso
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new LimitedInputStream(Channels.newInputStream(channel), length), StandardCharsets.UTF_8), 1 << 16);
+        return PaymentSummary.fromState(reader);
+    }
+
+    /**
+     * Corta la lectura en los bytes confirmados.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.batch.validation;
+
+import com.example.batch.model.Payment;
+
+/**
+ * Regla de validación de un pago. {@link #accepts} se evalúa para cada pago, por lo que no debe
+ * lanzar excepciones ni reservar memoria; el mensaje solo se arma cuando el pago se rechaza.
+ */
+public interface PaymentRule {
+
+    RejectReason reason();
+
+    boolean accepts(Payment payment);
+
+    String rejectMessage(Payment payment);
+}
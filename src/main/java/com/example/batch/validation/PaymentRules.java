@@ -0,0 +1,139 @@
+package com.example.batch.validation;
+
+import com.example.batch.model.Payment;
+import com.example.batch.model.ScaledDecimals;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reglas de validación disponibles. Los mensajes de rechazo son los mismos que usaba
+ * {@code PaymentItemProcessor} antes de pasar a la cadena de reglas.
+ */
+public final class PaymentRules {
+
+    private PaymentRules() {
+    }
+
+    public static PaymentRule idRequired() {
+        return rule(RejectReason.ID_REQUIRED, Payment::hasId, payment -> "Id del pago es requerido");
+    }
+
+    public static PaymentRule minAmount(double minAmount) {
+        ToIntFunction<Payment> comparison = amountComparison(BigDecimal.valueOf(minAmount));
+        String message = "El monto es menor al mínimo permitido: " + minAmount;
+        return rule(RejectReason.AMOUNT_BELOW_MINIMUM, payment -> comparison.applyAsInt(payment) >= 0,
+                payment -> message);
+    }
+
+    public static PaymentRule maxAmount(double maxAmount) {
+        ToIntFunction<Payment> comparison = amountComparison(BigDecimal.valueOf(maxAmount));
+        String message = "El monto es mayor al máximo permitido: " + maxAmount;
+        return rule(RejectReason.AMOUNT_ABOVE_MAXIMUM, payment -> comparison.applyAsInt(payment) <= 0,
+                payment -> message);
+    }
+
+    /**
+     * Compara el importe del pago con el límite; los importes compactos se comparan como long.
+     */
+    private static ToIntFunction<Payment> amountComparison(BigDecimal limit) {
+        if (!ScaledDecimals.fits(limit)) {
+            return payment -> payment.getAmount().compareTo(limit);
+        }
+        long limitUnscaled = limit.unscaledValue().longValue();
+        int limitScale = limit.scale();
+        return payment -> payment.isAmountCompact()
+                ? ScaledDecimals.compare(payment.getAmountUnscaled(), payment.getAmountScale(), limitUnscaled, limitScale)
+                : payment.getAmount().compareTo(limit);
+    }
+
+    public static PaymentRule supportedCurrency(Collection<String> currencies) {
+        // HashSet admite contains(null): una moneda vacía se rechaza igual que una desconocida
+        Set<String> supported = new HashSet<>(currencies);
+        return rule(RejectReason.UNSUPPORTED_CURRENCY, payment -> supported.contains(payment.getCurrency()),
+                payment -> "Moneda no soportada: " + payment.getCurrency());
+    }
+
+    public static PaymentRule emailRequired() {
+        return rule(RejectReason.EMAIL_REQUIRED,
+                payment -> payment.getCustomerEmail() != null && !payment.getCustomerEmail().isEmpty(),
+                payment -> "Email del cliente es requerido");
+    }
+
+    public static PaymentRule emailFormat() {
+        return rule(RejectReason.EMAIL_INVALID, payment -> isValidEmail(payment.getCustomerEmail()),
+                payment -> "Formato de email inválido: " + payment.getCustomerEmail());
+    }
+
+    public static PaymentRule paymentTypeRequired() {
+        return rule(RejectReason.PAYMENT_TYPE_REQUIRED, payment -> payment.getPaymentType() != null,
+                payment -> "Tipo de pago es requerido");
+    }
+
+    public static PaymentRule paymentDateRequired() {
+        return rule(RejectReason.PAYMENT_DATE_REQUIRED, Payment::hasPaymentDate,
+                payment -> "Fecha de pago es requerida");
+    }
+
+    /**
+     * Equivale a {@code ^[A-Za-z0-9+_.-]+@(.+)$}: una parte local no vacía con esos caracteres,
+     * la primera arroba y al menos un carácter después, sin terminadores de línea.
+     */
+    static boolean isValidEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = 0;
+        while (at < length && isLocalPartChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at >= length - 1 || email.charAt(at) != '@') {
+            return false;
+        }
+        for (int i = at + 1; i < length; i++) {
+            if (isLineTerminator(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static PaymentRule rule(RejectReason reason, Predicate<Payment> accepts, Function<Payment, String> message) {
+        return new PaymentRule() {
+            @Override
+            public RejectReason reason() {
+                return reason;
+            }
+
+            @Override
+            public boolean accepts(Payment payment) {
+                return accepts.test(payment);
+            }
+
+            @Override
+            public String rejectMessage(Payment payment) {
+                return message.apply(payment);
+            }
+
+            @Override
+            public String toString() {
+                return reason.name();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.batch.validation;
+
+import com.example.batch.model.Payment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cadena de reglas compilada una vez por paso. {@link #validate} recorre un arreglo fijo de
+ * reglas y devuelve la primera que rechaza el pago, sin excepciones en el camino de rechazo.
+ */
+public final class PaymentValidator {
+
+    public static final String ID = "id";
+    public static final String AMOUNT = "amount";
+    public static final String CURRENCY = "currency";
+    public static final String EMAIL = "email";
+    public static final String PAYMENT_TYPE = "payment-type";
+    public static final String PAYMENT_DATE = "payment-date";
+
+    /** Orden original de las validaciones de PaymentItemProcessor. */
+    public static final List<String> DEFAULT_RULES = List.of(AMOUNT, CURRENCY, EMAIL, PAYMENT_TYPE, PAYMENT_DATE);
+
+    private final PaymentRule[] rules;
+
+    public PaymentValidator(List<PaymentRule> rules) {
+        this.rules = rules.toArray(new PaymentRule[0]);
+    }
+
+    /**
+     * Arma la cadena a partir de los nombres configurados en {@code payment.validation.rules}, en
+     * el orden dado.
+     */
+    public static PaymentValidator compile(List<String> ruleNames, double minAmount, double maxAmount,
+                                           Collection<String> supportedCurrencies) {
+        List<PaymentRule> rules = new ArrayList<>();
+        for (String name : ruleNames) {
+            switch (name.trim()) {
+                case ID:
+                    rules.add(PaymentRules.idRequired());
+                    break;
+                case AMOUNT:
+                    rules.add(PaymentRules.minAmount(minAmount));
+                    rules.add(PaymentRules.maxAmount(maxAmount));
+                    break;
+                case CURRENCY:
+                    rules.add(PaymentRules.supportedCurrency(supportedCurrencies));
+                    break;
+                case EMAIL:
+                    rules.add(PaymentRules.emailRequired());
+                    rules.add(PaymentRules.emailFormat());
+                    break;
+                case PAYMENT_TYPE:
+                    rules.add(PaymentRules.paymentTypeRequired());
+                    break;
+                case PAYMENT_DATE:
+                    rules.add(PaymentRules.paymentDateRequired());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Regla de validación desconocida: " + name);
+            }
+        }
+        return new PaymentValidator(rules);
+    }
+
+    /**
+     * @return la primera regla que rechaza el pago, o null si el pago es válido
+     */
+    public PaymentRule validate(Payment payment) {
+        for (PaymentRule rule : rules) {
+            if (!rule.accepts(payment)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(rules);
+    }
+}
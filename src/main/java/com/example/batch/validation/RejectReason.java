@@ -0,0 +1,21 @@
+package com.example.batch.validation;
+
+/**
+ * Motivo por el que se rechaza un pago: la regla de validación que falló, un pago repetido, un
+ * cliente bloqueado, la falta de tipo de cambio o la falta de id cuando se guarda en la base. Los valores nuevos van al final: el formato
+ * columnar guarda el ordinal.
+ */
+public enum RejectReason {
+    AMOUNT_BELOW_MINIMUM,
+    AMOUNT_ABOVE_MAXIMUM,
+    UNSUPPORTED_CURRENCY,
+    EMAIL_REQUIRED,
+    EMAIL_INVALID,
+    PAYMENT_TYPE_REQUIRED,
+    PAYMENT_DATE_REQUIRED,
+    FX_RATE_NOT_FOUND,
+    DUPLICATE_ID,
+    DUPLICATE_PAYMENT,
+    CUSTOMER_BLOCKED,
+    ID_REQUIRED
+}
@@ -0,0 +1,19 @@
+package com.example.batch.writer;
+
+/**
+ * Columnas de {@link com.example.batch.model.Payment} que pueden aparecer en los archivos de salida.
+ */
+public enum PaymentColumn {
+    ID,
+    AMOUNT,
+    CURRENCY,
+    STATUS,
+    PAYMENT_DATE,
+    PAYMENT_TYPE,
+    CUSTOMER_NAME,
+    CUSTOMER_EMAIL,
+    AMOUNT_IN_USD,
+    COMMISSION,
+    VALIDATION_STATUS,
+    ERROR_MESSAGE
+}
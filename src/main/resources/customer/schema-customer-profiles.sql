@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS CUSTOMER_PROFILES (
+    EMAIL           VARCHAR(254)  NOT NULL,
+    RISK_TIER       VARCHAR(16),
+    COMMISSION_RATE DECIMAL(9, 6),
+    BLOCKED         BOOLEAN       DEFAULT FALSE NOT NULL,
+    PRIMARY KEY (EMAIL)
+);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS FX_RATES (
+    CURRENCY       CHAR(3)        NOT NULL,
+    EFFECTIVE_DATE DATE           NOT NULL,
+    RATE_TO_USD    DECIMAL(19, 8) NOT NULL,
+    PRIMARY KEY (CURRENCY, EFFECTIVE_DATE)
+);
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS PROCESSED_PAYMENTS (
+    ID                BIGINT         NOT NULL,
+    AMOUNT            DECIMAL(19, 4) NOT NULL,
+    CURRENCY          CHAR(3)        NOT NULL,
+    STATUS            VARCHAR(20)    NOT NULL,
+    PAYMENT_DATE      DATETIME       NOT NULL,
+    PAYMENT_TYPE      VARCHAR(20)    NOT NULL,
+    CUSTOMER_NAME     VARCHAR(255),
+    CUSTOMER_EMAIL    VARCHAR(255),
+    AMOUNT_IN_USD     DECIMAL(19, 4) NOT NULL,
+    COMMISSION        DECIMAL(19, 4) NOT NULL,
+    VALIDATION_STATUS VARCHAR(20),
+    PRIMARY KEY (ID)
+);
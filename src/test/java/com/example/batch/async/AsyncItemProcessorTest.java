@@ -0,0 +1,153 @@
+package com.example.batch.async;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncItemProcessorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+        executor = ProcessorExecutors.create(ProcessorExecutors.POOL, 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void write_itemsFinishingOutOfOrder_keepsChunkOrder() throws Exception {
+        ItemProcessor<Integer, String> slow = item -> {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            return "item-" + item;
+        };
+        AsyncItemProcessor<Integer, String> processor = new AsyncItemProcessor<>(slow, executor);
+        List<String> written = new ArrayList<>();
+        AsyncItemWriter<String> writer = new AsyncItemWriter<>(written::addAll);
+
+        List<Future<String>> futures = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(processor.process(i));
+            expected.add("item-" + i);
+        }
+        writer.write(futures);
+
+        assertEquals(expected, written);
+    }
+
+    @Test
+    void write_nullResults_areFiltered() throws Exception {
+        AsyncItemProcessor<Integer, Integer> processor =
+                new AsyncItemProcessor<>(item -> item % 2 == 0 ? item : null, executor);
+        List<Integer> written = new ArrayList<>();
+
+        new AsyncItemWriter<Integer>(written::addAll).write(List.of(
+                processor.process(1), processor.process(2), processor.process(3), processor.process(4)));
+
+        assertEquals(List.of(2, 4), written);
+    }
+
+    @Test
+    void write_failedItem_rethrowsOriginalException() throws Exception {
+        AsyncItemProcessor<Integer, Integer> processor = new AsyncItemProcessor<>(item -> {
+            if (item == 2) {
+                throw new IllegalStateException("pago 2 inválido");
+            }
+            return item;
+        }, executor);
+        List<Integer> written = new ArrayList<>();
+        AsyncItemWriter<Integer> writer = new AsyncItemWriter<>(written::addAll);
+        List<Future<Integer>> futures = List.of(processor.process(1), processor.process(2), processor.process(3));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> writer.write(futures));
+
+        assertEquals("pago 2 inválido", e.getMessage());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void process_registersStepContextOnWorkerThread() throws Exception {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            AsyncItemProcessor<Integer, StepExecution> processor = new AsyncItemProcessor<>(
+                    item -> StepSynchronizationManager.getContext().getStepExecution(), executor);
+
+            assertSame(stepExecution, processor.process(1).get());
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    @Test
+    void process_publishesQueueDepthAndInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncItemProcessor<Integer, Integer> processor = new AsyncItemProcessor<>(item -> {
+            started.countDown();
+            release.await();
+            return item;
+        }, executor);
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(processor.process(i));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(4, gauge(AsyncItemProcessor.IN_FLIGHT_METRIC));
+        assertEquals(2, gauge(AsyncItemProcessor.QUEUE_DEPTH_METRIC));
+
+        release.countDown();
+        for (Future<Integer> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, gauge(AsyncItemProcessor.IN_FLIGHT_METRIC));
+        assertEquals(0, gauge(AsyncItemProcessor.QUEUE_DEPTH_METRIC));
+    }
+
+    @Test
+    void create_auto_usesVirtualThreadsOnlyWhenSupported() {
+        ExecutorService auto = ProcessorExecutors.create(ProcessorExecutors.AUTO, 2, 4);
+        try {
+            if (Runtime.version().feature() >= 21) {
+                assertFalse(auto instanceof ThreadPoolExecutor);
+            } else {
+                assertTrue(auto instanceof ThreadPoolExecutor);
+                assertThrows(IllegalStateException.class, () -> ProcessorExecutors.create(ProcessorExecutors.VIRTUAL, 2, 4));
+            }
+        } finally {
+            auto.shutdown();
+        }
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
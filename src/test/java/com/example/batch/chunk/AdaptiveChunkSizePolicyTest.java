@@ -0,0 +1,99 @@
+package com.example.batch.chunk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private long now;
+    private StepExecution stepExecution;
+    private AdaptiveChunkSizePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        policy = new AdaptiveChunkSizePolicy(100, 10, 1000, 200, () -> now);
+        policy.beforeStep(stepExecution);
+    }
+
+    @Test
+    void afterChunk_fastChunks_growAtMostTwofoldUpToMax() {
+        runChunk(100, 10);
+        assertEquals(200, policy.getChunkSize());
+
+        runChunk(200, 10);
+        runChunk(400, 10);
+        runChunk(800, 10);
+        assertEquals(1000, policy.getChunkSize());
+    }
+
+    @Test
+    void afterChunk_slowChunks_shrinkTowardsTargetDownToMin() {
+        runChunk(100, 250);
+        assertEquals(80, policy.getChunkSize());
+
+        runChunk(80, 10_000);
+        assertEquals(40, policy.getChunkSize());
+
+        runChunk(40, 10_000);
+        runChunk(20, 10_000);
+        assertEquals(10, policy.getChunkSize());
+    }
+
+    @Test
+    void afterChunk_partialChunk_keepsSize() {
+        runChunk(7, 1);
+
+        assertEquals(100, policy.getChunkSize());
+    }
+
+    @Test
+    void afterChunkError_halvesSize() {
+        policy.beforeChunk(null);
+        policy.afterChunkError(null);
+
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void afterChunk_recordsSizesInExecutionContext() {
+        runChunk(100, 10);
+        runChunk(200, 1000);
+        runChunk(100, 200);
+        runChunk(3, 1);
+
+        assertEquals(100, stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.CURRENT_SIZE_KEY));
+        assertEquals(100, stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.SMALLEST_SIZE_KEY));
+        assertEquals(200, stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.LARGEST_SIZE_KEY));
+        assertEquals(4, stepExecution.getExecutionContext().getLong(AdaptiveChunkSizePolicy.CHUNK_COUNT_KEY));
+    }
+
+    @Test
+    void beforeStep_restart_resumesSavedSize() {
+        StepExecution restart = MetaDataInstanceFactory.createStepExecution();
+        restart.getExecutionContext().putInt(AdaptiveChunkSizePolicy.CURRENT_SIZE_KEY, 640);
+
+        policy.beforeStep(restart);
+
+        assertEquals(640, policy.getChunkSize());
+    }
+
+    @Test
+    void constructor_invalidBounds_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveChunkSizePolicy(10, 0, 10, 200));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveChunkSizePolicy(10, 20, 10, 200));
+    }
+
+    private void runChunk(int items, long millis) {
+        policy.beforeChunk(null);
+        stepExecution.setReadCount(stepExecution.getReadCount() + items);
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+        policy.afterChunk(null);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.batch.columnar;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentColumnarWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void write_roundTripsEveryColumnWithSharedScale() throws Exception {
+        Path file = tempDir.resolve("payments.pcol");
+        Payment processed = payment(1L, "100.5", "USD", PaymentType.CREDIT_CARD);
+        processed.setStatus("PROCESSED");
+        processed.setValidationStatus("VALID");
+        processed.setAmountInUSD(new BigDecimal("100.50"));
+        processed.setCommission(new BigDecimal("2.01"));
+        Payment rejected = payment(2L, "5", "MXN", null);
+        rejected.setStatus("INVALID");
+        rejected.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 5, 0, 123_000_000));
+        rejected.setCustomerName("José Ñúñez");
+        rejected.setErrorMessage("Moneda no soportada");
+        rejected.setRejectReason(RejectReason.UNSUPPORTED_CURRENCY);
+
+        PaymentColumnarWriter writer = new PaymentColumnarWriter(file);
+        writer.open(new ExecutionContext());
+        writer.write(List.of(processed, rejected));
+        writer.close();
+
+        try (PaymentColumnarReader reader = new PaymentColumnarReader(file)) {
+            assertEquals(1, reader.blockCount());
+            assertEquals(2, reader.rowCount());
+            PaymentBlock block = reader.block(0);
+            assertEquals(new BigDecimal("100.5"), block.amount(0));
+            assertEquals(new BigDecimal("5.0"), block.amount(1));
+            assertEquals(new BigDecimal("100.50"), block.amountInUsd(0));
+            assertNull(block.amountInUsd(1));
+            assertEquals("MXN", block.currency(1));
+            assertEquals(PaymentType.CREDIT_CARD, block.paymentType(0));
+            assertNull(block.paymentType(1));
+            assertEquals(LocalDateTime.of(2024, 5, 20, 10, 0), block.paymentDate(0));
+            assertEquals(rejected.getPaymentDate(), block.paymentDate(1));
+            assertEquals("José Ñúñez", block.customerName(1));
+            assertNull(block.errorMessage(0));
+            assertEquals(RejectReason.UNSUPPORTED_CURRENCY, block.rejectReason(1));
+            Payment read = block.toPayment(0);
+            assertEquals(1L, read.getId());
+            assertEquals("VALID", read.getValidationStatus());
+            assertEquals("john@example.com", read.getCustomerEmail());
+        }
+    }
+
+    @Test
+    void open_restart_dropsBlocksAfterLastSavedPosition() throws Exception {
+        Path file = tempDir.resolve("payments.pcol");
+        ExecutionContext executionContext = new ExecutionContext();
+        PaymentColumnarWriter writer = new PaymentColumnarWriter(file);
+        writer.open(executionContext);
+        writer.write(List.of(payment(1L, "10", "USD", PaymentType.PAYPAL)));
+        writer.update(executionContext);
+        // Bloque escrito después del último commit: el reinicio debe descartarlo
+        writer.write(List.of(payment(2L, "20", "USD", PaymentType.PAYPAL)));
+        writer.close();
+
+        PaymentColumnarWriter restarted = new PaymentColumnarWriter(file);
+        restarted.open(executionContext);
+        restarted.write(List.of(payment(3L, "30", "EUR", PaymentType.TRANSFER)));
+        restarted.close();
+
+        assertEquals(List.of(1L, 3L), ids(file));
+    }
+
+    @Test
+    void open_appendAllowed_continuesAfterPreviousRun() throws Exception {
+        Path file = tempDir.resolve("payments.pcol");
+        PaymentColumnarWriter first = new PaymentColumnarWriter(file);
+        first.open(new ExecutionContext());
+        first.write(List.of(payment(1L, "10", "USD", PaymentType.PAYPAL)));
+        first.close();
+
+        PaymentColumnarWriter second = new PaymentColumnarWriter(file);
+        second.setAppendAllowed(true);
+        second.open(new ExecutionContext());
+        second.write(List.of(payment(2L, "20", "USD", PaymentType.PAYPAL)));
+        second.close();
+
+        assertEquals(List.of(1L, 2L), ids(file));
+    }
+
+    @Test
+    void write_inTransaction_addsBlockOnlyOnCommit() throws Exception {
+        Path file = tempDir.resolve("payments.pcol");
+        PaymentColumnarWriter writer = new PaymentColumnarWriter(file);
+        writer.open(new ExecutionContext());
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(payment(1L, "10", "USD", PaymentType.PAYPAL)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(payment(2L, "20", "USD", PaymentType.PAYPAL)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        writer.close();
+
+        assertEquals(List.of(1L), ids(file));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.beforeCommit(false);
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static List<Long> ids(Path file) {
+        List<Long> ids = new ArrayList<>();
+        try (PaymentColumnarReader reader = new PaymentColumnarReader(file)) {
+            for (int i = 0; i < reader.blockCount(); i++) {
+                PaymentBlock block = reader.block(i);
+                for (int row = 0; row < block.rowCount(); row++) {
+                    ids.add(block.id(row));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static Payment payment(Long id, String amount, String currency, PaymentType type) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCurrency(currency);
+        payment.setPaymentType(type);
+        payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+        payment.setCustomerName("John Doe");
+        payment.setCustomerEmail("john@example.com");
+        return payment;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.batch.compression;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.reader.PaymentLineMappers;
+import com.example.batch.writer.PaymentFlatFileItemWriter;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedPaymentFilesTest {
+
+    private static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void forFileName_choosesCodecByExtension() {
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.forFileName("payments.txt.gz"));
+        assertEquals(CompressionCodec.ZSTD, CompressionCodec.forFileName("PAYMENTS.TXT.ZST"));
+        assertEquals(CompressionCodec.NONE, CompressionCodec.forFileName("payments.txt"));
+        assertEquals(CompressionCodec.NONE, CompressionCodec.forFileName(null));
+        assertThrows(IllegalArgumentException.class, () -> CompressionCodec.forName("lz4"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodec.class, names = {"GZIP", "ZSTD"})
+    void writer_restartTruncatesToLastCommittedFrame(CompressionCodec codec) throws Exception {
+        Path file = tempDir.resolve("processed_payments.txt" + codec.getExtension());
+        ExecutionContext executionContext = new ExecutionContext();
+        PaymentFlatFileItemWriter writer = writer(file, codec);
+        writer.open(executionContext);
+        writer.write(payments(1, 3));
+        writer.update(executionContext);
+        // Chunk escrito pero sin commit cuando el proceso se cae, más un frame a medias
+        writer.write(payments(4, 5));
+        writer.close();
+        Files.write(file, new byte[]{0x1f, (byte) 0x8b, 0x28}, StandardOpenOption.APPEND);
+
+        PaymentFlatFileItemWriter restarted = writer(file, codec);
+        restarted.open(executionContext);
+        restarted.write(payments(4, 6));
+        restarted.close();
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), ids(decompress(file, codec)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodec.class, names = {"GZIP", "ZSTD"})
+    void reader_decompressesConcatenatedFramesAndRestartsByLine(CompressionCodec codec) throws Exception {
+        Path file = tempDir.resolve("payments.txt" + codec.getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            // Dos frames seguidos, como los de un archivo escrito por chunks
+            compressTo(out, codec, HEADER + "\n" + line(1) + "\n" + line(2) + "\n");
+            compressTo(out, codec, line(3) + "\n");
+        }
+        ExecutionContext executionContext = new ExecutionContext();
+        FlatFileItemReader<Payment> reader = reader(file);
+        reader.open(executionContext);
+        assertEquals(1L, reader.read().getId());
+        assertEquals(2L, reader.read().getId());
+        reader.update(executionContext);
+        reader.close();
+
+        FlatFileItemReader<Payment> restarted = reader(file);
+        restarted.open(executionContext);
+
+        Payment third = restarted.read();
+        assertEquals(3L, third.getId());
+        assertEquals(new BigDecimal("30.00"), third.getAmount());
+        assertNull(restarted.read());
+        restarted.close();
+    }
+
+    private static void compressTo(OutputStream out, CompressionCodec codec, String text) throws Exception {
+        OutputStream frame = codec.compress(new FilterOutputStream(out) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        frame.write(text.getBytes(StandardCharsets.UTF_8));
+        frame.close();
+    }
+
+    private static PaymentFlatFileItemWriter writer(Path file, CompressionCodec codec) {
+        PaymentFlatFileItemWriter writer = new PaymentFlatFileItemWriter(PaymentLineAggregator.report());
+        writer.setName("reportWriter");
+        writer.setResource(new FileSystemResource(file));
+        writer.setEncoding(StandardCharsets.UTF_8.name());
+        writer.setCompression(codec);
+        return writer;
+    }
+
+    private static FlatFileItemReader<Payment> reader(Path file) {
+        FlatFileItemReader<Payment> reader = new FlatFileItemReader<>();
+        reader.setName("reader");
+        reader.setResource(new FileSystemResource(file));
+        reader.setLinesToSkip(1);
+        reader.setBufferedReaderFactory(new DecompressingBufferedReaderFactory());
+        reader.setLineMapper(PaymentLineMappers.fast());
+        return reader;
+    }
+
+    private static String decompress(Path file, CompressionCodec codec) throws Exception {
+        try (InputStream in = codec.decompress(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> ids(String report) {
+        List<String> ids = new ArrayList<>();
+        for (String line : report.split("\n")) {
+            ids.add(line.substring(0, line.indexOf('|')));
+        }
+        return ids;
+    }
+
+    private static String line(int id) {
+        return id + "," + (id * 10) + ".00,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com";
+    }
+
+    private static List<Payment> payments(int fromId, int toId) {
+        List<Payment> payments = new ArrayList<>();
+        for (int id = fromId; id <= toId; id++) {
+            Payment payment = new Payment();
+            payment.setId((long) id);
+            payment.setAmount(new BigDecimal("10.00"));
+            payment.setCurrency("USD");
+            payment.setStatus("PROCESSED");
+            payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+            payment.setPaymentType(PaymentType.CREDIT_CARD);
+            payment.setAmountInUSD(new BigDecimal("10.00"));
+            payment.setCommission(new BigDecimal("0.20"));
+            payments.add(payment);
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.batch.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExistingSchemaBatchInitializerTest {
+
+    @Test
+    void initializeDatabase_runsScriptOnlyOnEmptyDatabase() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        try {
+            BatchProperties.Jdbc properties = new BatchProperties.Jdbc();
+            properties.setInitializeSchema(DatabaseInitializationMode.ALWAYS);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+            assertTrue(new ExistingSchemaBatchInitializer(database, properties).initializeDatabase());
+            jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+                    + "VALUES (1, 0, 'importPaymentsJob', 'key')");
+
+            assertFalse(new ExistingSchemaBatchInitializer(database, properties).initializeDatabase());
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_INSTANCE", Integer.class));
+        } finally {
+            database.shutdown();
+        }
+    }
+}
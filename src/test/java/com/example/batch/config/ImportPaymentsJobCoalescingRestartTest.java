@@ -0,0 +1,18 @@
+package com.example.batch.config;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * El mismo reinicio con el repositorio de jobs coalescing y ningún vaciado por cantidad ni por tiempo
+ * durante el paso: solo el fallo escribe el contexto, que debe ser el del último commit.
+ */
+@SpringBootTest(properties = {
+        "payment.chunk.initial-size=2",
+        "payment.chunk.min-size=1",
+        "payment.chunk.max-size=2",
+        "payment.repository.mode=coalescing",
+        "payment.repository.flush-every-commits=1000",
+        "payment.repository.flush-interval-millis=600000"
+})
+class ImportPaymentsJobCoalescingRestartTest extends ImportPaymentsJobRestartTest {
+}
@@ -0,0 +1,119 @@
+package com.example.batch.config;
+
+import com.example.batch.partition.InputFilePartitioner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Directorio de llegada con varios archivos: cada uno es una partición con sus propias salidas y
+ * su marcador, y una ejecución posterior solo toma los archivos nuevos. Las ubicaciones llegan como
+ * parámetros del job.
+ */
+@SpringBootTest(properties = {
+        "payment.input.directory=ignored-by-job-parameter",
+        "payment.input.pattern=payments-*"
+})
+class ImportPaymentsJobDirectoryTest {
+
+    private static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job importPaymentsJob;
+
+    @DynamicPropertySource
+    static void paymentFiles(DynamicPropertyRegistry registry) {
+        registry.add("payment.output.dir", () -> tempDir.resolve("unused-output").toString());
+        registry.add("payment.metrics.file", () -> tempDir.resolve("payments.prom").toString());
+    }
+
+    @Test
+    void directory_processesEachFileInItsOwnPartitionAndSkipsCompletedOnes() throws Exception {
+        Path drop = Files.createDirectories(tempDir.resolve("drop"));
+        Path output = tempDir.resolve("output");
+        Files.writeString(drop.resolve("payments-1.txt"), HEADER + "\n"
+                + "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com\n"
+                + "2,50.00,MXN,PENDING,2024-05-20T10:10:00,PAYPAL,Bob Johnson,bob@example.com\n");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(drop.resolve("payments-2.txt.gz")))) {
+            out.write((HEADER + "\n"
+                    + "3,200.00,USD,PENDING,2024-05-20T10:15:00,DEBIT_CARD,Alice Brown,alice@example.com\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(drop.resolve("notes.txt"), "no es un archivo de pagos\n");
+
+        JobExecution first = run(1L, drop, output);
+
+        assertEquals(BatchStatus.COMPLETED, first.getStatus());
+        assertEquals(Map.of("step1File:payments-1.txt", 2, "step1File:payments-2.txt.gz", 1), workerReads(first));
+        assertTrue(Files.readString(output.resolve("payments-1.txt").resolve("payment_report.txt"))
+                .startsWith("1|100.50|USD|100.50|2.01|CREDIT_CARD|PROCESSED\n"));
+        assertTrue(Files.readString(output.resolve("payments-1.txt").resolve("rejected_payments.txt"))
+                .startsWith("2,"));
+        assertTrue(Files.readString(output.resolve("payments-2.txt.gz").resolve("processed_payments.txt"))
+                .startsWith("3,200.00,USD,PROCESSED"));
+        assertTrue(Files.exists(output.resolve("payments-1.txt").resolve(InputFilePartitioner.COMPLETION_MARKER)));
+        assertTrue(Files.exists(output.resolve("payments-2.txt.gz").resolve(InputFilePartitioner.COMPLETION_MARKER)));
+        assertFalse(Files.exists(output.resolve("notes.txt")));
+        assertEquals(List.of("USD|CREDIT_CARD|2024-05-20T10:00|1|0|100.50|100.50|2.01",
+                        "USD|DEBIT_CARD|2024-05-20T10:00|1|0|200.00|200.00|4.00"),
+                summaryLines(output, "USD"));
+
+        Files.writeString(drop.resolve("payments-3.txt"), HEADER + "\n"
+                + "4,10.00,EUR,PENDING,2024-05-21T09:00:00,CRYPTO,Charlie Wilson,charlie@example.com\n");
+        JobExecution second = run(2L, drop, output);
+
+        assertEquals(BatchStatus.COMPLETED, second.getStatus());
+        assertEquals(Map.of("step1File:payments-3.txt", 1), workerReads(second));
+    }
+
+    private JobExecution run(long run, Path drop, Path output) throws Exception {
+        return jobLauncher.run(importPaymentsJob, new JobParametersBuilder()
+                .addLong("run", run)
+                .addString("input.directory", drop.toString())
+                .addString("output.dir", output.toString())
+                .toJobParameters());
+    }
+
+    private static Map<String, Integer> workerReads(JobExecution jobExecution) {
+        Map<String, Integer> reads = new TreeMap<>();
+        for (StepExecution step : jobExecution.getStepExecutions()) {
+            if (step.getStepName().startsWith("step1File:")) {
+                reads.put(step.getStepName(), step.getReadCount());
+            }
+        }
+        return reads;
+    }
+
+    private static List<String> summaryLines(Path output, String currency) throws Exception {
+        return Files.readString(output.resolve("payment_summary.txt")).lines()
+                .filter(line -> line.startsWith(currency + "|"))
+                .collect(Collectors.toList());
+    }
+}
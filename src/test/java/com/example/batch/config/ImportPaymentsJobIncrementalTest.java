@@ -0,0 +1,125 @@
+package com.example.batch.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dos ejecuciones sobre el archivo diario: la segunda solo procesa los pagos agregados, más los
+ * rechazados en la primera, y los suma a las salidas de la primera.
+ */
+@SpringBootTest(properties = "payment.incremental.enabled=true")
+class ImportPaymentsJobIncrementalTest {
+
+    private static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+    private static final List<String> FIRST_DAY = List.of(
+            "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com",
+            "2,75.25,EUR,PENDING,2024-05-20T10:05:00,TRANSFER,Jane Smith,jane@example.com",
+            "3,50.00,MXN,PENDING,2024-05-20T10:10:00,PAYPAL,Bob Johnson,bob@example.com");
+    private static final List<String> SECOND_DAY = List.of(
+            "4,200.00,USD,PENDING,2024-05-21T10:15:00,DEBIT_CARD,Alice Brown,alice@example.com",
+            "5,5.00,EUR,PENDING,2024-05-21T10:20:00,CRYPTO,Charlie Wilson,charlie@example.com");
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job importPaymentsJob;
+
+    @DynamicPropertySource
+    static void paymentFiles(DynamicPropertyRegistry registry) {
+        registry.add("payment.input.resource", () -> "file:" + tempDir.resolve("payments.txt"));
+        registry.add("payment.output.dir", () -> tempDir.resolve("output").toString());
+        registry.add("payment.metrics.file", () -> tempDir.resolve("payments.prom").toString());
+        registry.add("payment.incremental.index-file", () -> tempDir.resolve("processed-ids.index").toString());
+    }
+
+    @Test
+    void secondRun_processesOnlyNewPaymentsAndAppendsToOutputs() throws Exception {
+        writeInput(FIRST_DAY);
+        JobExecution first = run(1L);
+
+        assertEquals(BatchStatus.COMPLETED, first.getStatus());
+        assertEquals(3, step1(first).getWriteCount());
+        List<String> processedAfterFirst = readOutput("processed_payments.txt");
+        List<String> rejectedAfterFirst = readOutput("rejected_payments.txt");
+
+        writeInput(FIRST_DAY, SECOND_DAY);
+        JobExecution second = run(2L);
+
+        assertEquals(BatchStatus.COMPLETED, second.getStatus());
+        assertEquals(5, step1(second).getReadCount());
+        // El 3 fue rechazado: no quedó en el índice y se vuelve a validar
+        assertEquals(2, step1(second).getFilterCount());
+        assertEquals(3, step1(second).getWriteCount());
+        List<String> processed = readOutput("processed_payments.txt");
+        assertEquals(processedAfterFirst, processed.subList(0, processedAfterFirst.size()));
+        assertEquals(processedAfterFirst.size() + 1, processed.size());
+        assertTrue(processed.get(processed.size() - 1).startsWith("4,"));
+        List<String> rejected = readOutput("rejected_payments.txt");
+        assertEquals(rejectedAfterFirst.size() + 2, rejected.size());
+        assertTrue(rejected.get(rejected.size() - 2).startsWith("3,"));
+        assertTrue(rejected.get(rejected.size() - 1).startsWith("5,"));
+    }
+
+    @Test
+    void rejectedPaymentCorrectedAndResent_isProcessed() throws Exception {
+        writeInput(List.of("10,80.00,MXN,PENDING,2024-05-22T09:00:00,TRANSFER,Dana Reyes,dana@example.com"));
+        JobExecution first = run(3L);
+
+        assertEquals(BatchStatus.COMPLETED, first.getStatus());
+        assertTrue(readOutput("rejected_payments.txt").stream().anyMatch(line -> line.startsWith("10,")));
+
+        writeInput(List.of("10,80.00,USD,PENDING,2024-05-22T09:00:00,TRANSFER,Dana Reyes,dana@example.com"));
+        JobExecution second = run(4L);
+
+        assertEquals(BatchStatus.COMPLETED, second.getStatus());
+        assertEquals(0, step1(second).getFilterCount());
+        assertEquals(1, step1(second).getWriteCount());
+        List<String> processed = readOutput("processed_payments.txt");
+        assertTrue(processed.get(processed.size() - 1).startsWith("10,"));
+    }
+
+    private JobExecution run(long run) throws Exception {
+        return jobLauncher.run(importPaymentsJob, new JobParametersBuilder().addLong("run", run).toJobParameters());
+    }
+
+    private StepExecution step1(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> "step1".equals(stepExecution.getStepName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @SafeVarargs
+    private void writeInput(List<String>... days) throws Exception {
+        StringBuilder input = new StringBuilder(HEADER).append('\n');
+        for (List<String> day : days) {
+            day.forEach(line -> input.append(line).append('\n'));
+        }
+        Files.writeString(tempDir.resolve("payments.txt"), input, StandardCharsets.UTF_8);
+    }
+
+    private List<String> readOutput(String file) throws Exception {
+        return Files.readAllLines(tempDir.resolve("output").resolve(file), StandardCharsets.UTF_8);
+    }
+}
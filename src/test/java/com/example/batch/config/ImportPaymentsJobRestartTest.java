@@ -0,0 +1,120 @@
+package com.example.batch.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simula una caída del paso 1 a mitad del archivo: el reinicio debe descartar lo escrito después del
+ * último commit y terminar con las mismas salidas que una ejecución sin fallas.
+ */
+@SpringBootTest(properties = {
+        "payment.chunk.initial-size=2",
+        "payment.chunk.min-size=1",
+        "payment.chunk.max-size=2"
+})
+class ImportPaymentsJobRestartTest {
+
+    private static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+    private static final String BROKEN_LINE = "7,abc,USD,PENDING,2024-05-20T10:30:00,CREDIT_CARD,Grace Hall,grace@example.com";
+    private static final String FIXED_LINE = "7,123,USD,PENDING,2024-05-20T10:30:00,CREDIT_CARD,Grace Hall,grace@example.com";
+    private static final String[] OUTPUT_FILES = {"processed_payments.txt", "payment_report.txt", "rejected_payments.txt",
+            "payment_summary.txt"};
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job importPaymentsJob;
+
+    @DynamicPropertySource
+    static void paymentFiles(DynamicPropertyRegistry registry) {
+        registry.add("payment.input.resource", () -> "file:" + tempDir.resolve("payments.txt"));
+        registry.add("payment.output.dir", () -> tempDir.resolve("output").toString());
+        registry.add("payment.metrics.file", () -> tempDir.resolve("payments.prom").toString());
+    }
+
+    @Test
+    void restart_afterCrashInStep1_resumesFromLastCommitAndMatchesCleanRun() throws Exception {
+        writeInput(BROKEN_LINE);
+        JobParameters parameters = new JobParametersBuilder().addLong("run", 1L).toJobParameters();
+
+        JobExecution failed = jobLauncher.run(importPaymentsJob, parameters);
+
+        assertEquals(BatchStatus.FAILED, failed.getStatus());
+        StepExecution failedStep = step1(failed);
+        assertEquals(6, failedStep.getWriteCount());
+        // Bytes a medio escribir que quedaron después del último commit al caerse el proceso
+        Path processed = tempDir.resolve("output").resolve("processed_payments.txt");
+        Files.writeString(processed, "8,999.99,USD,PROC", StandardOpenOption.APPEND);
+
+        writeInput(FIXED_LINE);
+        JobExecution restarted = jobLauncher.run(importPaymentsJob, parameters);
+
+        assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+        assertEquals(failed.getJobInstance().getId(), restarted.getJobInstance().getId());
+        assertEquals(4, step1(restarted).getReadCount());
+        assertFalse(Files.exists(tempDir.resolve("output").resolve("rejected_payments.spill")));
+        Map<String, String> resumedOutputs = readOutputs();
+
+        JobExecution clean = jobLauncher.run(importPaymentsJob,
+                new JobParametersBuilder().addLong("run", 2L).toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, clean.getStatus());
+        assertEquals(readOutputs(), resumedOutputs);
+        assertTrue(resumedOutputs.get("processed_payments.txt").contains("7,123"));
+        assertFalse(resumedOutputs.get("processed_payments.txt").contains("999.99"));
+    }
+
+    private StepExecution step1(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> "step1".equals(stepExecution.getStepName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void writeInput(String line7) throws Exception {
+        Files.writeString(tempDir.resolve("payments.txt"), HEADER + "\n"
+                + "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com\n"
+                + "2,75.25,EUR,PENDING,2024-05-20T10:05:00,TRANSFER,Jane Smith,jane@example.com\n"
+                + "3,50.00,MXN,PENDING,2024-05-20T10:10:00,PAYPAL,Bob Johnson,bob@example.com\n"
+                + "4,200.00,USD,PENDING,2024-05-20T10:15:00,DEBIT_CARD,Alice Brown,alice@example.com\n"
+                + "5,5.00,EUR,PENDING,2024-05-20T10:20:00,CRYPTO,Charlie Wilson,charlie@example.com\n"
+                + "6,80.00,GBP,PENDING,2024-05-20T10:25:00,TRANSFER,Dana White,dana-example.com\n"
+                + line7 + "\n"
+                + "8,60.00,JPY,PENDING,2024-05-20T10:35:00,PAYPAL,Henry Ford,henry@example.com\n"
+                + "9,300.00,USD,PENDING,2024-05-20T10:40:00,CREDIT_CARD,Ivy Lee,ivy@example.com\n"
+                + "10,45.00,EUR,PENDING,2024-05-20T10:45:00,DEBIT_CARD,Jack King,jack@example.com\n",
+                StandardCharsets.UTF_8);
+    }
+
+    private Map<String, String> readOutputs() throws Exception {
+        Map<String, String> outputs = new HashMap<>();
+        for (String file : OUTPUT_FILES) {
+            outputs.put(file, Files.readString(tempDir.resolve("output").resolve(file), StandardCharsets.UTF_8));
+        }
+        return outputs;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.batch.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerProfileCacheTest {
+
+    @Test
+    void get_loadsOncePerNormalizedEmail() {
+        List<String> lookups = new ArrayList<>();
+        CustomerProfile gold = new CustomerProfile("LOW", new BigDecimal("0.01"), false);
+        CustomerProfileCache cache = new CustomerProfileCache(email -> {
+            lookups.add(email);
+            return "john@example.com".equals(email) ? gold : null;
+        }, 100);
+
+        assertSame(gold, cache.get("john@example.com"));
+        assertSame(gold, cache.get(" John@Example.COM "));
+        assertSame(CustomerProfile.DEFAULT, cache.get("nobody@example.com"));
+        assertSame(CustomerProfile.DEFAULT, cache.get("nobody@example.com"));
+        assertSame(CustomerProfile.DEFAULT, cache.get(null));
+
+        assertEquals(List.of("john@example.com", "nobody@example.com"), lookups);
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedBeyondMaximumSize() {
+        CustomerProfileCache cache = new CustomerProfileCache(email -> null, 16);
+        for (int i = 0; i < 1_000; i++) {
+            cache.get("customer" + i + "@example.com");
+        }
+
+        assertTrue(cache.size() <= 16, "tamaño: " + cache.size());
+        assertEquals(1_000 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    void get_concurrentThreadsShareProfiles() throws Exception {
+        ConcurrentHashMap<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        CustomerProfileCache cache = new CustomerProfileCache(email -> {
+            loads.computeIfAbsent(email, key -> new AtomicInteger()).incrementAndGet();
+            return new CustomerProfile("HIGH", null, false);
+        }, 1_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertEquals("HIGH", cache.get("customer" + (i % 50) + "@example.com").getRiskTier());
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(50, cache.size());
+        assertEquals(80_000, cache.hitCount() + cache.missCount());
+        assertEquals(cache.missCount(), loads.values().stream().mapToInt(AtomicInteger::get).sum());
+    }
+
+    @Test
+    void bindTo_exportsCacheStatistics() {
+        CustomerProfileCache cache = new CustomerProfileCache(email -> null, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get("a@example.com");
+        cache.get("a@example.com");
+
+        assertEquals(1.0, registry.get(CustomerProfileCache.HITS_METRIC).functionCounter().count());
+        assertEquals(1.0, registry.get(CustomerProfileCache.MISSES_METRIC).functionCounter().count());
+        assertEquals(1.0, registry.get(CustomerProfileCache.SIZE_METRIC).gauge().value());
+    }
+
+    @Test
+    void jdbcStore_readsProfileByEmail() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("customer/schema-customer-profiles.sql")
+                .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            jdbcTemplate.update("INSERT INTO CUSTOMER_PROFILES (EMAIL, RISK_TIER, COMMISSION_RATE, BLOCKED) "
+                    + "VALUES ('bob@example.com', 'HIGH', 0.035, TRUE)");
+            JdbcCustomerProfileStore store = new JdbcCustomerProfileStore(jdbcTemplate, "CUSTOMER_PROFILES");
+
+            CustomerProfile profile = store.find("bob@example.com");
+
+            assertEquals("HIGH", profile.getRiskTier());
+            assertEquals(0, new BigDecimal("0.035").compareTo(profile.getCommissionRate()));
+            assertTrue(profile.isBlocked());
+            assertNull(store.find("alice@example.com"));
+        } finally {
+            database.shutdown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.batch.dedup;
+
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicatePaymentDetectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DuplicatePaymentDetector detector;
+
+    @AfterEach
+    void tearDown() {
+        if (detector != null) {
+            detector.close();
+        }
+    }
+
+    @Test
+    void check_rejectsRepeatedIdAndRepeatedContent() {
+        detector = open(new ExecutionContext());
+
+        assertNull(detector.check(payment(1, "100.50", "john@example.com")));
+        assertEquals(RejectReason.DUPLICATE_ID, detector.check(payment(1, "20.00", "other@example.com")));
+        // Mismo contenido con otro id y el importe escrito con otra escala
+        assertEquals(RejectReason.DUPLICATE_PAYMENT, detector.check(payment(2, "100.5", "john@example.com")));
+        assertNull(detector.check(payment(3, "100.51", "john@example.com")));
+        // Un duplicado no registra claves: el id 2 sigue libre
+        assertNull(detector.check(payment(2, "7.00", "bob@example.com")));
+    }
+
+    @Test
+    void open_restoresOnlyCommittedKeys() {
+        ExecutionContext executionContext = new ExecutionContext();
+        detector = open(executionContext);
+        detector.check(payment(1, "10.00", "a@example.com"));
+        detector.update(executionContext);
+        // Chunk sin commit cuando el proceso se cae
+        detector.check(payment(2, "20.00", "b@example.com"));
+        detector.update(new ExecutionContext());
+        detector.close();
+
+        detector = open(executionContext);
+
+        assertEquals(RejectReason.DUPLICATE_ID, detector.check(payment(1, "30.00", "c@example.com")));
+        assertNull(detector.check(payment(2, "20.00", "b@example.com")));
+    }
+
+    @Test
+    void check_beyondExpectedPaymentsStaysExact() {
+        detector = new DuplicatePaymentDetector(tempDir.resolve("dedup.journal"), 100, 0.01);
+        detector.open(new ExecutionContext());
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int id = 1; id <= 20_000; id++) {
+            Payment payment = payment(id, random.nextInt(10, 100_000) + ".00", "user" + id + "@example.com");
+            assertNull(detector.check(payment), "id " + id);
+        }
+        assertEquals(RejectReason.DUPLICATE_ID, detector.check(payment(19_999, "1.00", "x@example.com")));
+    }
+
+    @Test
+    void bloomFilter_falsePositiveRateNearConfigured() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        for (long id = 0; id < 100_000; id++) {
+            filter.put(DuplicatePaymentDetector.idKey(id));
+        }
+        int falsePositives = 0;
+        for (long id = 100_000; id < 200_000; id++) {
+            if (filter.mightContain(DuplicatePaymentDetector.idKey(id))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(filter.bitSize() < 100_000 * 10);
+        assertTrue(falsePositives < 1_500, "falsos positivos: " + falsePositives);
+    }
+
+    private DuplicatePaymentDetector open(ExecutionContext executionContext) {
+        DuplicatePaymentDetector opened = new DuplicatePaymentDetector(tempDir.resolve("dedup.journal"), 1_000, 0.01);
+        opened.open(executionContext);
+        return opened;
+    }
+
+    private static Payment payment(long id, String amount, String email) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCurrency("USD");
+        payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+        payment.setCustomerEmail(email);
+        return payment;
+    }
+}
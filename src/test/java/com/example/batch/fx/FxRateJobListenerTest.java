@@ -0,0 +1,87 @@
+package com.example.batch.fx;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateJobListenerTest {
+
+    private final FxRateLoader csvLoader = new CsvFxRateLoader(new ClassPathResource("fx/rates.csv"));
+
+    @Test
+    void beforeJob_loadsTableAndRecordsVersion() throws Exception {
+        FxRateJobListener listener = new FxRateJobListener(csvLoader);
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+
+        listener.beforeJob(jobExecution);
+
+        FxRateTable table = listener.getRateTable();
+        assertNotNull(table);
+        assertEquals(table.getVersion(), jobExecution.getExecutionContext().getString(FxRateJobListener.VERSION_KEY));
+        assertEquals(new BigDecimal("1.0850"), table.rateToUsd("EUR", LocalDate.of(2024, 5, 20)));
+    }
+
+    @Test
+    void beforeJob_restartWithSameVersion_succeeds() throws Exception {
+        FxRateJobListener listener = new FxRateJobListener(csvLoader);
+        JobExecution restart = MetaDataInstanceFactory.createJobExecution();
+        restart.getExecutionContext().putString(FxRateJobListener.VERSION_KEY, csvLoader.load().getVersion());
+
+        listener.beforeJob(restart);
+
+        assertNotNull(listener.getRateTable());
+    }
+
+    @Test
+    void beforeJob_restartWithDifferentVersion_fails() {
+        FxRateJobListener listener = new FxRateJobListener(csvLoader);
+        JobExecution restart = MetaDataInstanceFactory.createJobExecution();
+        restart.getExecutionContext().putString(FxRateJobListener.VERSION_KEY, "0000000000000000");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> listener.beforeJob(restart));
+
+        assertTrue(e.getMessage().contains("cambió"));
+        assertNull(listener.getRateTable());
+    }
+
+    @Test
+    void jdbcLoader_sameRatesAsFile_sameVersion() throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("fx/schema-fx-rates.sql")
+                .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new ClassPathResource("fx/rates.csv").getInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines().skip(1).filter(line -> !line.startsWith("#")).forEach(line -> {
+                    String[] fields = line.split(",");
+                    jdbcTemplate.update("INSERT INTO FX_RATES (CURRENCY, EFFECTIVE_DATE, RATE_TO_USD) VALUES (?, ?, ?)",
+                            fields[0], Date.valueOf(fields[1]), new BigDecimal(fields[2]));
+                });
+            }
+
+            FxRateTable jdbcTable = new JdbcFxRateLoader(jdbcTemplate, "FX_RATES").load();
+
+            FxRateTable fileTable = csvLoader.load();
+            assertEquals(fileTable.size(), jdbcTable.size());
+            assertEquals(fileTable.getVersion(), jdbcTable.getVersion());
+        } finally {
+            database.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.batch.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateTableTest {
+
+    private final FxRateTable table = FxRateTable.of(List.of(
+            new FxRate("EUR", LocalDate.of(2024, 5, 1), new BigDecimal("1.0850")),
+            new FxRate("EUR", LocalDate.of(2024, 1, 1), new BigDecimal("1.0950")),
+            new FxRate("EUR", LocalDate.of(2024, 6, 1), new BigDecimal("1.0700")),
+            new FxRate("JPY", LocalDate.of(2024, 1, 1), new BigDecimal("0.006420"))));
+
+    @Test
+    void rateToUsd_picksLatestEffectiveRateNotAfterDate() {
+        assertNull(table.rateToUsd("EUR", LocalDate.of(2023, 12, 31)));
+        assertEquals(new BigDecimal("1.0950"), table.rateToUsd("EUR", LocalDate.of(2024, 1, 1)));
+        assertEquals(new BigDecimal("1.0950"), table.rateToUsd("EUR", LocalDate.of(2024, 4, 30)));
+        assertEquals(new BigDecimal("1.0850"), table.rateToUsd("EUR", LocalDate.of(2024, 5, 20)));
+        assertEquals(new BigDecimal("1.0700"), table.rateToUsd("EUR", LocalDate.of(2030, 1, 1)));
+        assertNull(table.rateToUsd("GBP", LocalDate.of(2024, 5, 20)));
+    }
+
+    @Test
+    void convertToUsd_roundsToCents() {
+        assertEquals(new BigDecimal("81.65"), table.convertToUsd(new BigDecimal("75.25"), "EUR", LocalDate.of(2024, 5, 20)));
+        assertEquals(new BigDecimal("1.93"), table.convertToUsd(new BigDecimal("300.00"), "JPY", LocalDate.of(2024, 5, 20)));
+    }
+
+    @Test
+    void convertToUsd_usdAmount_returnsSameAmount() {
+        BigDecimal amount = new BigDecimal("100.5");
+
+        assertSame(amount, table.convertToUsd(amount, "USD", LocalDate.of(1990, 1, 1)));
+    }
+
+    @Test
+    void convertToUsd_missingRate_throws() {
+        assertThrows(FxRateNotFoundException.class,
+                () -> table.convertToUsd(BigDecimal.TEN, "GBP", LocalDate.of(2024, 5, 20)));
+    }
+
+    @Test
+    void version_dependsOnContentOnly() {
+        FxRateTable reordered = FxRateTable.of(List.of(
+                new FxRate("JPY", LocalDate.of(2024, 1, 1), new BigDecimal("0.00642")),
+                new FxRate("EUR", LocalDate.of(2024, 6, 1), new BigDecimal("1.07")),
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), new BigDecimal("1.095")),
+                new FxRate("EUR", LocalDate.of(2024, 5, 1), new BigDecimal("1.085"))));
+        FxRateTable changed = FxRateTable.of(List.of(
+                new FxRate("EUR", LocalDate.of(2024, 5, 1), new BigDecimal("1.0851")),
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), new BigDecimal("1.0950")),
+                new FxRate("EUR", LocalDate.of(2024, 6, 1), new BigDecimal("1.0700")),
+                new FxRate("JPY", LocalDate.of(2024, 1, 1), new BigDecimal("0.006420"))));
+
+        assertEquals(table.getVersion(), reordered.getVersion());
+        assertNotEquals(table.getVersion(), changed.getVersion());
+        assertEquals(4, table.size());
+    }
+
+    @Test
+    void of_duplicateOrNonPositiveRate_throws() {
+        assertThrows(IllegalArgumentException.class, () -> FxRateTable.of(List.of(
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), BigDecimal.ONE),
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), BigDecimal.TEN))));
+        assertThrows(IllegalArgumentException.class, () -> FxRateTable.of(List.of(
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), BigDecimal.ZERO))));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.batch.incremental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessedPaymentIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void add_marksOnlyGivenIds() throws Exception {
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(tempDir.resolve("ids.index"))) {
+            index.addAll(new long[]{0, 7, 8, 1000}, 3);
+
+            assertTrue(index.contains(0));
+            assertTrue(index.contains(7));
+            assertTrue(index.contains(8));
+            assertFalse(index.contains(1));
+            assertFalse(index.contains(1000));
+            assertFalse(index.contains(-1));
+            assertFalse(index.contains(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void addAll_whileQuerying_neverHidesIdsAlreadyAdded() throws Exception {
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(tempDir.resolve("ids.index"))) {
+            index.addAll(new long[]{1, 3}, 2);
+            AtomicBoolean adding = new AtomicBoolean(true);
+            AtomicBoolean missed = new AtomicBoolean();
+            Thread reader = new Thread(() -> {
+                while (adding.get()) {
+                    if (!index.contains(1) || !index.contains(3) || index.contains(2)) {
+                        missed.set(true);
+                    }
+                }
+            });
+            reader.start();
+            // Hasta pasar de arreglo a bitmap en el mismo bloque, con chunks de 100 ids impares
+            long[] chunk = new long[100];
+            for (long first = 5; first < 20_000; first += 2 * chunk.length) {
+                for (int i = 0; i < chunk.length; i++) {
+                    chunk[i] = first + 2L * i;
+                }
+                index.addAll(chunk, chunk.length);
+            }
+            adding.set(false);
+            reader.join();
+
+            assertFalse(missed.get());
+            assertTrue(index.contains(20_003));
+            assertEquals(10_002, index.cardinality());
+        }
+    }
+
+    @Test
+    void open_existingFile_keepsIdsFromPreviousRun() throws Exception {
+        Path file = tempDir.resolve("ids.index");
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            index.add(42);
+        }
+
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            assertTrue(index.contains(42));
+            assertFalse(index.contains(43));
+        }
+    }
+
+    @Test
+    void open_afterCrash_replaysJournal() throws Exception {
+        Path file = tempDir.resolve("ids.index");
+        ProcessedPaymentIndex crashed = ProcessedPaymentIndex.open(file);
+        crashed.addAll(new long[]{5, 70_000}, 2);
+        // Sin close(): solo quedó el diario
+
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            assertTrue(index.contains(5));
+            assertTrue(index.contains(70_000));
+            assertEquals(2, index.cardinality());
+        }
+        assertEquals(0, Files.size(tempDir.resolve("ids.index.journal")));
+    }
+
+    @Test
+    void add_sparseAndExtremeIds_keepsFileSmall() throws Exception {
+        Path file = tempDir.resolve("ids.index");
+        long[] ids = {-1, 17_000_000_000L, 17_000_000_001L, Long.MAX_VALUE, Long.MIN_VALUE};
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            index.addAll(ids, ids.length);
+        }
+
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            for (long id : ids) {
+                assertTrue(index.contains(id), "id " + id);
+            }
+            assertFalse(index.contains(17_000_000_002L));
+        }
+        assertTrue(Files.size(file) < 1024);
+    }
+
+    @Test
+    void add_denseIds_switchesToBitmapBlocks() throws Exception {
+        Path file = tempDir.resolve("ids.index");
+        long[] ids = new long[200_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            index.addAll(ids, ids.length);
+            index.add(5);
+        }
+
+        try (ProcessedPaymentIndex index = ProcessedPaymentIndex.open(file)) {
+            assertEquals(ids.length, index.cardinality());
+            assertTrue(index.contains(199_999));
+            assertFalse(index.contains(200_000));
+        }
+        // Un bit por id más los encabezados de los bloques
+        assertTrue(Files.size(file) < ids.length / Byte.SIZE + 8 * 1024);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.batch.jdbc;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import com.example.batch.writer.PaymentFlatFileItemWriter;
+import com.example.batch.writer.PaymentLineAggregator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentJdbcWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(false)
+                .setName("payments-" + System.nanoTime() + ";MODE=MySQL")
+                .addScript("jdbc/schema-processed-payments.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void write_splitsChunkIntoMultiRowStatements() {
+        PaymentJdbcWriter writer = new PaymentJdbcWriter(jdbcTemplate, "PROCESSED_PAYMENTS", 2);
+
+        writer.write(payments(1, 5, "10.00"));
+
+        assertEquals(5, count());
+        assertEquals(new BigDecimal("10.0000"), amount(5));
+    }
+
+    @Test
+    void write_sameIdsAgain_updatesInsteadOfDuplicating() {
+        PaymentJdbcWriter writer = new PaymentJdbcWriter(jdbcTemplate, "PROCESSED_PAYMENTS", 500);
+        writer.write(payments(1, 3, "10.00"));
+
+        // Un reinicio vuelve a escribir el último chunk, ahora con otro importe
+        writer.write(payments(2, 4, "20.00"));
+
+        assertEquals(4, count());
+        assertEquals(new BigDecimal("10.0000"), amount(1));
+        assertEquals(new BigDecimal("20.0000"), amount(3));
+    }
+
+    @Test
+    void write_paymentWithoutId_failsWithClearMessageAndWritesNothing() {
+        PaymentJdbcWriter writer = new PaymentJdbcWriter(jdbcTemplate, "PROCESSED_PAYMENTS", 500);
+        List<Payment> payments = payments(1, 2, "10.00");
+        payments.get(1).setId(null);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> writer.write(payments));
+
+        assertTrue(error.getMessage().startsWith("Pago sin id"));
+        assertEquals(0, count());
+    }
+
+    @Test
+    void bulkLoad_nameWithCommaAndQuotes_keepsColumns() throws Exception {
+        Path file = tempDir.resolve("processed_payments.txt");
+        PaymentFlatFileItemWriter fileWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.processedPayments());
+        fileWriter.setResource(new FileSystemResource(file));
+        fileWriter.open(new ExecutionContext());
+        List<Payment> payments = payments(1, 1, "10.50");
+        payments.get(0).setCustomerName("Doe, John \"JD\"");
+        fileWriter.write(payments);
+        fileWriter.close();
+        StepContribution contribution = new StepContribution(MetaDataInstanceFactory.createStepExecution());
+
+        new PaymentBulkLoadTasklet(jdbcTemplate, "PROCESSED_PAYMENTS", file).execute(contribution, null);
+
+        assertEquals("Doe, John \"JD\"", jdbcTemplate.queryForObject(
+                "SELECT CUSTOMER_NAME FROM PROCESSED_PAYMENTS WHERE ID = 1", String.class));
+        assertEquals("john@example.com", jdbcTemplate.queryForObject(
+                "SELECT CUSTOMER_EMAIL FROM PROCESSED_PAYMENTS WHERE ID = 1", String.class));
+    }
+
+    @Test
+    void bulkLoad_processedPaymentsFile_replacesById() throws Exception {
+        new PaymentJdbcWriter(jdbcTemplate, "PROCESSED_PAYMENTS", 500).write(payments(1, 1, "99.00"));
+        Path file = tempDir.resolve("processed_payments.txt");
+        PaymentFlatFileItemWriter fileWriter = new PaymentFlatFileItemWriter(PaymentLineAggregator.processedPayments());
+        fileWriter.setResource(new FileSystemResource(file));
+        fileWriter.open(new ExecutionContext());
+        fileWriter.write(payments(1, 3, "10.50"));
+        fileWriter.close();
+        StepContribution contribution = new StepContribution(MetaDataInstanceFactory.createStepExecution());
+
+        new PaymentBulkLoadTasklet(jdbcTemplate, "PROCESSED_PAYMENTS", file).execute(contribution, null);
+
+        assertEquals(3, count());
+        assertEquals(3, contribution.getWriteCount());
+        assertEquals(new BigDecimal("10.5000"), amount(1));
+        assertEquals(LocalDateTime.of(2024, 5, 20, 10, 2), jdbcTemplate.queryForObject(
+                "SELECT PAYMENT_DATE FROM PROCESSED_PAYMENTS WHERE ID = 3", LocalDateTime.class));
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PROCESSED_PAYMENTS", Integer.class);
+    }
+
+    private BigDecimal amount(long id) {
+        return jdbcTemplate.queryForObject("SELECT AMOUNT FROM PROCESSED_PAYMENTS WHERE ID = ?", BigDecimal.class, id);
+    }
+
+    private static List<Payment> payments(long fromId, long toId, String amount) {
+        List<Payment> payments = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            Payment payment = new Payment();
+            payment.setId(id);
+            payment.setAmount(new BigDecimal(amount));
+            payment.setCurrency("USD");
+            payment.setStatus("PROCESSED");
+            payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, (int) id - 1));
+            payment.setPaymentType(PaymentType.CREDIT_CARD);
+            payment.setCustomerName("John Doe");
+            payment.setCustomerEmail("john@example.com");
+            payment.setAmountInUSD(new BigDecimal(amount));
+            payment.setCommission(new BigDecimal("0.20"));
+            payment.setValidationStatus("VALID");
+            payments.add(payment);
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.batch.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    private long now;
+
+    @Test
+    void sample_limitsLinesPerSecondWindow() {
+        LogSampler sampler = new LogSampler(3, () -> now);
+
+        assertEquals(3, countSampled(sampler, 100));
+
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+        assertEquals(0, countSampled(sampler, 100));
+
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(3, countSampled(sampler, 100));
+    }
+
+    @Test
+    void sample_zeroPermits_neverSamples() {
+        assertEquals(0, countSampled(new LogSampler(0, () -> now), 10));
+    }
+
+    @Test
+    void constructor_negativePermits_fails() {
+        assertThrows(IllegalArgumentException.class, () -> new LogSampler(-1));
+    }
+
+    private static int countSampled(LogSampler sampler, int calls) {
+        int sampled = 0;
+        for (int i = 0; i < calls; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+}
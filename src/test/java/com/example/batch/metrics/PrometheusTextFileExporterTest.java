@@ -0,0 +1,59 @@
+package com.example.batch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrometheusTextFileExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void scrape_counterAndHistogram_usePrometheusTextFormat() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Counter.builder("payments.rejected").description("Pagos rechazados")
+                .tags("reason", "EMAIL_INVALID", "currency", "USD").register(registry).increment(3);
+        Timer timer = Timer.builder("payments.chunk.duration").tag("step", "step1")
+                .serviceLevelObjectives(Duration.ofMillis(100), Duration.ofSeconds(1)).register(registry);
+        timer.record(Duration.ofMillis(50));
+        timer.record(Duration.ofMillis(500));
+
+        String text = PrometheusTextFileExporter.scrape(registry);
+
+        assertTrue(text.contains("# HELP payments_rejected_total Pagos rechazados\n"
+                + "# TYPE payments_rejected_total counter\n"
+                + "payments_rejected_total{currency=\"USD\",reason=\"EMAIL_INVALID\"} 3\n"), text);
+        assertTrue(text.contains("# TYPE payments_chunk_duration_seconds histogram\n"
+                + "payments_chunk_duration_seconds_bucket{step=\"step1\",le=\"0.1\"} 1\n"
+                + "payments_chunk_duration_seconds_bucket{step=\"step1\",le=\"1\"} 2\n"
+                + "payments_chunk_duration_seconds_bucket{step=\"step1\",le=\"+Inf\"} 2\n"
+                + "payments_chunk_duration_seconds_sum{step=\"step1\"} 0.55\n"
+                + "payments_chunk_duration_seconds_count{step=\"step1\"} 2\n"), text);
+        assertFalse(text.contains("payments_chunk_duration_histogram"), text);
+    }
+
+    @Test
+    void afterJob_writesFileFromGlobalRegistry() throws Exception {
+        Path file = tempDir.resolve("metrics").resolve("payments.prom");
+        try (PrometheusTextFileExporter exporter = new PrometheusTextFileExporter(file)) {
+            Metrics.counter("payments.exporter.test").increment();
+
+            exporter.afterJob(null);
+        }
+
+        assertTrue(Files.readString(file).contains("payments_exporter_test_total 1\n"));
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+}
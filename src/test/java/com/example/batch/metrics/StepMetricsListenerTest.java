@@ -0,0 +1,115 @@
+package com.example.batch.metrics;
+
+import com.example.batch.model.Payment;
+import com.example.batch.validation.RejectReason;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepMetricsListenerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution("step1", 1L);
+    private long now;
+    private StepMetricsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new StepMetricsListener(registry, Set.of("USD", "EUR"), () -> now);
+        listener.beforeStep(stepExecution);
+    }
+
+    @Test
+    void afterChunk_recordsChunkDurationAndPhases() {
+        runChunk(10, 30, 5, 2);
+
+        assertEquals(47, timer(StepMetricsListener.CHUNK_DURATION_METRIC).totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(10, phase("read").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(30, phase("process").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(5, phase("write").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2, phase("commit").totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void afterChunk_withoutProcessor_countsUntilWriteAsRead() {
+        listener.beforeChunk(null);
+        advance(8);
+        listener.beforeWrite(List.of());
+        advance(4);
+        listener.afterWrite(List.of());
+        listener.afterChunk(null);
+
+        assertEquals(8, phase("read").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0, phase("process").count());
+        assertEquals(4, phase("write").totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void afterWrite_countsRejectsByReasonAndCurrency() {
+        listener.afterWrite(List.of(
+                rejected("USD", RejectReason.EMAIL_INVALID),
+                rejected("USD", RejectReason.EMAIL_INVALID),
+                CompletableFuture.completedFuture(rejected("MXN", RejectReason.UNSUPPORTED_CURRENCY)),
+                new Payment()));
+
+        assertEquals(2, registry.get(StepMetricsListener.REJECTED_METRIC)
+                .tags("reason", "EMAIL_INVALID", "currency", "USD").counter().count());
+        assertEquals(1, registry.get(StepMetricsListener.REJECTED_METRIC)
+                .tags("reason", "UNSUPPORTED_CURRENCY", "currency", StepMetricsListener.OTHER_CURRENCY)
+                .counter().count());
+    }
+
+    @Test
+    void afterStep_recordsItemsPerSecond() {
+        stepExecution.setReadCount(500);
+        advance(250);
+
+        listener.afterStep(stepExecution);
+
+        assertEquals(2000, registry.get(StepMetricsListener.THROUGHPUT_METRIC).summary().max(), 0.001);
+    }
+
+    private void runChunk(long read, long process, long write, long commit) {
+        listener.beforeChunk(null);
+        advance(read);
+        listener.beforeProcess(new Payment());
+        advance(process / 2);
+        listener.beforeProcess(new Payment());
+        advance(process - process / 2);
+        listener.beforeWrite(List.of());
+        advance(write);
+        listener.afterWrite(List.of());
+        advance(commit);
+        listener.afterChunk(null);
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private Timer timer(String name) {
+        return registry.get(name).tag("step", "step1").timer();
+    }
+
+    private Timer phase(String phase) {
+        return registry.get(StepMetricsListener.PHASE_DURATION_METRIC).tags("step", "step1", "phase", phase).timer();
+    }
+
+    private static Payment rejected(String currency, RejectReason reason) {
+        Payment payment = new Payment();
+        payment.setCurrency(currency);
+        payment.setStatus("INVALID");
+        payment.setRejectReason(reason);
+        return payment;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.batch.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScaledDecimalsTest {
+
+    @ParameterizedTest
+    @CsvSource({"100.50, 0.02", "10.025, 0.2", "-10.025, 0.2", "0.005, 1", "-0.005, 1", "0.004, 1",
+            "1234.5678, 1.08500000", "999999999.99, 0.0065", "7, 3", "0, 0.5"})
+    void multiply_matchesBigDecimalHalfUp(String a, String b) {
+        BigDecimal left = new BigDecimal(a);
+        BigDecimal right = new BigDecimal(b);
+
+        long result = ScaledDecimals.multiply(left.unscaledValue().longValue(), left.scale(),
+                right.unscaledValue().longValue(), right.scale(), 2);
+
+        assertEquals(left.multiply(right).setScale(2, RoundingMode.HALF_UP), BigDecimal.valueOf(result, 2));
+    }
+
+    @Test
+    void multiply_overflow_throws() {
+        assertThrows(ArithmeticException.class, () -> ScaledDecimals.multiply(Long.MAX_VALUE / 2, 0, 3, 0, 0));
+        assertThrows(ArithmeticException.class, () -> ScaledDecimals.multiply(1, 18, 1, 18, 0));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10.0, 10", "9.99, 10", "10.001, 10.0", "-1, 0.5", "922337203685477580.7, 1.00"})
+    void compare_matchesBigDecimal(String a, String b) {
+        BigDecimal left = new BigDecimal(a);
+        BigDecimal right = new BigDecimal(b);
+
+        int result = ScaledDecimals.compare(left.unscaledValue().longValue(), left.scale(),
+                right.unscaledValue().longValue(), right.scale());
+
+        assertEquals(Integer.signum(left.compareTo(right)), Integer.signum(result));
+    }
+
+    @Test
+    void payment_bigDecimalAccessors_roundTripScaleAndLargeValues() {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal("100.50"));
+        payment.setCommission(new BigDecimal("123456789012345678901.5"));
+        payment.setPaymentDate(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500));
+
+        assertTrue(payment.isAmountCompact());
+        assertEquals(10050, payment.getAmountUnscaled());
+        assertEquals(new BigDecimal("100.50"), payment.getAmount());
+        assertFalse(payment.isCommissionCompact());
+        assertEquals(new BigDecimal("123456789012345678901.5"), payment.getCommission());
+        assertNull(payment.getAmountInUSD());
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500), payment.getPaymentDate());
+        assertEquals(-1, payment.getPaymentEpochDay());
+
+        payment.setId(null);
+        payment.setPaymentDate(null);
+        assertNull(payment.getId());
+        assertFalse(payment.hasPaymentDate());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.batch.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineAlignedRangePartitionerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 50})
+    void partition_anyGridSize_readsEveryLineOnceInOrder(int gridSize) throws Exception {
+        List<String> lines = dataLines(37);
+        Path input = write("header\n" + String.join("\n", lines) + "\n");
+
+        Map<String, ExecutionContext> partitions =
+                new LineAlignedRangePartitioner(new FileSystemResource(input), 1).partition(gridSize);
+
+        assertEquals(gridSize, partitions.size());
+        assertEquals(lines, readAll(input, partitions, gridSize));
+    }
+
+    @Test
+    void partition_missingTrailingNewline_keepsLastLine() throws Exception {
+        List<String> lines = dataLines(5);
+        Path input = write("header\n" + String.join("\n", lines));
+
+        Map<String, ExecutionContext> partitions =
+                new LineAlignedRangePartitioner(new FileSystemResource(input), 1).partition(2);
+
+        assertEquals(lines, readAll(input, partitions, 2));
+    }
+
+    @Test
+    void partition_rangeBoundaries_startAtLineBeginning() throws Exception {
+        Path input = write("header\n" + String.join("\n", dataLines(20)) + "\n");
+        byte[] content = Files.readAllBytes(input);
+
+        Map<String, ExecutionContext> partitions =
+                new LineAlignedRangePartitioner(new FileSystemResource(input), 1).partition(4);
+
+        for (ExecutionContext context : partitions.values()) {
+            long start = context.getLong(LineAlignedRangePartitioner.START_OFFSET);
+            assertTrue(start == content.length || content[(int) start - 1] == '\n');
+        }
+    }
+
+    private List<String> readAll(Path input, Map<String, ExecutionContext> partitions, int gridSize) throws Exception {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < gridSize; i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals(i, context.getInt(LineAlignedRangePartitioner.PARTITION_INDEX));
+
+            FlatFileItemReader<String> reader = new FlatFileItemReader<>();
+            reader.setResource(new FileSystemResource(input));
+            reader.setLineMapper(new PassThroughLineMapper());
+            reader.setBufferedReaderFactory(new ByteRangeBufferedReaderFactory(
+                    context.getLong(LineAlignedRangePartitioner.START_OFFSET),
+                    context.getLong(LineAlignedRangePartitioner.END_OFFSET)));
+            reader.open(new ExecutionContext());
+            for (String line = reader.read(); line != null; line = reader.read()) {
+                result.add(line);
+            }
+            reader.close();
+        }
+        return result;
+    }
+
+    private List<String> dataLines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            lines.add(i + ",100.00,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,Cliente " + i + ",c" + i + "@example.com");
+        }
+        return lines;
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = tempDir.resolve("payments.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
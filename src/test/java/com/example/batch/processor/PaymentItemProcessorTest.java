@@ -1,17 +1,29 @@
 package com.example.batch.processor;
 
+import com.example.batch.customer.CustomerProfile;
+import com.example.batch.customer.CustomerProfileCache;
+import com.example.batch.dedup.DuplicatePaymentDetector;
 import com.example.batch.model.Payment;
 import com.example.batch.enums.PaymentType;
+import com.example.batch.fx.FxRate;
+import com.example.batch.fx.FxRateTable;
+import com.example.batch.validation.RejectReason;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.test.MetaDataInstanceFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +40,12 @@ class PaymentItemProcessorTest {
         ReflectionTestUtils.setField(processor, "minAmount", 10.0);
         ReflectionTestUtils.setField(processor, "maxAmount", 10000.0);
         ReflectionTestUtils.setField(processor, "supportedCurrencies", "USD,EUR,GBP,JPY");
+        FxRateTable rateTable = FxRateTable.of(List.of(
+                new FxRate("EUR", LocalDate.of(2024, 1, 1), new BigDecimal("1.10")),
+                new FxRate("EUR", LocalDate.of(2024, 5, 1), new BigDecimal("1.08")),
+                new FxRate("GBP", LocalDate.of(2024, 1, 1), new BigDecimal("1.27")),
+                new FxRate("JPY", LocalDate.of(2024, 1, 1), new BigDecimal("0.0065"))));
+        processor.setRateTableSupplier(() -> rateTable);
 
         validPayment = new Payment();
         validPayment.setId(1L);
@@ -41,6 +59,7 @@ class PaymentItemProcessorTest {
 
         // Configurar StepExecution para simular el paso 3
         stepExecution = MetaDataInstanceFactory.createStepExecution();
+        processor.afterPropertiesSet();
         processor.beforeStep(stepExecution);
     }
     
@@ -120,4 +139,134 @@ class PaymentItemProcessorTest {
         assertEquals("INVALID", result.getStatus());
         assertTrue(result.getErrorMessage().contains("Tipo de pago es requerido"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void process_eurPayment_convertsWithRateEffectiveAtPaymentDate() throws Exception {
+        validPayment.setCurrency("EUR");
+        validPayment.setPaymentDate(LocalDateTime.of(2024, 4, 30, 23, 59));
+
+        assertEquals(new BigDecimal("110.00"), processor.process(validPayment).getAmountInUSD());
+
+        validPayment.setPaymentDate(LocalDateTime.of(2024, 5, 1, 0, 0));
+
+        assertEquals(new BigDecimal("108.00"), processor.process(validPayment).getAmountInUSD());
+    }
+
+    @Test
+    void process_usdPayment_keepsAmount() throws Exception {
+        Payment result = processor.process(validPayment);
+
+        assertEquals(new BigDecimal("100.00"), result.getAmountInUSD());
+    }
+
+    @Test
+    void process_noRateForPaymentDate_rejectsPayment() throws Exception {
+        validPayment.setCurrency("JPY");
+        validPayment.setPaymentDate(LocalDateTime.of(2023, 12, 31, 10, 0));
+
+        Payment result = processor.process(validPayment);
+
+        assertEquals("INVALID", result.getStatus());
+        assertNull(result.getAmountInUSD());
+        assertTrue(result.getErrorMessage().contains("No hay tipo de cambio para JPY"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"10.005", "99.995", "1234.5678", "9999.99", "10"})
+    void process_compactAmount_matchesBigDecimalArithmetic(String amount) throws Exception {
+        validPayment.setAmount(new BigDecimal(amount));
+        validPayment.setCurrency("JPY");
+        validPayment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+
+        Payment result = processor.process(validPayment);
+
+        assertTrue(result.isAmountInUSDCompact());
+        assertEquals(new BigDecimal(amount).multiply(new BigDecimal("0.0065")).setScale(2, RoundingMode.HALF_UP),
+                result.getAmountInUSD());
+        assertEquals(new BigDecimal(amount).multiply(new BigDecimal("0.02")).setScale(2, RoundingMode.HALF_UP),
+                result.getCommission());
+    }
+
+    @Test
+    void process_amountBeyondLongRange_usesBigDecimalPath() throws Exception {
+        ReflectionTestUtils.setField(processor, "maxAmount", 1e30);
+        processor.afterPropertiesSet();
+        BigDecimal amount = new BigDecimal("12345678901234567890.125");
+        validPayment.setAmount(amount);
+        validPayment.setCurrency("GBP");
+
+        Payment result = processor.process(validPayment);
+
+        assertFalse(result.isAmountCompact());
+        assertEquals("PROCESSED", result.getStatus());
+        assertEquals(amount.multiply(new BigDecimal("1.27")).setScale(2, RoundingMode.HALF_UP), result.getAmountInUSD());
+        assertEquals(amount.multiply(new BigDecimal("0.02")).setScale(2, RoundingMode.HALF_UP), result.getCommission());
+    }
+
+    @Test
+    void process_resentPayment_rejectsAsDuplicateWithoutCommission(@TempDir Path tempDir) throws Exception {
+        DuplicatePaymentDetector detector = new DuplicatePaymentDetector(tempDir.resolve("dedup.journal"), 100, 0.01);
+        detector.open(new ExecutionContext());
+        processor.setDuplicateDetector(detector);
+        Payment resent = new Payment();
+        resent.setId(2L);
+        resent.setAmount(new BigDecimal("100.0"));
+        resent.setCurrency("USD");
+        resent.setPaymentDate(validPayment.getPaymentDate());
+        resent.setPaymentType(PaymentType.PAYPAL);
+        resent.setCustomerEmail("john@example.com");
+
+        assertEquals("PROCESSED", processor.process(validPayment).getStatus());
+        Payment result = processor.process(resent);
+        detector.close();
+
+        assertEquals("INVALID", result.getStatus());
+        assertEquals(RejectReason.DUPLICATE_PAYMENT, result.getRejectReason());
+        assertNull(result.getCommission());
+        assertTrue(result.getErrorMessage().startsWith("Pago duplicado"));
+    }
+
+    @Test
+    void process_customerProfile_blocksOrOverridesCommission() throws Exception {
+        processor.setCustomerProfiles(new CustomerProfileCache(email -> {
+            switch (email) {
+                case "john@example.com":
+                    return new CustomerProfile("LOW", new BigDecimal("0.015"), false);
+                case "bob@example.com":
+                    return new CustomerProfile("HIGH", null, true);
+                default:
+                    return null;
+            }
+        }, 100));
+        Payment blocked = new Payment();
+        blocked.setId(2L);
+        blocked.setAmount(new BigDecimal("50.00"));
+        blocked.setCurrency("USD");
+        blocked.setPaymentDate(validPayment.getPaymentDate());
+        blocked.setPaymentType(PaymentType.PAYPAL);
+        blocked.setCustomerEmail("Bob@example.com");
+
+        assertEquals(new BigDecimal("1.50"), processor.process(validPayment).getCommission());
+        Payment result = processor.process(blocked);
+
+        assertEquals("INVALID", result.getStatus());
+        assertEquals(RejectReason.CUSTOMER_BLOCKED, result.getRejectReason());
+        assertNull(result.getCommission());
+    }
+
+    @Test
+    void beforeStep_anotherPartitionStarting_doesNotReconfigureSharedProcessor() throws Exception {
+        // Una configuración cambiada después de inicializar no debe colarse al empezar otra partición
+        ReflectionTestUtils.setField(processor, "maxAmount", 50.0);
+        processor.beforeStep(MetaDataInstanceFactory.createStepExecution("step1:partition1", 2L));
+
+        assertEquals("PROCESSED", processor.process(validPayment).getStatus());
+    }
+
+    @Test
+    void beforeStep_withoutInitialization_fails() {
+        PaymentItemProcessor uninitialized = new PaymentItemProcessor();
+
+        assertThrows(IllegalStateException.class, () -> uninitialized.beforeStep(stepExecution));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.batch.reader;
+
+import com.example.batch.model.Payment;
+import com.example.batch.partition.LineAlignedRangePartitioner;
+import com.example.batch.spill.PaymentSpillFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPaymentFileReaderTest {
+
+    private static final String HEADER = "id,amount,currency,status,paymentDate,paymentType,customerName,customerEmail";
+
+    private final PaymentSpillFormat format = new PaymentSpillFormat();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_sampleInputFile_matchesFlatFileItemReader() throws Exception {
+        Resource input = new ClassPathResource("input/payments.txt");
+
+        assertEquals(readAll(flatFileReader(input)), readAll(mappedReader(input)));
+    }
+
+    @Test
+    void read_smallSegments_matchesSingleMapping() throws Exception {
+        Resource input = new ClassPathResource("input/payments.txt");
+        MappedPaymentFileReader reader = mappedReader(input);
+        reader.setSegmentSize(128);
+
+        assertEquals(readAll(flatFileReader(input)), readAll(reader));
+    }
+
+    @Test
+    void read_commentsCrLfNonAsciiAndNoTrailingNewline_matchesFlatFileItemReader() throws Exception {
+        Resource input = write(HEADER + "\r\n"
+                + "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com\r\n"
+                + "# comentario\n"
+                + "2,75.25,EUR,PENDING,2024-05-20T10:05:00,TRANSFER,José Núñez,jose@example.com\n"
+                + "3,50.00,GBP,PENDING,,PAYPAL,\"Doe, Bob\",bob@example.com");
+        FlatFileItemReader<Payment> flatFileReader = flatFileReader(input);
+        flatFileReader.setEncoding(StandardCharsets.UTF_8.name());
+
+        List<String> payments = readAll(mappedReader(input));
+
+        assertEquals(readAll(flatFileReader), payments);
+        assertEquals(3, payments.size());
+        assertTrue(payments.get(1).contains("José Núñez"));
+    }
+
+    @Test
+    void read_restart_continuesAfterLastSavedOffset() throws Exception {
+        Resource input = new ClassPathResource("input/payments.txt");
+        List<String> expected = readAll(mappedReader(input));
+
+        MappedPaymentFileReader first = mappedReader(input);
+        ExecutionContext context = new ExecutionContext();
+        first.open(context);
+        List<String> payments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            payments.add(format.aggregate(first.read()));
+        }
+        first.update(context);
+        first.read();
+        first.close();
+
+        MappedPaymentFileReader restarted = mappedReader(input);
+        restarted.open(context);
+        for (Payment payment = restarted.read(); payment != null; payment = restarted.read()) {
+            payments.add(format.aggregate(payment));
+        }
+        restarted.close();
+
+        assertEquals(expected, payments);
+    }
+
+    @Test
+    void read_partitionRanges_coverFileInOrder() throws Exception {
+        Resource input = new ClassPathResource("input/payments.txt");
+        Map<String, ExecutionContext> partitions = new LineAlignedRangePartitioner(input, 1).partition(3);
+
+        List<String> payments = new ArrayList<>();
+        for (ExecutionContext partition : partitions.values()) {
+            MappedPaymentFileReader reader = new MappedPaymentFileReader(input, PaymentLineMappers.fast());
+            reader.setRange(partition.getLong(LineAlignedRangePartitioner.START_OFFSET),
+                    partition.getLong(LineAlignedRangePartitioner.END_OFFSET));
+            payments.addAll(readAll(reader));
+        }
+
+        assertEquals(readAll(mappedReader(input)), payments);
+    }
+
+    @Test
+    void read_invalidLine_throwsParseExceptionWithLineNumber() throws Exception {
+        MappedPaymentFileReader reader = mappedReader(write(HEADER + "\n"
+                + "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com\n"
+                + "2,75.25,EUR\n"));
+        reader.open(new ExecutionContext());
+        reader.read();
+
+        FlatFileParseException e = assertThrows(FlatFileParseException.class, reader::read);
+
+        assertEquals(3, e.getLineNumber());
+        assertEquals("2,75.25,EUR", e.getInput());
+        reader.close();
+    }
+
+    @Test
+    void read_linesSplitAcrossSegments_matchesFlatFileItemReader() throws Exception {
+        Resource input = new ClassPathResource("input/payments.txt");
+        MappedPaymentFileReader reader = mappedReader(input);
+        reader.setSegmentSize(7);
+
+        assertEquals(readAll(flatFileReader(input)), readAll(reader));
+    }
+
+    private MappedPaymentFileReader mappedReader(Resource input) {
+        MappedPaymentFileReader reader = new MappedPaymentFileReader(input, PaymentLineMappers.fast());
+        reader.setLinesToSkip(1);
+        return reader;
+    }
+
+    private FlatFileItemReader<Payment> flatFileReader(Resource input) {
+        FlatFileItemReader<Payment> reader = new FlatFileItemReader<>();
+        reader.setResource(input);
+        reader.setLinesToSkip(1);
+        reader.setLineMapper(PaymentLineMappers.fast());
+        return reader;
+    }
+
+    private List<String> readAll(ItemStreamReader<Payment> reader) throws Exception {
+        List<String> payments = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            for (Payment payment = reader.read(); payment != null; payment = reader.read()) {
+                payments.add(format.aggregate(payment));
+            }
+        } finally {
+            reader.close();
+        }
+        return payments;
+    }
+
+    private Resource write(String content) throws Exception {
+        Path file = tempDir.resolve("payments.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return new FileSystemResource(file);
+    }
+}
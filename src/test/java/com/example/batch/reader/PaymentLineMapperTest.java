@@ -0,0 +1,110 @@
+package com.example.batch.reader;
+
+import com.example.batch.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentLineMapperTest {
+
+    private final PaymentLineMapper fastMapper = PaymentLineMappers.fast();
+    private final LineMapper<Payment> beanWrapperMapper = PaymentLineMappers.beanWrapper();
+
+    @Test
+    void mapLine_sampleInputFile_matchesBeanWrapperMapper() throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("input/payments.txt").getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            int lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                assertSamePayment(beanWrapperMapper.mapLine(line, ++lineNumber), fastMapper.mapLine(line, lineNumber));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "1,100.50,USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,John Doe,john@example.com",
+        "2,5.,EUR,PENDING,2024-05-20t10:05,TRANSFER,Jane Smith,jane@example.com",
+        "3,.5,GBP,PENDING,2024-02-29T23:59:59,PAYPAL,Bob,bob@example.com",
+        "4,-0.00,JPY,PENDING,2023-02-29T10:00:00,CRYPTO,Alice,alice@example.com",
+        "5, 1 00.00 ,MXN,NEW,2024-05-20T24:00:00,DEBIT_CARD, Padded ,",
+        "6,100,USD,PENDING,2024-05-20T10:00:00.123,CREDIT_CARD,Fraction,f@example.com",
+        "7,100,USD,PENDING,2024-05-20T10:00:00Z,CREDIT_CARD,Offset,o@example.com",
+        "8,100,USD,PENDING,invalid-date,CREDIT_CARD,Bad Date,b@example.com",
+        "9,100,USD,PENDING,   ,,Blank Date,b@example.com",
+        "14 , 7.25 , USD ,PENDING, 2024-05-20T10:00:00 , PAYPAL ,Trimmed, t@example.com ",
+        "10,123456789012345678901.25,USD,PENDING,2024-13-01T10:00,CREDIT_CARD,Big,big@example.com",
+        "+11,100,USD,PENDING,+2024-05-20T10:00:00,CREDIT_CARD,Signed,s@example.com",
+        "12,100,USD,PENDING,2024-05-20T10:00:0,CREDIT_CARD,Short,s@example.com",
+        ",,,,,,,",
+        "\"13\",\"1000.00\",USD,PENDING,2024-05-20T10:00:00,CREDIT_CARD,\"Doe, John\",john@example.com"
+    })
+    void mapLine_edgeCases_matchesBeanWrapperMapper(String line) throws Exception {
+        assertSamePayment(beanWrapperMapper.mapLine(line, 1), fastMapper.mapLine(line, 1));
+    }
+
+    @Test
+    void mapLine_invalidDate_returnsNullDate() throws Exception {
+        Payment payment = fastMapper.mapLine("8,100,USD,PENDING,invalid-date,CREDIT_CARD,Bad Date,b@example.com", 1);
+
+        assertNull(payment.getPaymentDate());
+        assertEquals(new BigDecimal("100"), payment.getAmount());
+    }
+
+    @Test
+    void mapLine_wrongFieldCount_throwsLikeTokenizer() {
+        assertThrows(IncorrectTokenCountException.class, () -> fastMapper.mapLine("1,2,3", 1));
+        assertThrows(IncorrectTokenCountException.class, () -> fastMapper.mapLine("", 1));
+        assertThrows(IncorrectTokenCountException.class, () -> fastMapper.mapLine("1,2,3,4,5,6,7,8,9", 1));
+    }
+
+    @Test
+    void mapLine_unknownPaymentType_failsLikeBeanWrapper() {
+        String line = "1,100.50,USD,PENDING,2024-05-20T10:00:00,CHEQUE,John Doe,john@example.com";
+
+        assertThrows(Exception.class, () -> beanWrapperMapper.mapLine(line, 1));
+        assertThrows(IllegalArgumentException.class, () -> fastMapper.mapLine(line, 1));
+    }
+
+    private static void assertSamePayment(Payment expected, Payment actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        if (expected.getAmount() != null) {
+            assertEquals(expected.getAmount().scale(), actual.getAmount().scale());
+        }
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getPaymentDate(), actual.getPaymentDate());
+        assertEquals(expected.getPaymentType(), actual.getPaymentType());
+        assertEquals(expected.getCustomerName(), actual.getCustomerName());
+        assertEquals(expected.getCustomerEmail(), actual.getCustomerEmail());
+    }
+
+    @Test
+    void epochDay_matchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(),
+                    PaymentLineMapper.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()), date::toString);
+        }
+    }
+
+    @Test
+    void mapLine_isoMinutePrecision_parsesWithoutSeconds() throws Exception {
+        Payment payment = fastMapper.mapLine("1,10,USD,PENDING,2024-05-20T10:05,PAYPAL,A,a@example.com", 1);
+
+        assertEquals(LocalDateTime.of(2024, 5, 20, 10, 5), payment.getPaymentDate());
+    }
+}
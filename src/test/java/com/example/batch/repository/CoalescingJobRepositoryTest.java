@@ -0,0 +1,126 @@
+package com.example.batch.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingJobRepositoryTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JobRepository jdbcRepository;
+
+    @BeforeEach
+    void createRepository() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(new DataSourceTransactionManager(database));
+        factory.afterPropertiesSet();
+        jdbcRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void update_writesProgressEveryNCommits() throws Exception {
+        CoalescingJobRepository repository = new CoalescingJobRepository(jdbcRepository, 3, 60_000);
+        StepExecution step = startStep(repository);
+
+        commit(repository, step, 1);
+        commit(repository, step, 2);
+
+        assertEquals(0, storedReadCount(step));
+        assertFalse(storedContext(step).contains("position"));
+
+        commit(repository, step, 3);
+
+        assertEquals(3, storedReadCount(step));
+        assertTrue(storedContext(step).contains("position"));
+        // Inicio: 1 de 1; tres commits: 6 pedidas, 2 escritas
+        assertEquals(7, repository.requestedCount());
+        assertEquals(3, repository.writtenCount());
+    }
+
+    @Test
+    void update_statusChangeWritesPendingProgressImmediately() throws Exception {
+        CoalescingJobRepository repository = new CoalescingJobRepository(jdbcRepository, 100, 60_000);
+        StepExecution step = startStep(repository);
+        commit(repository, step, 1);
+        commit(repository, step, 2);
+
+        step.setStatus(BatchStatus.FAILED);
+        repository.updateExecutionContext(step);
+
+        assertTrue(storedContext(step).contains("position"));
+
+        repository.update(step);
+
+        assertEquals(2, storedReadCount(step));
+        assertEquals("FAILED", jdbcTemplate.queryForObject(
+                "SELECT STATUS FROM BATCH_STEP_EXECUTION WHERE STEP_EXECUTION_ID = ?", String.class, step.getId()));
+        assertEquals(step.getVersion(), jdbcTemplate.queryForObject(
+                "SELECT VERSION FROM BATCH_STEP_EXECUTION WHERE STEP_EXECUTION_ID = ?", Integer.class, step.getId()));
+    }
+
+    @Test
+    void update_zeroIntervalWritesEveryCommit() throws Exception {
+        CoalescingJobRepository repository = new CoalescingJobRepository(jdbcRepository, 100, 0);
+        StepExecution step = startStep(repository);
+
+        commit(repository, step, 1);
+
+        assertEquals(1, storedReadCount(step));
+        assertEquals(repository.requestedCount(), repository.writtenCount());
+    }
+
+    private StepExecution startStep(JobRepository repository) throws Exception {
+        JobExecution jobExecution = repository.createJobExecution("importPaymentsJob",
+                new JobParametersBuilder().addLong("run", 1L).toJobParameters());
+        StepExecution step = jobExecution.createStepExecution("step1");
+        repository.add(step);
+        step.setStatus(BatchStatus.STARTED);
+        repository.update(step);
+        return step;
+    }
+
+    /** Lo que hace TaskletStep al confirmar cada chunk. */
+    private static void commit(JobRepository repository, StepExecution step, int readCount) {
+        step.setReadCount(readCount);
+        step.getExecutionContext().putLong("reader.position", readCount * 100L);
+        repository.updateExecutionContext(step);
+        repository.update(step);
+    }
+
+    private int storedReadCount(StepExecution step) {
+        return jdbcTemplate.queryForObject("SELECT READ_COUNT FROM BATCH_STEP_EXECUTION WHERE STEP_EXECUTION_ID = ?",
+                Integer.class, step.getId());
+    }
+
+    private String storedContext(StepExecution step) {
+        return jdbcTemplate.queryForObject(
+                "SELECT SHORT_CONTEXT FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID = ?",
+                String.class, step.getId());
+    }
+}
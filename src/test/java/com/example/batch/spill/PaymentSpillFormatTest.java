@@ -0,0 +1,68 @@
+package com.example.batch.spill;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentSpillFormatTest {
+
+    private final PaymentSpillFormat format = new PaymentSpillFormat();
+
+    @Test
+    void mapLine_aggregatedPayment_restoresAllFields() {
+        Payment payment = new Payment();
+        payment.setId(6L);
+        payment.setAmount(new BigDecimal("5.00"));
+        payment.setCurrency("USD");
+        payment.setStatus("INVALID");
+        payment.setPaymentDate(LocalDateTime.parse("2024-05-20T10:25:00"));
+        payment.setPaymentType(PaymentType.CREDIT_CARD);
+        payment.setCustomerName("Invalid Amount");
+        payment.setCustomerEmail("invalid@example.com");
+        payment.setValidationStatus("INVALID");
+        payment.setErrorMessage("El monto es menor al mínimo permitido: 10.0");
+
+        Payment result = format.mapLine(format.aggregate(payment), 1);
+
+        assertEquals(6L, result.getId());
+        assertEquals(new BigDecimal("5.00"), result.getAmount());
+        assertEquals("USD", result.getCurrency());
+        assertEquals("INVALID", result.getStatus());
+        assertEquals(payment.getPaymentDate(), result.getPaymentDate());
+        assertEquals(PaymentType.CREDIT_CARD, result.getPaymentType());
+        assertEquals("Invalid Amount", result.getCustomerName());
+        assertEquals("invalid@example.com", result.getCustomerEmail());
+        assertNull(result.getAmountInUSD());
+        assertNull(result.getCommission());
+        assertEquals("INVALID", result.getValidationStatus());
+        assertEquals("El monto es menor al mínimo permitido: 10.0", result.getErrorMessage());
+    }
+
+    @Test
+    void mapLine_controlCharactersAndEmptyValues_areEscaped() {
+        Payment payment = new Payment();
+        payment.setCustomerName("Tab\there\\N");
+        payment.setCustomerEmail("");
+        payment.setErrorMessage("línea\nnueva\r");
+
+        String line = format.aggregate(payment);
+        Payment result = format.mapLine(line, 1);
+
+        assertFalse(line.contains("\n"));
+        assertEquals("Tab\there\\N", result.getCustomerName());
+        assertEquals("", result.getCustomerEmail());
+        assertEquals("línea\nnueva\r", result.getErrorMessage());
+        assertNull(result.getId());
+        assertNull(result.getPaymentType());
+    }
+
+    @Test
+    void mapLine_missingFields_failsFast() {
+        assertThrows(IllegalStateException.class, () -> format.mapLine("1\t2\t3", 7));
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.batch.summary;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentSummaryWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void write_groupsByCurrencyTypeAndHour() {
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(tempDir);
+        writer.open(new ExecutionContext());
+
+        writer.write(List.of(
+                processed("USD", PaymentType.CREDIT_CARD, 10, "100.50", "2.01"),
+                processed("USD", PaymentType.CREDIT_CARD, 10, "0.5", "0.01"),
+                rejected("USD", PaymentType.CREDIT_CARD, 10, "5"),
+                processed("USD", PaymentType.CREDIT_CARD, 11, "7", "0.14"),
+                processed("EUR", PaymentType.PAYPAL, 10, "75.25", "1.51")));
+
+        assertEquals(List.of(PaymentSummary.HEADER,
+                "EUR|PAYPAL|2024-05-20T10:00|1|0|75.25|75.25|1.51",
+                "USD|CREDIT_CARD|2024-05-20T10:00|3|1|106.00|101.00|2.02",
+                "USD|CREDIT_CARD|2024-05-20T11:00|1|0|7.00|7.00|0.14"), lines(writer.getSummary()));
+    }
+
+    @Test
+    void write_rolledBackChunk_isSubtracted() {
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(tempDir);
+        writer.open(new ExecutionContext());
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "10", "0.20")));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "20", "0.40"),
+                rejected("GBP", PaymentType.TRANSFER, 12, "30")));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(List.of(PaymentSummary.HEADER,
+                "USD|PAYPAL|2024-05-20T10:00|1|0|10.00|10.00|0.20"), lines(writer.getSummary()));
+    }
+
+    @Test
+    void open_restoresTotalsSavedInExecutionContext() {
+        ExecutionContext executionContext = new ExecutionContext();
+        PaymentSummaryWriter first = new PaymentSummaryWriter(tempDir);
+        first.open(executionContext);
+        first.write(List.of(processed("JPY", PaymentType.DEBIT_CARD, 10, "300", "6.00"),
+                rejected("USD", null, -1, null)));
+        first.update(executionContext);
+
+        // El reinicio arranca con una instancia nueva y el contexto del último commit
+        PaymentSummaryWriter restarted = new PaymentSummaryWriter(tempDir);
+        restarted.open(executionContext);
+        restarted.write(List.of(processed("JPY", PaymentType.DEBIT_CARD, 10, "0.0001", "0")));
+
+        assertEquals(List.of(PaymentSummary.HEADER,
+                "JPY|DEBIT_CARD|2024-05-20T10:00|2|0|300.0001|300.0001|6.00",
+                "USD|||1|1|0.00|0.00|0.00"), lines(restarted.getSummary()));
+    }
+
+    @Test
+    void update_storesOnlyJournalLengthAndAppendsChunkTotals() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(tempDir);
+        writer.open(executionContext);
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "10", "0.20")));
+        writer.update(executionContext);
+        long firstLength = executionContext.getLong("PaymentSummaryWriter.journal.length");
+
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "20", "0.40")));
+        writer.update(executionContext);
+        // Sin chunks nuevos no se agrega nada
+        writer.update(executionContext);
+        writer.close();
+
+        Path journal = Path.of(executionContext.getString("PaymentSummaryWriter.journal"));
+        assertEquals(2 * firstLength, executionContext.getLong("PaymentSummaryWriter.journal.length"));
+        assertEquals(2 * firstLength, Files.size(journal));
+        assertFalse(executionContext.containsKey("PaymentSummaryWriter.state"));
+        assertEquals(List.of(PaymentSummary.HEADER, "USD|PAYPAL|2024-05-20T10:00|2|0|30.00|30.00|0.60"),
+                lines(PaymentSummaryWriter.committed(executionContext, "PaymentSummaryWriter.")));
+    }
+
+    @Test
+    void update_thenRollback_truncatesJournalToLastCommit() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        PaymentSummaryWriter writer = new PaymentSummaryWriter(tempDir);
+        writer.open(executionContext);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "10", "0.20")));
+        writer.update(executionContext);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        long committed = executionContext.getLong("PaymentSummaryWriter.journal.length");
+
+        // El commit falla después de update(): el chunk ya estaba en el diario
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(processed("EUR", PaymentType.TRANSFER, 11, "20", "0.40")));
+        writer.write(List.of(rejected("GBP", PaymentType.TRANSFER, 12, "30")));
+        writer.update(executionContext);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(List.of(processed("USD", PaymentType.PAYPAL, 10, "5", "0.10")));
+        writer.update(executionContext);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        writer.close();
+
+        long length = executionContext.getLong("PaymentSummaryWriter.journal.length");
+        assertTrue(length > committed && length < 2 * committed + 8);
+        assertEquals(length, Files.size(Path.of(executionContext.getString("PaymentSummaryWriter.journal"))));
+        List<String> expected = List.of(PaymentSummary.HEADER, "USD|PAYPAL|2024-05-20T10:00|2|0|15.00|15.00|0.30");
+        assertEquals(expected, lines(writer.getSummary()));
+        assertEquals(expected, lines(PaymentSummaryWriter.committed(executionContext, "PaymentSummaryWriter.")));
+    }
+
+    @Test
+    void summary_largeAndFineGrainedAmounts_keepExactSums() {
+        PaymentSummary summary = new PaymentSummary();
+        summary.add(List.of(
+                processed("USD", PaymentType.CRYPTO, 10, "123456789012345678901.5", "0.123456"),
+                processed("USD", PaymentType.CRYPTO, 10, "0.00005", "922337203685477.5807")));
+
+        PaymentSummary restored = PaymentSummary.fromState(summary.toState());
+
+        assertEquals(List.of(PaymentSummary.HEADER,
+                "USD|CRYPTO|2024-05-20T10:00|2|0|123456789012345678901.50005|123456789012345678901.50005"
+                        + "|922337203685477.704156"), lines(restored));
+    }
+
+    @Test
+    void summary_concurrentWritesAndMerge_countEveryPayment() throws Exception {
+        PaymentSummary summary = new PaymentSummary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        summary.add(List.of(processed("USD", PaymentType.PAYPAL, 10, "1.25", "0.03")));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        PaymentSummary merged = new PaymentSummary();
+        merged.merge(summary);
+        merged.merge(summary);
+
+        assertEquals(List.of(PaymentSummary.HEADER, "USD|PAYPAL|2024-05-20T10:00|8000|0|10000.00|10000.00|240.00"),
+                lines(merged));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.beforeCommit(false);
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static List<String> lines(PaymentSummary summary) {
+        StringWriter out = new StringWriter();
+        summary.writeTo(out);
+        return List.of(out.toString().split("\n"));
+    }
+
+    private static Payment processed(String currency, PaymentType type, int hour, String amount, String commission) {
+        Payment payment = payment(currency, type, hour, amount);
+        payment.setStatus("PROCESSED");
+        payment.setAmountInUSD(new BigDecimal(amount));
+        payment.setCommission(new BigDecimal(commission));
+        return payment;
+    }
+
+    private static Payment rejected(String currency, PaymentType type, int hour, String amount) {
+        Payment payment = payment(currency, type, hour, amount);
+        payment.setStatus("INVALID");
+        return payment;
+    }
+
+    private static Payment payment(String currency, PaymentType type, int hour, String amount) {
+        Payment payment = new Payment();
+        payment.setCurrency(currency);
+        payment.setPaymentType(type);
+        payment.setPaymentDate(hour >= 0 ? LocalDateTime.of(2024, 5, 20, hour, 30) : null);
+        payment.setAmount(amount != null ? new BigDecimal(amount) : null);
+        return payment;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.batch.validation;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentValidatorTest {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private final PaymentValidator validator = PaymentValidator.compile(PaymentValidator.DEFAULT_RULES,
+            10.0, 10000.0, List.of("USD", "EUR", "GBP", "JPY"));
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        payment = new Payment();
+        payment.setId(1L);
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setCurrency("USD");
+        payment.setPaymentDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+        payment.setPaymentType(PaymentType.CREDIT_CARD);
+        payment.setCustomerEmail("john@example.com");
+    }
+
+    @Test
+    void validate_validPayment_returnsNull() {
+        assertNull(validator.validate(payment));
+    }
+
+    @Test
+    void validate_amountLimitsAreInclusive() {
+        payment.setAmount(new BigDecimal("10.00"));
+        assertNull(validator.validate(payment));
+
+        payment.setAmount(new BigDecimal("10000.00"));
+        assertNull(validator.validate(payment));
+
+        payment.setAmount(new BigDecimal("9.99"));
+        assertReject(RejectReason.AMOUNT_BELOW_MINIMUM, "El monto es menor al mínimo permitido: 10.0");
+
+        payment.setAmount(new BigDecimal("10000.01"));
+        assertReject(RejectReason.AMOUNT_ABOVE_MAXIMUM, "El monto es mayor al máximo permitido: 10000.0");
+    }
+
+    @Test
+    void validate_returnsFirstFailingRuleInOrder() {
+        payment.setCurrency(null);
+        payment.setCustomerEmail("");
+        payment.setPaymentDate(null);
+
+        assertReject(RejectReason.UNSUPPORTED_CURRENCY, "Moneda no soportada: null");
+
+        payment.setCurrency("EUR");
+        assertReject(RejectReason.EMAIL_REQUIRED, "Email del cliente es requerido");
+
+        payment.setCustomerEmail("invalid-email");
+        assertReject(RejectReason.EMAIL_INVALID, "Formato de email inválido: invalid-email");
+
+        payment.setCustomerEmail("ok@example.com");
+        assertReject(RejectReason.PAYMENT_DATE_REQUIRED, "Fecha de pago es requerida");
+
+        payment.setPaymentType(null);
+        assertReject(RejectReason.PAYMENT_TYPE_REQUIRED, "Tipo de pago es requerido");
+    }
+
+    @Test
+    void compile_configuredRules_onlyEvaluatesThose() {
+        PaymentValidator amountOnly = PaymentValidator.compile(List.of("amount"), 1.0, 5.0, List.of());
+        payment.setAmount(new BigDecimal("3"));
+        payment.setCurrency("MXN");
+        payment.setCustomerEmail(null);
+
+        assertNull(amountOnly.validate(payment));
+        assertThrows(IllegalArgumentException.class,
+                () -> PaymentValidator.compile(List.of("amount", "iban"), 1.0, 5.0, List.of()));
+    }
+
+    @Test
+    void compile_idRule_rejectsPaymentWithoutId() {
+        PaymentValidator withId = PaymentValidator.compile(List.of("id", "amount"), 1.0, 5.0, List.of());
+        payment.setAmount(new BigDecimal("3"));
+        payment.setId(null);
+
+        assertEquals(RejectReason.ID_REQUIRED, withId.validate(payment).reason());
+        assertEquals("Id del pago es requerido", withId.validate(payment).rejectMessage(payment));
+        payment.setId(1L);
+        assertNull(withId.validate(payment));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"john@example.com", "a@b", "a.b+c_d-e@x@y", "@example.com", "john@", "john",
+            "john doe@example.com", "josé@example.com", "john@exa mple.com", "john@example.com\n", "john@ x",
+            "john@x\u0085", "john@x\r", "JOHN.DOE@EXAMPLE.COM", "john@@example.com", "-@-", "a@\t"})
+    void isValidEmail_matchesRegex(String email) {
+        assertEquals(EMAIL_PATTERN.matcher(email).matches(), PaymentRules.isValidEmail(email), email);
+    }
+
+    private void assertReject(RejectReason reason, String message) {
+        PaymentRule rule = validator.validate(payment);
+        assertNotNull(rule);
+        assertEquals(reason, rule.reason());
+        assertEquals(message, rule.rejectMessage(payment));
+    }
+}
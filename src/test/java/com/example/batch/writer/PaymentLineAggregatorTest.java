@@ -0,0 +1,146 @@
+package com.example.batch.writer;
+
+import com.example.batch.enums.PaymentType;
+import com.example.batch.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentLineAggregatorTest {
+
+    private static final String[] PROCESSED_FIELDS = {"id", "amount", "currency", "status", "paymentDate",
+            "paymentType", "customerName", "customerEmail", "amountInUSD", "commission", "validationStatus"};
+    private static final String[] REPORT_FIELDS = {"id", "amount", "currency", "amountInUSD", "commission",
+            "paymentType", "status"};
+    private static final String[] REJECTED_FIELDS = {"id", "amount", "currency", "status", "paymentDate",
+            "paymentType", "customerName", "customerEmail", "errorMessage"};
+
+    @Test
+    void aggregate_typicalPayments_matchesDelimitedLineAggregator() {
+        for (Payment payment : samplePayments()) {
+            assertSameLines(payment);
+        }
+    }
+
+    @Test
+    void aggregate_allFieldsNull_writesEmptyColumns() {
+        Payment payment = new Payment();
+
+        assertEquals(",,,,,,,,,,", PaymentLineAggregator.processedPayments().aggregate(payment));
+        assertEquals("||||||", PaymentLineAggregator.report().aggregate(payment));
+        assertSameLines(payment);
+    }
+
+    @Test
+    void aggregate_textWithDelimiterOrQuotes_isQuotedLikeCsv() {
+        Payment payment = new Payment();
+        payment.setId(7L);
+        payment.setCustomerName("Doe, John \"JD\"");
+        payment.setCustomerEmail("john|doe@example.com");
+
+        assertEquals("7,,,,,,\"Doe, John \"\"JD\"\"\",john|doe@example.com,,,",
+                PaymentLineAggregator.processedPayments().aggregate(payment));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.00", "-0.00", "100.5", "-123.45", "0.001", "0.0000001", "1E+3", "1.5E-10",
+            "999999999999999999", "-999999999999999999.99", "12345678901234567890.12", "0.000001", "5.000000000"})
+    void appendDecimal_matchesToString(String value) {
+        BigDecimal decimal = new BigDecimal(value);
+        StringBuilder target = new StringBuilder("x");
+
+        PaymentLineAggregator.appendDecimal(target, decimal);
+
+        assertEquals("x" + decimal, target.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-05-20T10:00", "2024-05-20T10:00:05", "2024-05-20T10:00:00.100",
+            "2024-05-20T10:00:00.000100", "2024-05-20T10:00:00.000000001", "0999-01-01T00:00", "+12024-12-31T23:59:59",
+            "2024-02-29T00:00", "2023-03-01T00:00:01", "2000-12-31T23:59", "1969-12-31T23:59:59.5"})
+    void appendDateTime_matchesToString(String value) {
+        LocalDateTime dateTime = LocalDateTime.parse(value);
+        StringBuilder target = new StringBuilder();
+
+        PaymentLineAggregator.appendDateTime(target, dateTime);
+
+        assertEquals(dateTime.toString(), target.toString());
+    }
+
+    @Test
+    void doWrite_chunk_joinsLinesWithSeparator() {
+        PaymentFlatFileItemWriter writer = new PaymentFlatFileItemWriter(PaymentLineAggregator.report());
+        List<Payment> payments = samplePayments();
+
+        String expected = payments.stream()
+                .map(payment -> delimited("|", REPORT_FIELDS).aggregate(payment) + System.lineSeparator())
+                .reduce("", String::concat);
+
+        assertEquals(expected, writer.doWrite(payments));
+        assertEquals(expected, writer.doWrite(payments));
+    }
+
+    private static void assertSameLines(Payment payment) {
+        assertEquals(delimited(",", PROCESSED_FIELDS).aggregate(payment),
+                PaymentLineAggregator.processedPayments().aggregate(payment));
+        assertEquals(delimited("|", REPORT_FIELDS).aggregate(payment),
+                PaymentLineAggregator.report().aggregate(payment));
+        assertEquals(delimited(",", REJECTED_FIELDS).aggregate(payment),
+                PaymentLineAggregator.rejectedPayments().aggregate(payment));
+    }
+
+    private static DelimitedLineAggregator<Payment> delimited(String delimiter, String[] fields) {
+        BeanWrapperFieldExtractor<Payment> extractor = new BeanWrapperFieldExtractor<>();
+        extractor.setNames(fields);
+        DelimitedLineAggregator<Payment> aggregator = new DelimitedLineAggregator<>();
+        aggregator.setDelimiter(delimiter);
+        aggregator.setFieldExtractor(extractor);
+        return aggregator;
+    }
+
+    private static List<Payment> samplePayments() {
+        Payment processed = payment(1L, "100.50", "USD", LocalDateTime.of(2024, 5, 20, 10, 0), PaymentType.CREDIT_CARD);
+        processed.setStatus("PROCESSED");
+        processed.setAmountInUSD(new BigDecimal("100.50"));
+        processed.setCommission(new BigDecimal("2.5125"));
+        processed.setValidationStatus("VALID");
+
+        Payment converted = payment(2L, "250.00", "JPY", LocalDateTime.of(2024, 5, 20, 10, 5, 30), PaymentType.CRYPTO);
+        converted.setStatus("PROCESSED");
+        converted.setAmountInUSD(new BigDecimal("1.6750"));
+        converted.setCommission(new BigDecimal("0.041875000"));
+        converted.setValidationStatus("VALID");
+
+        Payment rejected = payment(3L, "5.00", "MXN", null, PaymentType.PAYPAL);
+        rejected.setStatus("REJECTED");
+        rejected.setValidationStatus("INVALID");
+        rejected.setErrorMessage("Moneda no soportada: MXN");
+
+        Payment negative = payment(-4L, "-0.0000001", "EUR", LocalDateTime.of(2024, 1, 1, 0, 0, 0, 123_000_000),
+                PaymentType.TRANSFER);
+        negative.setCustomerName("José Núñez");
+
+        return Arrays.asList(processed, converted, rejected, negative);
+    }
+
+    private static Payment payment(Long id, String amount, String currency, LocalDateTime date, PaymentType type) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCurrency(currency);
+        payment.setPaymentDate(date);
+        payment.setPaymentType(type);
+        payment.setCustomerName("Customer " + id);
+        payment.setCustomerEmail("customer" + id + "@example.com");
+        return payment;
+    }
+}